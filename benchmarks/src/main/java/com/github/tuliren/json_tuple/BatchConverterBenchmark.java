@@ -0,0 +1,65 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how batch conversion scales with the parallelism of the pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchConverterBenchmark {
+
+  private static final int BATCH_SIZE = 1000;
+
+  @Param({"ARRAY_HEAVY", "WIDE"})
+  private DocumentShape shape;
+
+  @Param({"1", "2", "4", "8"})
+  private int parallelism;
+
+  private List<JsonObject> jsons;
+  private ForkJoinPool pool;
+  private BatchConverter converter;
+
+  @Setup
+  public void setup() {
+    jsons = new ArrayList<>(BATCH_SIZE);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      jsons.add(shape.create(100));
+    }
+    pool = new ForkJoinPool(parallelism);
+    converter = new BatchConverter(pool);
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public List<ConversionResult<List<JsonTuple>>> toTupleLists() {
+    return converter.toTupleLists(jsons);
+  }
+
+}
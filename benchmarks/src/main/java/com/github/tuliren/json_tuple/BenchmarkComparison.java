@@ -0,0 +1,104 @@
+package com.github.tuliren.json_tuple;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Compares two JMH result files in json format (written with {@code -rf json -rff <file>}), and prints the change
+ * of the primary score and of the normalized allocation rate (when run with {@code -prof gc}) for each benchmark.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar com.github.tuliren.json_tuple.BenchmarkComparison baseline.json candidate.json}
+ */
+public final class BenchmarkComparison {
+
+  private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+  private BenchmarkComparison() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: BenchmarkComparison <baseline.json> <candidate.json>");
+      System.exit(1);
+    }
+    Map<String, JsonObject> baseline = readResults(args[0]);
+    Map<String, JsonObject> candidate = readResults(args[1]);
+
+    System.out.println(String.format("%-100s %16s %16s %9s %14s %14s %9s",
+        "Benchmark", "Baseline", "Candidate", "Change", "Base B/op", "Cand B/op", "Change"));
+    for (Map.Entry<String, JsonObject> entry : candidate.entrySet()) {
+      JsonObject baselineResult = baseline.get(entry.getKey());
+      if (baselineResult == null) {
+        continue;
+      }
+      JsonObject candidateResult = entry.getValue();
+      double baselineScore = getPrimaryScore(baselineResult);
+      double candidateScore = getPrimaryScore(candidateResult);
+      double baselineAllocation = getAllocation(baselineResult);
+      double candidateAllocation = getAllocation(candidateResult);
+      System.out.println(String.format("%-100s %16.3f %16.3f %8.1f%% %14.1f %14.1f %8.1f%%",
+          entry.getKey(),
+          baselineScore, candidateScore, getChange(baselineScore, candidateScore),
+          baselineAllocation, candidateAllocation, getChange(baselineAllocation, candidateAllocation)));
+    }
+  }
+
+  private static Map<String, JsonObject> readResults(String file) throws IOException {
+    Map<String, JsonObject> results = new TreeMap<>();
+    try (Reader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+      for (JsonElement element : JsonParser.parseReader(reader).getAsJsonArray()) {
+        JsonObject result = element.getAsJsonObject();
+        results.put(getKey(result), result);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * @return benchmark name, mode, and parameters, e.g. "ToTupleListBenchmark.toTupleList thrpt shape=FLAT size=100".
+   */
+  private static String getKey(JsonObject result) {
+    String benchmark = result.get("benchmark").getAsString();
+    StringBuilder key = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1));
+    key.append(' ').append(result.get("mode").getAsString());
+    if (result.has("params")) {
+      Map<String, String> params = new LinkedHashMap<>();
+      for (Map.Entry<String, JsonElement> param : result.getAsJsonObject("params").entrySet()) {
+        params.put(param.getKey(), param.getValue().getAsString());
+      }
+      params.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+    }
+    return key.toString();
+  }
+
+  private static double getPrimaryScore(JsonObject result) {
+    return result.getAsJsonObject("primaryMetric").get("score").getAsDouble();
+  }
+
+  private static double getAllocation(JsonObject result) {
+    if (!result.has("secondaryMetrics")) {
+      return Double.NaN;
+    }
+    for (Map.Entry<String, JsonElement> metric : result.getAsJsonObject("secondaryMetrics").entrySet()) {
+      if (metric.getKey().endsWith(ALLOCATION_METRIC)) {
+        return metric.getValue().getAsJsonObject().get("score").getAsDouble();
+      }
+    }
+    return Double.NaN;
+  }
+
+  private static double getChange(double baseline, double candidate) {
+    return (candidate - baseline) / baseline * 100.0;
+  }
+
+}
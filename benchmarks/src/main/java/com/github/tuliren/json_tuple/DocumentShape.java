@@ -0,0 +1,162 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.Random;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Synthetic json documents for benchmarks. Each shape creates a document with roughly {@code size} values.
+ */
+public enum DocumentShape {
+
+  // one object with many primitive values of mixed types
+  FLAT {
+    @Override
+    JsonObject create(int size, Random random) {
+      JsonObject json = new JsonObject();
+      for (int i = 0; i < size; i++) {
+        addPrimitive(json, "key" + i, i, random);
+      }
+      return json;
+    }
+  },
+
+  // many top-level keys, each with a small nested object
+  WIDE {
+    @Override
+    JsonObject create(int size, Random random) {
+      JsonObject json = new JsonObject();
+      for (int i = 0; i < size / 4; i++) {
+        JsonObject child = new JsonObject();
+        for (int j = 0; j < 4; j++) {
+          addPrimitive(child, "field" + j, j, random);
+        }
+        json.add("key" + i, child);
+      }
+      return json;
+    }
+  },
+
+  // nested objects that are many levels deep
+  DEEP {
+    @Override
+    JsonObject create(int size, Random random) {
+      JsonObject json = new JsonObject();
+      for (int i = 0; i < Math.max(1, size / DEEP_LEVELS); i++) {
+        JsonObject parent = json;
+        for (int level = 0; level < DEEP_LEVELS; level++) {
+          JsonObject child = new JsonObject();
+          addPrimitive(child, "value", level, random);
+          parent.add(level == 0 ? "root" + i : "level" + level, child);
+          parent = child;
+        }
+      }
+      return json;
+    }
+  },
+
+  // a large array of small objects
+  ARRAY_HEAVY {
+    @Override
+    JsonObject create(int size, Random random) {
+      JsonArray items = new JsonArray();
+      for (int i = 0; i < size / 4; i++) {
+        JsonObject item = new JsonObject();
+        item.addProperty("id", i);
+        item.addProperty("price", random.nextInt(100000) / 100.0);
+        item.addProperty("name", "item" + i);
+        item.addProperty("available", random.nextBoolean());
+        items.add(item);
+      }
+      JsonObject json = new JsonObject();
+      json.add("items", items);
+      return json;
+    }
+  },
+
+  // keyless arrays nested in arrays, like [[1, 2], [3]]
+  NESTED_ARRAYS {
+    @Override
+    JsonObject create(int size, Random random) {
+      JsonArray matrix = new JsonArray();
+      for (int i = 0; i < size / 4; i++) {
+        JsonArray row = new JsonArray();
+        for (int j = 0; j < 1 + i % 4; j++) {
+          JsonArray cell = new JsonArray();
+          cell.add(random.nextInt(1000));
+          row.add(cell);
+        }
+        matrix.add(row);
+      }
+      JsonObject json = new JsonObject();
+      json.add("matrix", matrix);
+      return json;
+    }
+  },
+
+  // long string values
+  STRING_HEAVY {
+    @Override
+    JsonObject create(int size, Random random) {
+      JsonObject json = new JsonObject();
+      for (int i = 0; i < size; i++) {
+        json.addProperty("key" + i, randomString(64, random));
+      }
+      return json;
+    }
+  },
+
+  // long and double values, in objects and arrays
+  NUMBER_HEAVY {
+    @Override
+    JsonObject create(int size, Random random) {
+      JsonObject json = new JsonObject();
+      JsonArray samples = new JsonArray();
+      for (int i = 0; i < size / 2; i++) {
+        json.addProperty("key" + i, random.nextLong());
+        samples.add(random.nextDouble() * 1000);
+      }
+      json.add("samples", samples);
+      return json;
+    }
+  };
+
+  private static final int DEEP_LEVELS = 32;
+  private static final long SEED = 20201018L;
+
+  abstract JsonObject create(int size, Random random);
+
+  /**
+   * @return a document with roughly {@code size} values. The same shape and size always create the same document.
+   */
+  public JsonObject create(int size) {
+    return create(size, new Random(SEED));
+  }
+
+  private static void addPrimitive(JsonObject json, String key, int index, Random random) {
+    switch (index % 4) {
+      case 0:
+        json.addProperty(key, randomString(8, random));
+        break;
+      case 1:
+        json.addProperty(key, random.nextInt());
+        break;
+      case 2:
+        json.addProperty(key, random.nextDouble());
+        break;
+      default:
+        json.addProperty(key, random.nextBoolean());
+        break;
+    }
+  }
+
+  private static String randomString(int length, Random random) {
+    StringBuilder builder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      builder.append((char)('a' + random.nextInt(26)));
+    }
+    return builder.toString();
+  }
+
+}
@@ -0,0 +1,45 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FromTupleListBenchmark {
+
+  @Param
+  private DocumentShape shape;
+
+  @Param({"100", "10000"})
+  private int size;
+
+  private List<JsonTuple> tuples;
+
+  @Setup
+  public void setup() {
+    tuples = JsonTuples.toTupleList(shape.create(size));
+  }
+
+  @Benchmark
+  public JsonObject fromTupleList() {
+    return JsonTuples.fromTupleList(tuples);
+  }
+
+}
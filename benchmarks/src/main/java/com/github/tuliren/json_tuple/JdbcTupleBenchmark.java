@@ -0,0 +1,121 @@
+package com.github.tuliren.json_tuple;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writes and reads of tuple tables in an in-memory H2 database. The {@code rows} counter reports rows per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JdbcTupleBenchmark {
+
+  private static final TupleTable TABLE = TupleTable.of("tuples");
+  private static final TupleTable WRITE_TABLE = TupleTable.of("written_tuples");
+  private static final List<Long> DOCUMENT_IDS = Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+
+  @Param({"FLAT", "ARRAY_HEAVY"})
+  private DocumentShape shape;
+
+  @Param({"1000"})
+  private int size;
+
+  // batch size of writes, and fetch size of reads
+  @Param({"1", "100", "1000"})
+  private int chunkSize;
+
+  private Connection connection;
+  private List<JsonTuple> tuples;
+  private long writtenDocumentId = 0L;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class RowCounter {
+    public long rows;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      rows = 0L;
+    }
+  }
+
+  @Setup
+  public void setup() throws SQLException {
+    connection = DriverManager.getConnection("jdbc:h2:mem:");
+    connection.setAutoCommit(false);
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE tuples (document_id BIGINT, tuple_index INT, tuple_path VARCHAR(1000), tuple_type INT, tuple_value VARCHAR(1000))");
+      statement.execute("CREATE INDEX tuples_document ON tuples (document_id, tuple_index)");
+      statement.execute("CREATE TABLE written_tuples (document_id BIGINT, tuple_index INT, tuple_path VARCHAR(1000), tuple_type INT, tuple_value VARCHAR(1000))");
+    }
+    JsonObject json = shape.create(size);
+    tuples = JsonTuples.toTupleList(json);
+    try (JdbcTupleSink sink = new JdbcTupleSink(connection, TABLE)) {
+      for (long documentId : DOCUMENT_IDS) {
+        sink.write(documentId, tuples);
+      }
+    }
+    connection.commit();
+  }
+
+  /**
+   * Empties the written table, so that its size does not grow across iterations.
+   */
+  @Setup(Level.Iteration)
+  public void truncate() throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("TRUNCATE TABLE written_tuples");
+    }
+    connection.commit();
+  }
+
+  @TearDown
+  public void teardown() throws SQLException {
+    connection.close();
+  }
+
+  @Benchmark
+  public long write(RowCounter counter) throws SQLException {
+    JdbcTupleSink sink = new JdbcTupleSink(connection, WRITE_TABLE, chunkSize);
+    sink.write(writtenDocumentId++, tuples);
+    sink.close();
+    connection.commit();
+    counter.rows += sink.getRowCount();
+    return sink.getRowCount();
+  }
+
+  @Benchmark
+  public int read(RowCounter counter) throws SQLException {
+    JdbcTupleSource source = new JdbcTupleSource(connection, TABLE, chunkSize);
+    int[] documentCount = new int[1];
+    source.read(DOCUMENT_IDS, (id, json) -> documentCount[0]++);
+    counter.rows += (long)documentCount[0] * tuples.size();
+    return documentCount[0];
+  }
+
+}
@@ -0,0 +1,76 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the string side of tuples, which is used when tuples are loaded from or stored to database rows.
+ * Each invocation processes all the tuples of one document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyPathBenchmark {
+
+  @Param
+  private DocumentShape shape;
+
+  @Param({"1000"})
+  private int size;
+
+  private List<JsonTuple> tuples;
+  private String[] fullPaths;
+  private String[] keyPaths;
+
+  @Setup
+  public void setup() {
+    tuples = JsonTuples.toTupleList(shape.create(size));
+    fullPaths = new String[tuples.size()];
+    keyPaths = new String[tuples.size()];
+    for (int i = 0; i < tuples.size(); i++) {
+      JsonTuple tuple = tuples.get(i);
+      fullPaths[i] = tuple.getFullPaths();
+      keyPaths[i] = tuple.getPaths().get(tuple.getPaths().size() - 1).toString();
+    }
+  }
+
+  @Benchmark
+  public void createJsonTuple(Blackhole blackhole) {
+    for (int i = 0; i < fullPaths.length; i++) {
+      JsonTuple tuple = tuples.get(i);
+      blackhole.consume(JsonTuple.create(fullPaths[i], tuple.getType(), tuple.getValue()));
+    }
+  }
+
+  @Benchmark
+  public void createKeyPath(Blackhole blackhole) {
+    for (String keyPath : keyPaths) {
+      blackhole.consume(KeyPaths.create(keyPath));
+    }
+  }
+
+  @Benchmark
+  public void getFullPaths(Blackhole blackhole) {
+    for (JsonTuple tuple : tuples) {
+      // the full path is cached per tuple, so join the key paths to measure building it
+      blackhole.consume(KeyPaths.join(tuple.getPaths()));
+    }
+  }
+
+}
@@ -0,0 +1,50 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ToTupleListBenchmark {
+
+  @Param
+  private DocumentShape shape;
+
+  @Param({"100", "10000"})
+  private int size;
+
+  private JsonObject json;
+
+  @Setup
+  public void setup() {
+    json = shape.create(size);
+  }
+
+  @Benchmark
+  public List<JsonTuple> toTupleList() {
+    return JsonTuples.toTupleList(json);
+  }
+
+  @Benchmark
+  public List<JsonTuple> toTupleListParallel() {
+    return JsonTuples.toTupleListParallel(json);
+  }
+
+}
@@ -0,0 +1,82 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scans of a columnar {@link TupleBatch}, compared with the same scans over a list of {@link JsonTuple}s.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TupleBatchBenchmark {
+
+  private static final double MIN = 0.0;
+  private static final double MAX = 1000.0;
+
+  @Param({"NUMBER_HEAVY", "ARRAY_HEAVY"})
+  private DocumentShape shape;
+
+  @Param({"10000"})
+  private int size;
+
+  private JsonObject json;
+  private List<JsonTuple> tuples;
+  private TupleBatch batch;
+  private int[] selection;
+
+  @Setup
+  public void setup() {
+    json = shape.create(size);
+    tuples = JsonTuples.toTupleList(json);
+    batch = TupleBatch.of(json, new PathDictionary());
+    selection = new int[batch.size()];
+  }
+
+  @Benchmark
+  public TupleBatch toBatch() {
+    return TupleBatch.of(json, batch.getDictionary());
+  }
+
+  @Benchmark
+  public JsonObject fromBatch() {
+    return batch.toJsonObject();
+  }
+
+  @Benchmark
+  public int selectTupleList() {
+    int count = 0;
+    for (int i = 0; i < tuples.size(); i++) {
+      JsonTuple tuple = tuples.get(i);
+      if (tuple.getType() == ValueType.JSON_NUMBER) {
+        double value = tuple.getDoubleValue();
+        if (value >= MIN && value <= MAX) {
+          selection[count++] = i;
+        }
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int selectBatch() {
+    return batch.selectDoubleRange(MIN, MAX, selection);
+  }
+
+}
@@ -0,0 +1,62 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Conversions with a reused {@link TupleConverter} and output list, to compare with the static {@link JsonTuples}
+ * methods in {@link ToTupleListBenchmark} and {@link FromTupleListBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TupleConverterBenchmark {
+
+  @Param
+  private DocumentShape shape;
+
+  @Param({"100", "10000"})
+  private int size;
+
+  private final TupleConverter converter = new TupleConverter();
+  private final List<JsonTuple> output = new ArrayList<>();
+
+  private JsonObject json;
+  private List<JsonTuple> tuples;
+
+  @Setup
+  public void setup() {
+    json = shape.create(size);
+    tuples = JsonTuples.toTupleList(json);
+  }
+
+  @Benchmark
+  public List<JsonTuple> toTupleList() {
+    output.clear();
+    converter.toTupleList(json, output);
+    return output;
+  }
+
+  @Benchmark
+  public JsonObject fromTupleList() {
+    return converter.fromTupleList(tuples);
+  }
+
+}
@@ -0,0 +1,86 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups in a {@link TupleIndex}, compared with the same lookups by matching the tuples of every document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TupleIndexBenchmark {
+
+  @Param({"100000"})
+  private int documentCount;
+
+  private List<List<JsonTuple>> documents;
+  private TupleIndex index;
+  private TupleMatcher equalityMatcher;
+  private TupleMatcher rangeMatcher;
+
+  @Setup
+  public void setup() {
+    JsonParser parser = new JsonParser();
+    documents = new ArrayList<>(documentCount);
+    index = new TupleIndex();
+    for (int id = 0; id < documentCount; id++) {
+      String json = String.format(
+          "{k1: v%d, k2: {nest3: {double-nest1: %d, double-nest2: %s}}, items: [{price: %d}, {price: %d.5}]}",
+          id % 100, id % 1000, id % 2 == 0, id % 5000, id % 3000);
+      List<JsonTuple> tuples = JsonTuples.toTupleList(parser.parse(json).getAsJsonObject());
+      documents.add(tuples);
+      index.add(id, tuples);
+    }
+    equalityMatcher = TuplePredicate.eq("k2.nest3.double-nest1", 100).compile();
+    rangeMatcher = TuplePredicate.between("items|*.price", 100, 110).compile();
+  }
+
+  @Benchmark
+  public int[] lookupIndex() {
+    return index.lookup("k2.nest3.double-nest1", 100);
+  }
+
+  @Benchmark
+  public int lookupScan() {
+    return count(equalityMatcher);
+  }
+
+  @Benchmark
+  public int[] rangeIndex() {
+    return index.lookupRange("items|*.price", 100, true, 110, true);
+  }
+
+  @Benchmark
+  public int rangeScan() {
+    return count(rangeMatcher);
+  }
+
+  private int count(TupleMatcher matcher) {
+    int count = 0;
+    for (List<JsonTuple> tuples : documents) {
+      if (matcher.matches(tuples)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+}
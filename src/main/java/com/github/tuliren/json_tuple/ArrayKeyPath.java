@@ -8,18 +8,35 @@ import java.util.Optional;
  */
 public class ArrayKeyPath implements KeyPath {
 
-  private final Optional<String> name;
+  // null for keyless arrays
+  private final String name;
   private final int index;
   private final int size;
 
   public ArrayKeyPath(Optional<String> name, int index, int size) {
+    this(name.orElse(null), index, size);
+  }
+
+  private ArrayKeyPath(String name, int index, int size) {
     this.name = name;
     this.index = index;
     this.size = size;
   }
 
+  /**
+   * @param name the array name, or null for a keyless array.
+   */
+  static ArrayKeyPath create(String name, int index, int size) {
+    return new ArrayKeyPath(name, index, size);
+  }
+
   @Override
   public Optional<String> getName() {
+    return Optional.ofNullable(name);
+  }
+
+  @Override
+  public String getNullableName() {
     return name;
   }
 
@@ -38,14 +55,26 @@ public class ArrayKeyPath implements KeyPath {
     return Optional.of(size);
   }
 
+  @Override
+  public int getListIndexAsInt() {
+    return index;
+  }
+
+  @Override
+  public int getListSizeAsInt() {
+    return size;
+  }
+
   @Override
   public String toString() {
-    return String.format("%s%s%d%s%d", name.orElse(Constants.KEYLESS_ARRAY_NAME), Constants.LIST_PATH_SEPARATOR, index, Constants.LIST_PATH_SEPARATOR, size);
+    StringBuilder builder = new StringBuilder();
+    KeyPaths.appendTo(builder, this);
+    return builder.toString();
   }
 
   @Override
   public int hashCode() {
-    return name.hashCode() + 19 * index + 29 * size;
+    return Objects.hashCode(name) + 19 * index + 29 * size;
   }
 
   @Override
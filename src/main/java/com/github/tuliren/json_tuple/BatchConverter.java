@@ -0,0 +1,128 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Converts batches of documents from and to tuples in parallel.
+ * <p>
+ * At most {@code parallelism} workers run on the executor for each batch. Each worker takes the next unconverted
+ * document until the batch is done, so small documents do not pay for one task each, and large documents do not
+ * hold up the others. Results are returned in the order of the input, and a failed document does not abort the batch.
+ */
+public class BatchConverter {
+
+  private final Executor executor;
+  private final int parallelism;
+
+  /**
+   * Creates a converter that runs on the common fork-join pool.
+   */
+  public BatchConverter() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  public BatchConverter(ForkJoinPool pool) {
+    this(pool, pool.getParallelism());
+  }
+
+  public BatchConverter(Executor executor, int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+    }
+    this.executor = executor;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * @return the tuple lists of {@code jsons}, in the same order.
+   */
+  public List<ConversionResult<List<JsonTuple>>> toTupleLists(Collection<JsonObject> jsons) {
+    return join(toTupleListsAsync(jsons));
+  }
+
+  /**
+   * @return the json objects of {@code tupleLists}, in the same iteration order.
+   */
+  public <K> Map<K, ConversionResult<JsonObject>> fromTupleLists(Map<K, List<JsonTuple>> tupleLists) {
+    Map<K, CompletableFuture<JsonObject>> futures = fromTupleListsAsync(tupleLists);
+    Map<K, ConversionResult<JsonObject>> results = new LinkedHashMap<>(futures.size() * 2);
+    for (Map.Entry<K, CompletableFuture<JsonObject>> entry : futures.entrySet()) {
+      results.put(entry.getKey(), join(entry.getValue()));
+    }
+    return results;
+  }
+
+  /**
+   * @return futures of the tuple lists of {@code jsons}, in the same order. It returns without waiting for the conversions.
+   */
+  public List<CompletableFuture<List<JsonTuple>>> toTupleListsAsync(Collection<JsonObject> jsons) {
+    return submit(new ArrayList<>(jsons), JsonTuples::toTupleList);
+  }
+
+  /**
+   * @return futures of the json objects of {@code tupleLists}, in the same iteration order. It returns without waiting
+   * for the conversions.
+   */
+  public <K> Map<K, CompletableFuture<JsonObject>> fromTupleListsAsync(Map<K, List<JsonTuple>> tupleLists) {
+    List<CompletableFuture<JsonObject>> futures = submit(new ArrayList<>(tupleLists.values()), JsonTuples::fromTupleList);
+    Map<K, CompletableFuture<JsonObject>> results = new LinkedHashMap<>(futures.size() * 2);
+    int i = 0;
+    for (K key : tupleLists.keySet()) {
+      results.put(key, futures.get(i++));
+    }
+    return results;
+  }
+
+  private <I, O> List<CompletableFuture<O>> submit(List<I> inputs, Function<I, O> converter) {
+    List<CompletableFuture<O>> futures = new ArrayList<>(inputs.size());
+    for (int i = 0; i < inputs.size(); i++) {
+      futures.add(new CompletableFuture<>());
+    }
+
+    AtomicInteger nextIndex = new AtomicInteger(0);
+    Runnable worker = () -> {
+      for (int i = nextIndex.getAndIncrement(); i < inputs.size(); i = nextIndex.getAndIncrement()) {
+        try {
+          futures.get(i).complete(converter.apply(inputs.get(i)));
+        } catch (Throwable t) {
+          futures.get(i).completeExceptionally(t);
+        }
+      }
+    };
+
+    int workerCount = Math.min(parallelism, inputs.size());
+    for (int i = 0; i < workerCount; i++) {
+      executor.execute(worker);
+    }
+    return futures;
+  }
+
+  private static <T> List<ConversionResult<T>> join(List<CompletableFuture<T>> futures) {
+    List<ConversionResult<T>> results = new ArrayList<>(futures.size());
+    for (CompletableFuture<T> future : futures) {
+      results.add(join(future));
+    }
+    return results;
+  }
+
+  private static <T> ConversionResult<T> join(CompletableFuture<T> future) {
+    try {
+      return ConversionResult.success(future.join());
+    } catch (CompletionException e) {
+      return ConversionResult.failure(e.getCause() != null ? e.getCause() : e);
+    }
+  }
+
+}
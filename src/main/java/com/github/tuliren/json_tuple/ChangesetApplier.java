@@ -0,0 +1,281 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Applies a {@link TupleChangeset} to a json object in place, by navigating with the key paths of each changed tuple.
+ * <p>
+ * The old tuples are removed first. An array element is replaced by a tombstone instead of being removed, so that the
+ * indices of the other elements stay the same, and containers that become empty are removed from their parents.
+ * Then the new tuples are set, and arrays are grown to the sizes in their key paths. Finally the tombstones that
+ * have not been replaced are removed from the arrays. Updates whose key paths only differ in array sizes are set in
+ * place without removing the old tuple.
+ */
+final class ChangesetApplier {
+
+  // placeholder of a removed array element, which is compared by identity
+  private static final JsonElement TOMBSTONE = new JsonPrimitive("");
+
+  private final JsonObject root;
+  // arrays that may have tombstones, with the number of tombstones set while removing tuples
+  private final Map<JsonArray, Integer> tombstones = new IdentityHashMap<>();
+  // containers of each key path of the tuple being removed
+  private JsonElement[] containers = new JsonElement[8];
+  // key paths of the tuple being applied, copied once per tuple
+  private KeyPath[] paths = new KeyPath[8];
+
+  ChangesetApplier(JsonObject root) {
+    this.root = root;
+  }
+
+  void apply(TupleChangeset changeset) {
+    for (JsonTuple tuple : changeset.getDeleted()) {
+      remove(tuple);
+    }
+    for (TupleChangeset.Update update : changeset.getUpdated()) {
+      if (!TupleDiff.isSameKey(update.getBefore().getPaths(), update.getAfter().getPaths())) {
+        remove(update.getBefore());
+      }
+    }
+    for (TupleChangeset.Update update : changeset.getUpdated()) {
+      set(update.getAfter());
+    }
+    for (JsonTuple tuple : changeset.getInserted()) {
+      set(tuple);
+    }
+    compactArrays();
+  }
+
+  private void set(JsonTuple tuple) {
+    int size = copyPaths(tuple);
+    int last = getValueIndex(tuple, size);
+    JsonElement container = root;
+    for (int i = 0; i < last; i++) {
+      container = getOrCreateChild(container, paths[i], paths[i + 1]);
+    }
+
+    KeyPath path = paths[last];
+    if (last != size - 1) {
+      // the value is an empty array under a keyless array
+      setSlot(container, path, new JsonArray());
+    } else if (tuple.getType() != ValueType.JSON_EMPTY) {
+      setSlot(container, path, JsonTuples.getJsonElement(tuple));
+    } else if (!path.isArray() || path.getListSizeAsInt() != 0) {
+      setSlot(container, path, new JsonObject());
+    } else {
+      // empty named array
+      container.getAsJsonObject().add(path.getNullableName(), new JsonArray());
+    }
+  }
+
+  private void remove(JsonTuple tuple) {
+    int size = copyPaths(tuple);
+    int last = getValueIndex(tuple, size);
+    if (containers.length <= last) {
+      containers = new JsonElement[Math.max(last + 1, containers.length * 2)];
+    }
+
+    JsonElement container = root;
+    for (int i = 0; i < last; i++) {
+      containers[i] = container;
+      container = getChild(container, paths[i], paths[i + 1]);
+      if (container == null) {
+        // already removed
+        return;
+      }
+    }
+    containers[last] = container;
+
+    KeyPath path = paths[last];
+    if (last == size - 1 && tuple.getType() == ValueType.JSON_EMPTY && isEmptyNamedArray(path)) {
+      container.getAsJsonObject().remove(path.getNullableName());
+    } else {
+      removeSlot(container, path);
+    }
+    removeEmptyContainers(last);
+  }
+
+  /**
+   * Removes the containers from key path {@code index} upwards that have become empty.
+   */
+  private void removeEmptyContainers(int index) {
+    for (int i = index; i >= 0; i--) {
+      KeyPath path = paths[i];
+      if (path.isArray() && path.getNullableName() != null) {
+        // a named array is a value of the container object, and is removed when it has only tombstones
+        JsonArray array = getArray(containers[i], path);
+        if (array != null) {
+          if (!isAllTombstones(array)) {
+            return;
+          }
+          containers[i].getAsJsonObject().remove(path.getNullableName());
+        }
+      }
+      if (i == 0 || !isEmpty(containers[i])) {
+        return;
+      }
+      removeSlot(containers[i - 1], paths[i - 1]);
+    }
+  }
+
+  private boolean isEmpty(JsonElement container) {
+    if (container.isJsonObject()) {
+      return container.getAsJsonObject().size() == 0;
+    }
+    return isAllTombstones(container.getAsJsonArray());
+  }
+
+  private boolean isAllTombstones(JsonArray array) {
+    Integer count = tombstones.get(array);
+    return count != null && count == array.size() && count > 0;
+  }
+
+  /**
+   * Copies the key paths of {@code tuple} into {@link #paths}.
+   *
+   * @return the number of key paths.
+   */
+  private int copyPaths(JsonTuple tuple) {
+    List<KeyPath> tuplePaths = tuple.getPaths();
+    paths = KeyPaths.toArray(tuplePaths, paths);
+    return tuplePaths.size();
+  }
+
+  /**
+   * @return the index of the key path whose slot holds the value of {@code tuple}, whose paths have been copied.
+   */
+  private int getValueIndex(JsonTuple tuple, int size) {
+    int last = size - 1;
+    KeyPath path = paths[last];
+    if (tuple.getType() == ValueType.JSON_EMPTY && last > 0 && path.isArray() &&
+        path.getNullableName() == null && path.getListSizeAsInt() == 0) {
+      // an empty keyless array is the value of the parent path
+      return last - 1;
+    }
+    return last;
+  }
+
+  private JsonElement getOrCreateChild(JsonElement container, KeyPath path, KeyPath nextPath) {
+    JsonElement child = getChild(container, path, nextPath);
+    if (child == null) {
+      child = isKeylessArray(nextPath) ? new JsonArray() : new JsonObject();
+      setSlot(container, path, child);
+    }
+    return child;
+  }
+
+  /**
+   * @return the container at the slot of {@code path}, or null if the slot does not have the container expected by
+   * {@code nextPath}.
+   */
+  private static JsonElement getChild(JsonElement container, KeyPath path, KeyPath nextPath) {
+    JsonElement child = getSlot(container, path);
+    if (child == null || child == TOMBSTONE) {
+      return null;
+    }
+    if (isKeylessArray(nextPath) ? child.isJsonArray() : child.isJsonObject()) {
+      return child;
+    }
+    return null;
+  }
+
+  private static JsonElement getSlot(JsonElement container, KeyPath path) {
+    if (!path.isArray()) {
+      return container.isJsonObject() ? container.getAsJsonObject().get(path.getNullableName()) : null;
+    }
+    JsonArray array = getArray(container, path);
+    int index = path.getListIndexAsInt();
+    return array == null || index >= array.size() ? null : array.get(index);
+  }
+
+  private void setSlot(JsonElement container, KeyPath path, JsonElement value) {
+    if (!path.isArray()) {
+      container.getAsJsonObject().add(path.getNullableName(), value);
+      return;
+    }
+
+    JsonArray array = getArray(container, path);
+    if (array == null) {
+      array = new JsonArray();
+      container.getAsJsonObject().add(path.getNullableName(), array);
+    }
+    int index = path.getListIndexAsInt();
+    int size = Math.max(index + 1, path.getListSizeAsInt());
+    if (array.size() < size) {
+      tombstones.putIfAbsent(array, 0);
+      while (array.size() < size) {
+        array.add(TOMBSTONE);
+      }
+    }
+    array.set(index, value);
+  }
+
+  private void removeSlot(JsonElement container, KeyPath path) {
+    if (!path.isArray()) {
+      container.getAsJsonObject().remove(path.getNullableName());
+      return;
+    }
+
+    JsonArray array = getArray(container, path);
+    int index = path.getListIndexAsInt();
+    if (array == null || index >= array.size() || array.get(index) == TOMBSTONE) {
+      return;
+    }
+    array.set(index, TOMBSTONE);
+    tombstones.merge(array, 1, Integer::sum);
+  }
+
+  /**
+   * @return the array of {@code path}, which is a named array in the container object, or the container itself.
+   */
+  private static JsonArray getArray(JsonElement container, KeyPath path) {
+    if (path.getNullableName() == null) {
+      return container.isJsonArray() ? container.getAsJsonArray() : null;
+    }
+    if (!container.isJsonObject()) {
+      return null;
+    }
+    JsonElement array = container.getAsJsonObject().get(path.getNullableName());
+    return array != null && array.isJsonArray() ? array.getAsJsonArray() : null;
+  }
+
+  /**
+   * Removes the tombstones of each array in one pass, by shifting the remaining elements left and trimming the end.
+   */
+  private void compactArrays() {
+    for (JsonArray array : tombstones.keySet()) {
+      int size = array.size();
+      int count = 0;
+      for (int i = 0; i < size; i++) {
+        JsonElement element = array.get(i);
+        if (element != TOMBSTONE) {
+          if (count != i) {
+            array.set(count, element);
+          }
+          count++;
+        }
+      }
+      // removing from the end does not shift any element
+      for (int i = size - 1; i >= count; i--) {
+        array.remove(i);
+      }
+    }
+    tombstones.clear();
+  }
+
+  private static boolean isKeylessArray(KeyPath path) {
+    return path.isArray() && path.getNullableName() == null;
+  }
+
+  private static boolean isEmptyNamedArray(KeyPath path) {
+    return path.isArray() && path.getNullableName() != null && path.getListSizeAsInt() == 0;
+  }
+
+}
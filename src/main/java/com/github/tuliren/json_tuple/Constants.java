@@ -6,6 +6,11 @@ class Constants {
   static final String KEYLESS_ARRAY_NAME = "";
   static final String LIST_PATH_SEPARATOR = "|";
 
+  static final char PATH_SEPARATOR_CHAR = '.';
+  static final char LIST_PATH_SEPARATOR_CHAR = '|';
+
+  static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
+
   private Constants() {
   }
 
@@ -0,0 +1,50 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.Optional;
+
+/**
+ * Result of converting one document in a batch, which holds either the converted value or the failure.
+ */
+public final class ConversionResult<T> {
+
+  private final T value;
+  private final Throwable failure;
+
+  private ConversionResult(T value, Throwable failure) {
+    this.value = value;
+    this.failure = failure;
+  }
+
+  static <T> ConversionResult<T> success(T value) {
+    return new ConversionResult<>(value, null);
+  }
+
+  static <T> ConversionResult<T> failure(Throwable failure) {
+    return new ConversionResult<>(null, failure);
+  }
+
+  public boolean isSuccess() {
+    return failure == null;
+  }
+
+  /**
+   * @return the converted value.
+   * @throws IllegalStateException if the conversion has failed, with the failure as the cause.
+   */
+  public T get() {
+    if (failure != null) {
+      throw new IllegalStateException("Conversion failed", failure);
+    }
+    return value;
+  }
+
+  public Optional<Throwable> getFailure() {
+    return Optional.ofNullable(failure);
+  }
+
+  @Override
+  public String toString() {
+    return isSuccess() ? "Success: " + value : "Failure: " + failure;
+  }
+
+}
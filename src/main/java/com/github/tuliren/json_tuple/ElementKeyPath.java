@@ -19,6 +19,11 @@ public class ElementKeyPath implements KeyPath {
     return Optional.of(name);
   }
 
+  @Override
+  public String getNullableName() {
+    return name;
+  }
+
   @Override
   public boolean isArray() {
     return false;
@@ -0,0 +1,112 @@
+package com.github.tuliren.json_tuple;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Writes tuples to a {@link TupleTable} with one batched {@link PreparedStatement}. Rows are added to the batch as
+ * tuples are written, and the batch is executed whenever it reaches the batch size, and when the sink is flushed
+ * or closed.
+ * <p>
+ * The sink does not commit. Turn off auto-commit on the connection and commit after {@link #flush()} to write many
+ * batches in one transaction. A sink is not thread-safe.
+ */
+public class JdbcTupleSink implements AutoCloseable {
+
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
+  private final PreparedStatement statement;
+  private final int batchSize;
+
+  private int pendingRowCount = 0;
+  private long rowCount = 0L;
+
+  public JdbcTupleSink(Connection connection, TupleTable table) throws SQLException {
+    this(connection, table, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * @param batchSize maximum number of rows in each batch.
+   */
+  public JdbcTupleSink(Connection connection, TupleTable table, int batchSize) throws SQLException {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+    }
+    this.statement = connection.prepareStatement(table.getInsertSql());
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Writes the tuples of {@code json} under {@code documentId}.
+   */
+  public void write(Object documentId, JsonObject json) throws SQLException {
+    write(documentId, JsonTuples.toTupleList(json));
+  }
+
+  /**
+   * Writes {@code tuples} under {@code documentId}, with the position of each tuple as its index.
+   */
+  public void write(Object documentId, List<JsonTuple> tuples) throws SQLException {
+    for (int i = 0; i < tuples.size(); i++) {
+      JsonTuple tuple = tuples.get(i);
+      statement.setObject(1, documentId);
+      statement.setInt(2, i);
+      statement.setString(3, tuple.getFullPaths());
+      statement.setInt(4, tuple.getType().value);
+      if (tuple.getValue() == null) {
+        statement.setNull(5, Types.VARCHAR);
+      } else {
+        statement.setString(5, tuple.getValue());
+      }
+      statement.addBatch();
+      pendingRowCount++;
+      if (pendingRowCount == batchSize) {
+        executeBatch();
+      }
+    }
+  }
+
+  /**
+   * Executes the rows that have not been executed.
+   */
+  public void flush() throws SQLException {
+    if (pendingRowCount > 0) {
+      executeBatch();
+    }
+  }
+
+  /**
+   * @return the number of rows that have been executed.
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Flushes the remaining rows and closes the statement. The connection is not closed.
+   */
+  @Override
+  public void close() throws SQLException {
+    try {
+      flush();
+    } finally {
+      statement.close();
+    }
+  }
+
+  private void executeBatch() throws SQLException {
+    statement.executeBatch();
+    rowCount += pendingRowCount;
+    pendingRowCount = 0;
+  }
+
+}
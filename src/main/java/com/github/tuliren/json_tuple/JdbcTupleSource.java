@@ -0,0 +1,143 @@
+package com.github.tuliren.json_tuple;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Reads json objects from a {@link TupleTable}. Rows are ordered by document id and tuple index, and each row is
+ * added to the json object of its document as soon as it is fetched, the same way as {@link JsonTuples#fromTupleList},
+ * so neither the rows nor the tuples of a document are materialized.
+ * <p>
+ * Rows are fetched in chunks of the fetch size. Some drivers only stream a result set under extra conditions, e.g.
+ * PostgreSQL requires auto-commit to be off. Full paths are parsed through a {@link KeyPathCache}, so documents with
+ * the same paths share their key paths. A source is not thread-safe.
+ */
+public class JdbcTupleSource {
+
+  public static final int DEFAULT_FETCH_SIZE = 1000;
+  public static final int DEFAULT_PATH_CACHE_SIZE = 10000;
+
+  private final Connection connection;
+  private final TupleTable table;
+  private final int fetchSize;
+  private final KeyPathCache cache;
+  private final TupleTreeBuilder builder = new TupleTreeBuilder();
+
+  public JdbcTupleSource(Connection connection, TupleTable table) {
+    this(connection, table, DEFAULT_FETCH_SIZE);
+  }
+
+  /**
+   * @param fetchSize number of rows fetched from the database at a time.
+   */
+  public JdbcTupleSource(Connection connection, TupleTable table, int fetchSize) {
+    if (fetchSize <= 0) {
+      throw new IllegalArgumentException("Fetch size must be positive: " + fetchSize);
+    }
+    this.connection = connection;
+    this.table = table;
+    this.fetchSize = fetchSize;
+    this.cache = new KeyPathCache(DEFAULT_PATH_CACHE_SIZE);
+  }
+
+  /**
+   * @return the json object of {@code documentId}, or null if the document has no tuple.
+   */
+  public JsonObject read(Object documentId) throws SQLException {
+    JsonObject[] result = new JsonObject[1];
+    query(table.getSelectSql(1), new Object[]{documentId}, (id, json) -> result[0] = json);
+    return result[0];
+  }
+
+  /**
+   * Reads the json objects of {@code documentIds} in one query, and passes each of them to {@code consumer} in the
+   * order of the document ids. Documents that have no tuple are skipped.
+   */
+  public void read(Collection<?> documentIds, BiConsumer<Object, JsonObject> consumer) throws SQLException {
+    if (documentIds.isEmpty()) {
+      return;
+    }
+    query(table.getSelectSql(documentIds.size()), documentIds.toArray(), consumer);
+  }
+
+  /**
+   * Reads the json objects of all documents in the table, and passes each of them to {@code consumer} in the order
+   * of the document ids.
+   */
+  public void readAll(BiConsumer<Object, JsonObject> consumer) throws SQLException {
+    query(table.getSelectSql(0), new Object[0], consumer);
+  }
+
+  /**
+   * @return the tuples of {@code documentId} in their original order, which is empty if the document has no tuple.
+   */
+  public List<JsonTuple> readTuples(Object documentId) throws SQLException {
+    List<JsonTuple> tuples = new ArrayList<>();
+    try (PreparedStatement statement = prepare(table.getSelectSql(1), new Object[]{documentId});
+         ResultSet resultSet = statement.executeQuery()) {
+      while (resultSet.next()) {
+        tuples.add(createTuple(resultSet));
+      }
+    }
+    return tuples;
+  }
+
+  public int getFetchSize() {
+    return fetchSize;
+  }
+
+  private void query(String sql, Object[] documentIds, BiConsumer<Object, JsonObject> consumer) throws SQLException {
+    try (PreparedStatement statement = prepare(sql, documentIds);
+         ResultSet resultSet = statement.executeQuery()) {
+      Object currentId = null;
+      boolean started = false;
+      while (resultSet.next()) {
+        Object documentId = resultSet.getObject(1);
+        if (!started || !Objects.equals(currentId, documentId)) {
+          if (started) {
+            consumer.accept(currentId, builder.build());
+          }
+          builder.reset();
+          currentId = documentId;
+          started = true;
+        }
+        builder.add(createTuple(resultSet));
+      }
+      if (started) {
+        consumer.accept(currentId, builder.build());
+      }
+    } finally {
+      builder.clear();
+    }
+  }
+
+  private PreparedStatement prepare(String sql, Object[] documentIds) throws SQLException {
+    PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    try {
+      statement.setFetchSize(fetchSize);
+      for (int i = 0; i < documentIds.length; i++) {
+        statement.setObject(i + 1, documentIds[i]);
+      }
+      return statement;
+    } catch (SQLException e) {
+      statement.close();
+      throw e;
+    }
+  }
+
+  private JsonTuple createTuple(ResultSet resultSet) throws SQLException {
+    String fullPath = resultSet.getString(2);
+    ValueType type = ValueType.findByValue(resultSet.getInt(3));
+    return JsonTuple.create(fullPath, type, resultSet.getString(4), cache);
+  }
+
+}
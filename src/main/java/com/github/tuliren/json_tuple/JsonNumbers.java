@@ -0,0 +1,144 @@
+package com.github.tuliren.json_tuple;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Classifies json number strings into {@link NumberType}s in one pass, without throwing exceptions for control flow.
+ */
+final class JsonNumbers {
+
+  // a decimal with at most this many significant digits survives the round trip through a double
+  private static final int MAX_DOUBLE_DIGITS = 15;
+  private static final int MAX_DOUBLE_EXPONENT = 300;
+
+  private JsonNumbers() {
+  }
+
+  /**
+   * @return the number type of {@code value}.
+   * @throws IllegalArgumentException if {@code value} is not a json number.
+   */
+  static NumberType classify(String value) {
+    int length = value.length();
+    int i = 0;
+    if (i < length && value.charAt(i) == '-') {
+      i++;
+    }
+
+    // integer part
+    int integerStart = i;
+    long longValue = 0L;
+    boolean longOverflow = false;
+    int significantDigits = 0;
+    while (i < length && isDigit(value.charAt(i))) {
+      int digit = value.charAt(i) - '0';
+      if (significantDigits > 0 || digit != 0) {
+        significantDigits++;
+      }
+      if (!longOverflow) {
+        // accumulate negatively so that Long.MIN_VALUE can be represented
+        if (longValue < (Long.MIN_VALUE + digit) / 10) {
+          longOverflow = true;
+        } else {
+          longValue = longValue * 10 - digit;
+        }
+      }
+      i++;
+    }
+    if (i == integerStart) {
+      return classifySpecialDouble(value);
+    }
+    if (i == length) {
+      boolean negative = integerStart > 0;
+      if (longOverflow || (!negative && longValue == Long.MIN_VALUE)) {
+        return NumberType.BIG_INTEGER;
+      }
+      return NumberType.LONG;
+    }
+
+    // fraction part
+    int decimalExponent = significantDigits;
+    if (value.charAt(i) == '.') {
+      i++;
+      int fractionStart = i;
+      while (i < length && isDigit(value.charAt(i))) {
+        if (significantDigits > 0 || value.charAt(i) != '0') {
+          significantDigits++;
+        } else {
+          decimalExponent--;
+        }
+        i++;
+      }
+      if (i == fractionStart) {
+        throw invalidNumber(value);
+      }
+    }
+
+    // exponent part
+    if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+      i++;
+      boolean negativeExponent = false;
+      if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+        negativeExponent = value.charAt(i) == '-';
+        i++;
+      }
+      int exponentStart = i;
+      int exponent = 0;
+      while (i < length && isDigit(value.charAt(i))) {
+        exponent = Math.min(exponent * 10 + (value.charAt(i) - '0'), 10 * MAX_DOUBLE_EXPONENT);
+        i++;
+      }
+      if (i == exponentStart) {
+        throw invalidNumber(value);
+      }
+      decimalExponent += negativeExponent ? -exponent : exponent;
+    }
+
+    if (i != length) {
+      throw invalidNumber(value);
+    }
+    if (significantDigits <= MAX_DOUBLE_DIGITS && Math.abs(decimalExponent) <= MAX_DOUBLE_EXPONENT) {
+      return NumberType.DOUBLE;
+    }
+    return NumberType.BIG_DECIMAL;
+  }
+
+  /**
+   * @return the number type of {@code number}, which is determined from its class when possible.
+   */
+  static NumberType classify(Number number) {
+    if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+      return NumberType.LONG;
+    } else if (number instanceof Double) {
+      return NumberType.DOUBLE;
+    } else if (number instanceof BigInteger) {
+      return NumberType.BIG_INTEGER;
+    } else if (number instanceof BigDecimal) {
+      return NumberType.BIG_DECIMAL;
+    } else {
+      // lazily parsed numbers, floats, and other number implementations
+      return classify(number.toString());
+    }
+  }
+
+  private static NumberType classifySpecialDouble(String value) {
+    switch (value) {
+      case "NaN":
+      case "Infinity":
+      case "-Infinity":
+        return NumberType.DOUBLE;
+      default:
+        throw invalidNumber(value);
+    }
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static IllegalArgumentException invalidNumber(String value) {
+    return new IllegalArgumentException("Unexpected json number: " + value);
+  }
+
+}
@@ -1,10 +1,9 @@
 package com.github.tuliren.json_tuple;
 
-import java.util.LinkedList;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.List;
-import java.util.regex.Pattern;
-
-import org.apache.commons.lang3.StringUtils;
+import java.util.Objects;
 
 /**
  * Json key value pair.
@@ -17,26 +16,48 @@ public class JsonTuple {
   private final ValueType type;
   // value
   private final String value;
+  // numeric subtype for numbers, and null for all other types
+  private final NumberType numberType;
+  // long value, raw bits of double value, or 1 / 0 for true / false
+  private final long bits;
+  // full path string, built on first access
+  private String fullPaths;
 
-  private JsonTuple(List<KeyPath> paths, ValueType type, String value) {
+  private JsonTuple(List<KeyPath> paths, ValueType type, String value, NumberType numberType, long bits) {
     if (paths.isEmpty()) {
       throw new IllegalArgumentException("Value path cannot be empty: " + value);
     }
     this.paths = paths;
     this.type = type;
     this.value = value;
+    this.numberType = numberType;
+    this.bits = bits;
+  }
+
+  private JsonTuple(List<KeyPath> paths, ValueType type, String value) {
+    this(paths, type, value, null, 0L);
   }
 
   public static JsonTuple create(String fullPath, ValueType type, String value) {
+    return create(KeyPaths.parse(fullPath), type, value);
+  }
+
+  /**
+   * Same as {@link JsonTuple#create(String, ValueType, String)}, except that the key paths are looked up from
+   * {@code cache}, and shared with other tuples of the same full path.
+   */
+  public static JsonTuple create(String fullPath, ValueType type, String value, KeyPathCache cache) {
+    return create(cache.get(fullPath), type, value);
+  }
+
+  private static void checkJsonType(ValueType type) {
     if (type.category != ValueType.Category.JSON) {
       throw new IllegalArgumentException("JSON value type is expected, but the actual type is: " + type.name());
     }
+  }
 
-    List<KeyPath> paths = new LinkedList<>();
-    for (String path : fullPath.split(Pattern.quote(Constants.PATH_SEPARATOR))) {
-      paths.add(KeyPaths.create(path));
-    }
-
+  static JsonTuple create(List<KeyPath> paths, ValueType type, String value) {
+    checkJsonType(type);
     switch (type) {
       case JSON_STRING:
         return JsonTuple.createString(paths, value);
@@ -58,11 +79,54 @@ public class JsonTuple {
   }
 
   static JsonTuple createBoolean(List<KeyPath> paths, String value) {
-    return new JsonTuple(paths, ValueType.JSON_BOOLEAN, value);
+    return createBoolean(paths, Boolean.parseBoolean(value));
   }
 
+  static JsonTuple createBoolean(List<KeyPath> paths, boolean value) {
+    return new JsonTuple(paths, ValueType.JSON_BOOLEAN, String.valueOf(value), null, value ? 1L : 0L);
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code value} is not a json number.
+   */
   static JsonTuple createNumber(List<KeyPath> paths, String value) {
-    return new JsonTuple(paths, ValueType.JSON_NUMBER, value);
+    return createNumber(paths, value, JsonNumbers.classify(value));
+  }
+
+  static JsonTuple createNumber(List<KeyPath> paths, Number value) {
+    NumberType numberType = JsonNumbers.classify(value);
+    switch (numberType) {
+      case LONG:
+        return new JsonTuple(paths, ValueType.JSON_NUMBER, value.toString(), numberType, value.longValue());
+      case DOUBLE:
+        if (value instanceof Double) {
+          return new JsonTuple(paths, ValueType.JSON_NUMBER, value.toString(), numberType, Double.doubleToRawLongBits(value.doubleValue()));
+        }
+        break;
+      default:
+        break;
+    }
+    return createNumber(paths, value.toString(), numberType);
+  }
+
+  static JsonTuple createLong(List<KeyPath> paths, long value) {
+    return new JsonTuple(paths, ValueType.JSON_NUMBER, Long.toString(value), NumberType.LONG, value);
+  }
+
+  static JsonTuple createDouble(List<KeyPath> paths, double value) {
+    return new JsonTuple(paths, ValueType.JSON_NUMBER, Double.toString(value), NumberType.DOUBLE, Double.doubleToRawLongBits(value));
+  }
+
+  static JsonTuple createNumber(List<KeyPath> paths, String value, NumberType numberType) {
+    switch (numberType) {
+      case LONG:
+        return new JsonTuple(paths, ValueType.JSON_NUMBER, value, numberType, Long.parseLong(value));
+      case DOUBLE:
+        return new JsonTuple(paths, ValueType.JSON_NUMBER, value, numberType, Double.doubleToRawLongBits(Double.parseDouble(value)));
+      default:
+        // big numbers are parsed lazily from the string value
+        return new JsonTuple(paths, ValueType.JSON_NUMBER, value, numberType, 0L);
+    }
   }
 
   static JsonTuple createNull(List<KeyPath> paths) {
@@ -74,9 +138,17 @@ public class JsonTuple {
   }
 
   public String getFullPaths() {
-    return StringUtils.join(paths, Constants.PATH_SEPARATOR);
+    String result = fullPaths;
+    if (result == null) {
+      result = KeyPaths.join(paths);
+      fullPaths = result;
+    }
+    return result;
   }
 
+  /**
+   * @return an immutable view of the key paths. Tuples under the same parent share the parent paths.
+   */
   public List<KeyPath> getPaths() {
     return paths;
   }
@@ -89,6 +161,85 @@ public class JsonTuple {
     return value;
   }
 
+  /**
+   * @return the numeric subtype if this tuple is a number, or null otherwise.
+   */
+  public NumberType getNumberType() {
+    return numberType;
+  }
+
+  public boolean getBooleanValue() {
+    checkType(ValueType.JSON_BOOLEAN);
+    return bits != 0L;
+  }
+
+  /**
+   * @return the number value, which may be truncated or rounded if it is not a {@link NumberType#LONG}.
+   */
+  public long getLongValue() {
+    checkType(ValueType.JSON_NUMBER);
+    switch (numberType) {
+      case LONG:
+        return bits;
+      case DOUBLE:
+        return (long)Double.longBitsToDouble(bits);
+      default:
+        return getNumberValue().longValue();
+    }
+  }
+
+  /**
+   * @return the number value, which may be rounded if it is not a {@link NumberType#DOUBLE}.
+   */
+  public double getDoubleValue() {
+    checkType(ValueType.JSON_NUMBER);
+    switch (numberType) {
+      case LONG:
+        return (double)bits;
+      case DOUBLE:
+        return Double.longBitsToDouble(bits);
+      default:
+        return getNumberValue().doubleValue();
+    }
+  }
+
+  /**
+   * @return the exact number value as a {@link BigDecimal}.
+   */
+  public BigDecimal getBigDecimalValue() {
+    checkType(ValueType.JSON_NUMBER);
+    if (numberType == NumberType.LONG) {
+      return BigDecimal.valueOf(bits);
+    }
+    return new BigDecimal(value);
+  }
+
+  /**
+   * @return the number value as a {@link Long}, {@link Double}, {@link BigInteger} or {@link BigDecimal},
+   * according to the {@link NumberType}.
+   */
+  public Number getNumberValue() {
+    checkType(ValueType.JSON_NUMBER);
+    switch (numberType) {
+      case LONG:
+        return bits;
+      case DOUBLE:
+        return Double.longBitsToDouble(bits);
+      case BIG_INTEGER:
+        return new BigInteger(value);
+      case BIG_DECIMAL:
+        return new BigDecimal(value);
+      default:
+        throw new IllegalStateException("Unexpected number type: " + numberType.name());
+    }
+  }
+
+  private void checkType(ValueType expectedType) {
+    if (type != expectedType) {
+      throw new IllegalStateException(expectedType.name() + " is expected, but the actual type is: " + type.name());
+    }
+  }
+
   @Override
   public boolean equals(Object other) {
     if (this == other) {
@@ -99,7 +250,7 @@ public class JsonTuple {
     }
     JsonTuple that = (JsonTuple)other;
     return this.type == that.type &&
-        this.value.equals(that.value) &&
+        Objects.equals(this.value, that.value) &&
         this.paths.equals(that.paths);
   }
 
@@ -107,7 +258,7 @@ public class JsonTuple {
   public int hashCode() {
     int hash = paths.hashCode();
     hash += 19 * hash + type.hashCode();
-    hash += 19 * hash + value.hashCode();
+    hash += 19 * hash + Objects.hashCode(value);
     return hash;
   }
 
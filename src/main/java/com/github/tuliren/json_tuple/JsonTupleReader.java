@@ -0,0 +1,202 @@
+package com.github.tuliren.json_tuple;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.internal.LazilyParsedNumber;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Streaming converter that reads a json object from a {@link JsonReader} and emits {@link JsonTuple}s
+ * as the tokens arrive, without building a {@link com.google.gson.JsonObject} for the whole document.
+ * <p>
+ * The tuples and their order are the same as those from {@link JsonTuples#toTupleList}. Nested objects
+ * are streamed, so memory is bounded by the nesting depth. The path of every array element includes the
+ * size of the array, which is only known when the array ends, so each array under an object key is read
+ * as a subtree before its tuples are emitted. Peak memory is therefore proportional to the largest such array,
+ * e.g. to the whole document when it is one large array. The subtree is read with an explicit stack, and its tuples
+ * are converted one at a time as they are returned, so the array is only held once, as a tree.
+ */
+public class JsonTupleReader implements Iterator<JsonTuple>, Closeable {
+
+  private final JsonReader reader;
+  // paths of the objects that are currently open, excluding the root object
+  private KeyPathList paths = KeyPathList.EMPTY;
+  // tuples that have been read but not returned yet
+  private final Deque<JsonTuple> pending = new ArrayDeque<>();
+  // converts the array that has been read as a subtree
+  private final TupleCursor arrayCursor = new TupleCursor();
+  private boolean readingArray = false;
+
+  private boolean started = false;
+  private boolean finished = false;
+
+  public JsonTupleReader(JsonReader reader) {
+    this.reader = reader;
+  }
+
+  @Override
+  public boolean hasNext() {
+    try {
+      while (pending.isEmpty() && !finished) {
+        readNext();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return !pending.isEmpty();
+  }
+
+  @Override
+  public JsonTuple next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return pending.poll();
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private void readNext() throws IOException {
+    if (readingArray) {
+      JsonTuple tuple = arrayCursor.next();
+      if (tuple != null) {
+        pending.add(tuple);
+        return;
+      }
+      readingArray = false;
+    }
+
+    if (!started) {
+      started = true;
+      reader.beginObject();
+      if (!reader.hasNext()) {
+        pending.add(JsonTuple.createEmpty(paths));
+      }
+      return;
+    }
+
+    if (reader.peek() == JsonToken.END_OBJECT) {
+      reader.endObject();
+      if (paths.isEmpty()) {
+        finished = true;
+      } else {
+        paths = paths.getParent();
+      }
+      return;
+    }
+
+    String key = reader.nextName();
+    JsonToken token = reader.peek();
+
+    if (token == JsonToken.BEGIN_ARRAY) {
+      arrayCursor.reset(paths, key, readArray());
+      readingArray = true;
+      return;
+    }
+
+    KeyPathList childPaths = paths.append(new ElementKeyPath(key));
+
+    switch (token) {
+      case BEGIN_OBJECT:
+        reader.beginObject();
+        paths = childPaths;
+        if (!reader.hasNext()) {
+          pending.add(JsonTuple.createEmpty(childPaths));
+        }
+        break;
+      case STRING:
+        pending.add(JsonTuple.createString(childPaths, reader.nextString()));
+        break;
+      case NUMBER:
+        pending.add(JsonTuple.createNumber(childPaths, reader.nextString()));
+        break;
+      case BOOLEAN:
+        pending.add(JsonTuple.createBoolean(childPaths, reader.nextBoolean()));
+        break;
+      case NULL:
+        reader.nextNull();
+        pending.add(JsonTuple.createNull(childPaths));
+        break;
+      default:
+        throw new IllegalArgumentException("Unexpected json token: " + token);
+    }
+  }
+
+  /**
+   * Reads the array at the current token as a subtree, in the same way as {@link com.google.gson.JsonParser}, except
+   * that nested containers are kept in an explicit stack instead of the call stack.
+   */
+  private JsonArray readArray() throws IOException {
+    JsonArray jsonArray = new JsonArray();
+    Deque<JsonElement> containers = new ArrayDeque<>();
+    reader.beginArray();
+    containers.push(jsonArray);
+    while (!containers.isEmpty()) {
+      JsonElement container = containers.peek();
+      if (!reader.hasNext()) {
+        if (container.isJsonArray()) {
+          reader.endArray();
+        } else {
+          reader.endObject();
+        }
+        containers.pop();
+        continue;
+      }
+
+      String name = container.isJsonObject() ? reader.nextName() : null;
+      JsonToken token = reader.peek();
+      JsonElement value;
+      switch (token) {
+        case BEGIN_ARRAY:
+          reader.beginArray();
+          value = new JsonArray();
+          break;
+        case BEGIN_OBJECT:
+          reader.beginObject();
+          value = new JsonObject();
+          break;
+        case STRING:
+          value = new JsonPrimitive(reader.nextString());
+          break;
+        case NUMBER:
+          value = new JsonPrimitive(new LazilyParsedNumber(reader.nextString()));
+          break;
+        case BOOLEAN:
+          value = new JsonPrimitive(reader.nextBoolean());
+          break;
+        case NULL:
+          reader.nextNull();
+          value = JsonNull.INSTANCE;
+          break;
+        default:
+          throw new IllegalArgumentException("Unexpected json token: " + token);
+      }
+
+      if (container.isJsonArray()) {
+        container.getAsJsonArray().add(value);
+      } else {
+        container.getAsJsonObject().add(name, value);
+      }
+      if (value.isJsonArray() || value.isJsonObject()) {
+        containers.push(value);
+      }
+    }
+    return jsonArray;
+  }
+
+}
@@ -0,0 +1,270 @@
+package com.github.tuliren.json_tuple;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streaming converter that writes {@link JsonTuple}s as json text to a {@link JsonWriter}, without building
+ * a {@link com.google.gson.JsonObject}.
+ * <p>
+ * The tuples must be written in the order they are generated by {@link JsonTuples#toTupleList}. Objects and
+ * arrays are opened and closed by comparing the key paths of each tuple with those of the previous one, so
+ * memory is bounded by the nesting depth.
+ * <p>
+ * Numbers that are NaN or infinite are rejected with {@link IllegalArgumentException}, unless the
+ * {@link JsonWriter} is lenient, in which case they are written as is, the same as Gson does.
+ */
+public class JsonTupleWriter {
+
+  private static final int INITIAL_DEPTH = 8;
+
+  // the container opened by a key path
+  private static final byte NONE = 0;
+  private static final byte OBJECT = 1;
+  private static final byte ARRAY = 2;
+
+  private final JsonWriter writer;
+
+  // key paths of the previous tuple
+  private KeyPath[] paths = new KeyPath[INITIAL_DEPTH];
+  // whether each key path has opened a named array
+  private boolean[] openArrays = new boolean[INITIAL_DEPTH];
+  // the object or array value opened by each key path
+  private byte[] openElements = new byte[INITIAL_DEPTH];
+  private int depth = 0;
+  // key paths of the current tuple, copied once so that they are not looked up by index in the tuple
+  private KeyPath[] tuplePaths = new KeyPath[INITIAL_DEPTH];
+
+  private boolean started = false;
+  private boolean finished = false;
+
+  public JsonTupleWriter(JsonWriter writer) {
+    this.writer = writer;
+  }
+
+  /**
+   * Writes {@code tuple}. The root object is opened before the first tuple.
+   */
+  public void write(JsonTuple tuple) throws IOException {
+    checkState(!finished);
+    start();
+
+    int size = tuple.getPaths().size();
+    checkArgument(size > 0);
+    tuplePaths = KeyPaths.toArray(tuple.getPaths(), tuplePaths);
+
+    // key paths whose containers are shared with the previous tuple
+    int shared = 0;
+    while (shared < depth - 1 && shared < size - 1 && paths[shared].equals(tuplePaths[shared])) {
+      shared++;
+    }
+
+    // the next element in the same named array
+    boolean sameArray = shared < depth && isSameNamedArray(paths[shared], tuplePaths[shared]);
+
+    while (depth > shared + 1) {
+      closePath(depth - 1, true);
+      depth--;
+    }
+    if (depth > shared) {
+      closePath(shared, !sameArray);
+      depth = shared;
+    }
+
+    ensureCapacity(size);
+    for (int i = shared; i < size; i++) {
+      openPath(tuple, i, i == size - 1, i == shared && sameArray);
+    }
+    depth = size;
+  }
+
+  /**
+   * Closes all open containers, including the root object. An empty object is written if no tuple has been written.
+   */
+  public void finish() throws IOException {
+    if (finished) {
+      return;
+    }
+    start();
+    while (depth > 0) {
+      closePath(depth - 1, true);
+      depth--;
+    }
+    writer.endObject();
+    finished = true;
+  }
+
+  private void start() throws IOException {
+    if (!started) {
+      writer.beginObject();
+      started = true;
+    }
+  }
+
+  private void openPath(JsonTuple tuple, int index, boolean isLast, boolean sameArray) throws IOException {
+    KeyPath path = tuplePaths[index];
+    paths[index] = path;
+    openArrays[index] = false;
+    openElements[index] = NONE;
+
+    if (!path.isArray()) {
+      writer.name(path.getNullableName());
+      if (isLast) {
+        writeValue(tuple);
+      } else {
+        writer.beginObject();
+        openElements[index] = OBJECT;
+      }
+      return;
+    }
+
+    String name = path.getNullableName();
+    if (name != null) {
+      // a named array is a value of the parent object
+      if (!sameArray) {
+        writer.name(name);
+        writer.beginArray();
+      }
+      openArrays[index] = true;
+    }
+
+    if (!isLast) {
+      KeyPath nextPath = tuplePaths[index + 1];
+      if (nextPath.isArray() && nextPath.getNullableName() == null) {
+        writer.beginArray();
+        openElements[index] = ARRAY;
+      } else {
+        writer.beginObject();
+        openElements[index] = OBJECT;
+      }
+    } else if (tuple.getType() != ValueType.JSON_EMPTY) {
+      writeValue(tuple);
+    } else if (path.getListSizeAsInt() != 0) {
+      // when the array is not empty, it is an empty object inside the array: [..., {}, ...]
+      writer.beginObject();
+      writer.endObject();
+    }
+    // otherwise it is an empty array, which has been opened by itself or by the parent path: []
+  }
+
+  private void closePath(int index, boolean closeArray) throws IOException {
+    if (openElements[index] == OBJECT) {
+      writer.endObject();
+    } else if (openElements[index] == ARRAY) {
+      writer.endArray();
+    }
+    openElements[index] = NONE;
+    if (closeArray && openArrays[index]) {
+      writer.endArray();
+      openArrays[index] = false;
+    }
+  }
+
+  private void writeValue(JsonTuple tuple) throws IOException {
+    switch (tuple.getType()) {
+      case JSON_STRING:
+        writer.value(tuple.getValue());
+        break;
+      case JSON_BOOLEAN:
+        writer.value(Boolean.parseBoolean(tuple.getValue()));
+        break;
+      case JSON_NUMBER:
+        writeNumber(tuple.getValue());
+        break;
+      case JSON_NULL:
+        boolean serializeNulls = writer.getSerializeNulls();
+        writer.setSerializeNulls(true);
+        writer.nullValue();
+        writer.setSerializeNulls(serializeNulls);
+        break;
+      case JSON_EMPTY:
+        writer.beginObject();
+        writer.endObject();
+        break;
+      default:
+        throw new IllegalArgumentException("Unexpected value type: " + tuple.getType().name());
+    }
+  }
+
+  /**
+   * Same as {@link JsonWriter#value(Number)}, NaN and infinities are only written when the writer is lenient,
+   * because they are not valid json.
+   */
+  private void writeNumber(String value) throws IOException {
+    if (!writer.isLenient() && isSpecialFloatingPointValue(value)) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+    }
+    writer.jsonValue(value);
+  }
+
+  private static boolean isSpecialFloatingPointValue(String value) {
+    return value.equals("NaN") || value.equals("Infinity") || value.equals("-Infinity");
+  }
+
+  private void ensureCapacity(int size) {
+    if (size > paths.length) {
+      int capacity = Math.max(size, paths.length * 2);
+      paths = Arrays.copyOf(paths, capacity);
+      openArrays = Arrays.copyOf(openArrays, capacity);
+      openElements = Arrays.copyOf(openElements, capacity);
+    }
+  }
+
+  private static boolean isSameNamedArray(KeyPath previousPath, KeyPath path) {
+    return previousPath.isArray() && path.isArray() &&
+        previousPath.getNullableName() != null &&
+        Objects.equals(previousPath.getNullableName(), path.getNullableName());
+  }
+
+  /**
+   * Adapts an {@link Appendable} to the {@link Writer} required by {@link JsonWriter}.
+   */
+  static Writer asWriter(Appendable appendable) {
+    if (appendable instanceof Writer) {
+      return (Writer)appendable;
+    }
+    return new Writer() {
+      @Override
+      public void write(int c) throws IOException {
+        appendable.append((char)c);
+      }
+
+      @Override
+      public void write(String str, int off, int len) throws IOException {
+        appendable.append(str, off, off + len);
+      }
+
+      @Override
+      public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+          appendable.append(cbuf[i]);
+        }
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+  }
+
+  private static void checkArgument(boolean expression) {
+    if (!expression) {
+      throw new IllegalArgumentException();
+    }
+  }
+
+  private static void checkState(boolean expression) {
+    if (!expression) {
+      throw new IllegalStateException();
+    }
+  }
+
+}
@@ -1,23 +1,33 @@
 package com.github.tuliren.json_tuple;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
 /**
  * Json helper that converts json objects {@link JsonObject} from and to key value tuple ({@link JsonTuple}).
  * <p>
- * To convert json object to tuples, use {@link JsonTuples#toTupleList}.
+ * To convert json object to tuples, use {@link JsonTuples#toTupleList}, or {@link JsonTuples#stream} to convert lazily.
  * To convert json tuples to object, use {@link JsonTuples#fromTupleList}.
+ * To convert json text to tuples without building a json object, use {@link JsonTuples#toTuples}.
+ * To convert json tuples to text without building a json object, use {@link JsonTuples#fromTuples}.
  */
 public final class JsonTuples {
 
@@ -28,83 +38,126 @@ public final class JsonTuples {
    * @return a list of {@link JsonTuple} representing the input {@code json}.
    */
   public static List<JsonTuple> toTupleList(JsonObject json) {
-    return toTupleList(Collections.emptyList(), json);
+    return toTupleList(KeyPathList.EMPTY, json, Constants.UNLIMITED_DEPTH);
+  }
+
+  /**
+   * @return a list of {@link JsonTuple} representing the input {@code json}.
+   * @throws IllegalArgumentException as soon as any tuple would have more than {@code maxDepth} key paths.
+   */
+  public static List<JsonTuple> toTupleList(JsonObject json, int maxDepth) {
+    return toTupleList(KeyPathList.EMPTY, json, maxDepth);
   }
 
   /**
    * @return a list of {@link JsonTuple} representing the input {@code json} under {@code parentPaths}.
    */
   public static List<JsonTuple> toTupleList(List<KeyPath> parentPaths, JsonObject json) {
+    return toTupleList(KeyPathList.of(parentPaths), json, Constants.UNLIMITED_DEPTH);
+  }
+
+  private static List<JsonTuple> toTupleList(KeyPathList parentPaths, JsonObject json, int maxDepth) {
     List<JsonTuple> tuples = new ArrayList<>();
+    TupleCursor cursor = new TupleCursor(maxDepth);
+    cursor.reset(parentPaths, json);
+    addAll(tuples, cursor);
+    return tuples;
+  }
 
-    Set<Map.Entry<String, JsonElement>> entrySet = json.entrySet();
-    if (entrySet.size() == 0) {
-      tuples.add(JsonTuple.createEmpty(parentPaths));
+  private static void addAll(List<JsonTuple> tuples, TupleCursor cursor) {
+    for (JsonTuple tuple = cursor.next(); tuple != null; tuple = cursor.next()) {
+      tuples.add(tuple);
     }
+  }
 
-    for (Map.Entry<String, JsonElement> entry : entrySet) {
-      List<KeyPath> childPaths = new ArrayList<>(parentPaths);
-      String key = entry.getKey();
-      JsonElement jsonElement = entry.getValue();
-
-      if (jsonElement.isJsonArray()) {
-        tuples.addAll(getTupleListFromArray(parentPaths, Optional.of(key), jsonElement.getAsJsonArray()));
-        continue;
-      }
-
-      childPaths.add(new ElementKeyPath(entry.getKey()));
-      if (jsonElement.isJsonPrimitive()) {
-        tuples.add(createPrimitiveTuple(childPaths, jsonElement.getAsJsonPrimitive()));
-      } else if (jsonElement.isJsonObject()) {
-        tuples.addAll(toTupleList(childPaths, jsonElement.getAsJsonObject()));
-      } else if (jsonElement.isJsonNull()) {
-        tuples.add(JsonTuple.createNull(childPaths));
-      } else {
-        throw new IllegalArgumentException("Unexpected json element: " + jsonElement);
-      }
+  /**
+   * @return a lazily evaluated stream of the same tuples as {@link JsonTuples#toTupleList(JsonObject)}.
+   * <p>
+   * Tuples are converted one at a time as the stream is consumed, so short-circuiting operations like
+   * {@link Stream#findFirst} and {@link Stream#limit} only convert the tuples they need. A parallel stream is split
+   * at top-level entries.
+   */
+  public static Stream<JsonTuple> stream(JsonObject json) {
+    if (json.size() == 0) {
+      return toTupleList(json).stream();
     }
+    return StreamSupport.stream(TupleSpliterator.forObject(json), false);
+  }
 
-    return tuples;
+  /**
+   * Same as {@link JsonTuples#toTupleList(JsonObject)}, except that top-level entries and large objects and arrays
+   * at any depth are converted in parallel on the common fork-join pool.
+   */
+  public static List<JsonTuple> toTupleListParallel(JsonObject json) {
+    return toTupleListParallel(json, ForkJoinPool.commonPool(), ParallelTupleTask.DEFAULT_THRESHOLD);
   }
 
-  private static List<JsonTuple> getTupleListFromArray(List<KeyPath> parentPaths, Optional<String> arrayName, JsonArray jsonArray) {
-    List<JsonTuple> tuples = new ArrayList<>(jsonArray.size());
-    int size = jsonArray.size();
+  /**
+   * Same as {@link JsonTuples#toTupleList(JsonObject)}, except that the top-level entries, and any object or array at
+   * any depth with more than {@code threshold} entries or elements, are split into ranges of at most {@code threshold}
+   * entries or elements, and converted in parallel on {@code pool}.
+   * The tuples are in exactly the same order as those from the sequential conversion.
+   */
+  public static List<JsonTuple> toTupleListParallel(JsonObject json, ForkJoinPool pool, int threshold) {
+    return toTupleListParallel(json, pool, threshold, Constants.UNLIMITED_DEPTH);
+  }
 
-    if (size == 0) {
-      List<KeyPath> childPaths = new ArrayList<>(parentPaths);
-      childPaths.add(new ArrayKeyPath(arrayName, 0, 0));
-      tuples.add(JsonTuple.createEmpty(childPaths));
+  /**
+   * Same as {@link JsonTuples#toTupleListParallel(JsonObject, ForkJoinPool, int)}, except that the depth is limited
+   * the same way as {@link JsonTuples#toTupleList(JsonObject, int)}.
+   *
+   * @throws IllegalArgumentException if any tuple would have more than {@code maxDepth} key paths.
+   */
+  public static List<JsonTuple> toTupleListParallel(JsonObject json, ForkJoinPool pool, int threshold, int maxDepth) {
+    if (threshold <= 0) {
+      throw new IllegalArgumentException("Threshold must be positive: " + threshold);
     }
+    if (maxDepth <= 0) {
+      throw new IllegalArgumentException("Max depth must be positive: " + maxDepth);
+    }
+    if (json.size() == 0) {
+      return toTupleList(json, maxDepth);
+    }
+    ParallelTupleTask task = ParallelTupleTask.forObject(json, threshold, maxDepth);
+    pool.invoke(task);
+    return task.getTuples();
+  }
 
-    for (int i = 0; i < jsonArray.size(); i++) {
-      List<KeyPath> childPaths = new ArrayList<>(parentPaths);
-      childPaths.add(new ArrayKeyPath(arrayName, i, size));
-
-      JsonElement jsonElement = jsonArray.get(i);
+  /**
+   * Reads a json object from {@code reader} and passes each {@link JsonTuple} to {@code consumer} as soon as it is read.
+   * The tuples are the same as those returned by {@link JsonTuples#toTupleList}.
+   * <p>
+   * Objects are streamed, but each array under an object key is read as a whole before its tuples are passed on,
+   * because every element path includes the array size. So memory is bounded by the nesting depth plus the largest
+   * such array, which is the whole document when it is mostly one large array. See {@link JsonTupleReader}.
+   */
+  public static void toTuples(JsonReader reader, Consumer<JsonTuple> consumer) {
+    new JsonTupleReader(reader).forEachRemaining(consumer);
+  }
 
-      if (jsonElement.isJsonPrimitive()) {
-        tuples.add(createPrimitiveTuple(childPaths, jsonElement.getAsJsonPrimitive()));
-      } else if (jsonElement.isJsonArray()) {
-        JsonArray keylessArray = jsonElement.getAsJsonArray();
-        tuples.addAll(getTupleListFromArray(childPaths, Optional.empty(), keylessArray));
-      } else if (jsonElement.isJsonObject()) {
-        tuples.addAll(toTupleList(childPaths, jsonElement.getAsJsonObject()));
-      } else if (jsonElement.isJsonNull()) {
-        tuples.add(JsonTuple.createNull(childPaths));
-      } else {
-        throw new IllegalArgumentException("Unexpected json element: " + jsonElement);
-      }
-    }
+  /**
+   * Reads a json object from {@code reader} leniently, in the same way as {@link com.google.gson.JsonParser}. The
+   * memory limit is the same as {@link #toTuples(JsonReader, Consumer)}.
+   */
+  public static void toTuples(Reader reader, Consumer<JsonTuple> consumer) {
+    JsonReader jsonReader = new JsonReader(reader);
+    jsonReader.setLenient(true);
+    toTuples(jsonReader, consumer);
+  }
 
-    return tuples;
+  /**
+   * Reads a UTF-8 encoded json object from {@code inputStream}. The memory limit is the same as
+   * {@link #toTuples(JsonReader, Consumer)}.
+   */
+  public static void toTuples(InputStream inputStream, Consumer<JsonTuple> consumer) {
+    toTuples(new InputStreamReader(inputStream, StandardCharsets.UTF_8), consumer);
   }
 
-  private static JsonTuple createPrimitiveTuple(List<KeyPath> childPaths, JsonPrimitive jsonPrimitive) {
+  static JsonTuple createPrimitiveTuple(List<KeyPath> childPaths, JsonPrimitive jsonPrimitive) {
     if (jsonPrimitive.isBoolean()) {
-      return JsonTuple.createBoolean(childPaths, jsonPrimitive.getAsString());
+      return JsonTuple.createBoolean(childPaths, jsonPrimitive.getAsBoolean());
     } else if (jsonPrimitive.isNumber()) {
-      return JsonTuple.createNumber(childPaths, jsonPrimitive.getAsString());
+      return JsonTuple.createNumber(childPaths, jsonPrimitive.getAsNumber());
     } else {
       return JsonTuple.createString(childPaths, jsonPrimitive.getAsString());
     }
@@ -114,158 +167,91 @@ public final class JsonTuples {
    * @return a json object from input {@code tuples}.
    */
   public static JsonObject fromTupleList(List<JsonTuple> tuples) {
-    JsonObject json = new JsonObject();
-    for (JsonTuple tuple : tuples) {
-      processTuple(json, tuple.getPaths(), tuple.getType(), tuple.getValue());
-    }
-    return json;
+    return fromTupleList(tuples, Constants.UNLIMITED_DEPTH);
   }
 
-  private static void processTuple(JsonElement parentElement, List<KeyPath> paths, ValueType type, String value) {
-    checkArgument(!paths.isEmpty());
-    KeyPath childPath = paths.get(0);
-    if (childPath.isArray()) {
-      addArrayPath(parentElement, (ArrayKeyPath)childPath, paths.subList(1, paths.size()), type, value);
-    } else {
-      addElementPath(parentElement, (ElementKeyPath)childPath, paths.subList(1, paths.size()), type, value);
+  /**
+   * @return a json object from input {@code tuples}.
+   * @throws IllegalArgumentException as soon as any tuple has more than {@code maxDepth} key paths.
+   */
+  public static JsonObject fromTupleList(List<JsonTuple> tuples, int maxDepth) {
+    TupleTreeBuilder builder = new TupleTreeBuilder(maxDepth);
+    for (JsonTuple tuple : tuples) {
+      builder.add(tuple);
     }
+    return builder.build();
   }
 
-  private static void addArrayPath(JsonElement parentElement, ArrayKeyPath childPath, List<KeyPath> tailPaths, ValueType type, String value) {
-    Optional<String> childName = childPath.getName();
-    Optional<Integer> childIndex = childPath.getListIndex();
-    Optional<Integer> childSize = childPath.getListSize();
-    checkState(childIndex.isPresent());
-    checkState(childSize.isPresent());
-
-    if (childName.isPresent()) {
-      // when the child has a name, the parent must be an object
-      String name = childName.get();
-      checkState(parentElement.isJsonObject());
-
-      JsonObject parentObject = parentElement.getAsJsonObject();
-      final JsonArray childArray;
-
-      if (!parentObject.has(name)) {
-        childArray = new JsonArray();
-        parentObject.add(name, childArray);
-      } else {
-        childArray = parentObject.get(name).getAsJsonArray();
-      }
-
-      if (!tailPaths.isEmpty()) {
-        addChildPathToParentArray(childArray, childIndex.get(), tailPaths, type, value);
-      } else {
-        // tuples are sorted by name, and this element must have not been added to the array
-        checkState(childArray.size() == childIndex.get());
-        if (type != ValueType.JSON_EMPTY) {
-          childArray.add(getJsonElement(type, value));
-        } else if (childSize.get() == 0) {
-          // when tail paths is empty and child size is zero,
-          // it is an empty array and can be ignored: []
-        } else {
-          // when tail paths is empty and child size is not zero,
-          // it is an empty object inside an array: [..., {}, ...]
-          childArray.add(new JsonObject());
-        }
-      }
-    } else {
-      // when the child has no name, the parent must be an array
-      checkState(parentElement.isJsonArray());
-      JsonArray parentArray = parentElement.getAsJsonArray();
-
-      if (!tailPaths.isEmpty()) {
-        addChildPathToParentArray(parentArray, childIndex.get(), tailPaths, type, value);
-      } else {
-        // tuples are sorted by name, and this element must have not been added to the array
-        checkState(parentArray.size() == childIndex.get());
-        if (type != ValueType.JSON_EMPTY) {
-          parentArray.add(getJsonElement(type, value));
-        }
-      }
+  /**
+   * @return a json object from input {@code tuples} in any order.
+   * <p>
+   * Array elements are placed by the index and size in their key paths, so the tuples do not need to be in the
+   * order they are generated. The key order of each object follows the order in which the keys first appear.
+   * @throws IllegalStateException if the tuples are inconsistent, or if any array element is missing.
+   */
+  public static JsonObject fromUnorderedTupleList(List<JsonTuple> tuples) {
+    UnorderedTupleAssembler assembler = new UnorderedTupleAssembler(false);
+    for (JsonTuple tuple : tuples) {
+      assembler.add(tuple);
     }
+    return assembler.build();
   }
 
-  private static void addElementPath(JsonElement parentElement, ElementKeyPath childPath, List<KeyPath> tailPaths, ValueType type, String value) {
-    // parent element must be an object because it has an element path
-    checkState(parentElement.isJsonObject());
-    // child path must have a name because it is an element path
-    Optional<String> childName = childPath.getName();
-    checkState(childName.isPresent());
-
-    final JsonObject parentObject = parentElement.getAsJsonObject();
-    if (!tailPaths.isEmpty()) {
-      addElementChildPathToParentObject(parentObject, childName.get(), tailPaths, type, value);
-    } else {
-      parentObject.add(childName.get(), getJsonElement(type, value));
+  /**
+   * @return a json object with only the subtrees of input {@code tuples} that are selected by {@code projection}.
+   * <p>
+   * Tuples that are not selected are skipped. Selected array elements keep their relative order, and the elements
+   * that are not selected are left out of the array, e.g. {@code items|1.price} on three items results in
+   * {@code {"items": [{"price": ...}]}}. The tuples can be in any order.
+   */
+  public static JsonObject fromTupleList(List<JsonTuple> tuples, TupleProjection projection) {
+    UnorderedTupleAssembler assembler = new UnorderedTupleAssembler(true);
+    for (JsonTuple tuple : tuples) {
+      if (projection.matches(tuple)) {
+        assembler.add(tuple);
+      }
     }
+    return assembler.build();
   }
 
-  private static void addElementChildPathToParentObject(JsonObject parentObject, String childPathName, List<KeyPath> tailPaths, ValueType type, String value) {
-    KeyPath nextChildPath = tailPaths.get(0);
-    final JsonElement childElement;
-    if (!parentObject.has(childPathName)) {
-      // current child must be an object because it is an element path
-      childElement = new JsonObject();
-      // next child must have a name because the current child is an object
-      checkArgument(nextChildPath.getName().isPresent());
-      parentObject.add(childPathName, childElement);
-    } else {
-      childElement = parentObject.get(childPathName);
+  /**
+   * Writes the json object of input {@code tuples} to {@code writer} in one pass, without building a {@link JsonObject}.
+   * The tuples must be in the order they are generated by {@link JsonTuples#toTupleList}.
+   */
+  public static void fromTuples(Iterator<JsonTuple> tuples, JsonWriter writer) {
+    try {
+      JsonTupleWriter tupleWriter = new JsonTupleWriter(writer);
+      while (tuples.hasNext()) {
+        tupleWriter.write(tuples.next());
+      }
+      tupleWriter.finish();
+      writer.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
-    processTuple(childElement, tailPaths, type, value);
   }
 
-  private static void addChildPathToParentArray(JsonArray parentArray, int childPathIndex, List<KeyPath> tailPaths, ValueType type, String value) {
-    KeyPath nextChildPath = tailPaths.get(0);
-    final JsonElement childElement;
-    if (parentArray.size() <= childPathIndex) {
-      if (nextChildPath.getName().isPresent() || !nextChildPath.isArray()) {
-        childElement = new JsonObject();
-      } else {
-        childElement = new JsonArray();
-      }
-      parentArray.add(childElement);
-    } else {
-      childElement = parentArray.get(childPathIndex);
-    }
-    processTuple(childElement, tailPaths, type, value);
+  /**
+   * Appends the json text of input {@code tuples} to {@code appendable}.
+   */
+  public static void fromTuples(Iterator<JsonTuple> tuples, Appendable appendable) {
+    fromTuples(tuples, new JsonWriter(JsonTupleWriter.asWriter(appendable)));
   }
 
-  private static JsonElement getJsonElement(ValueType type, String value) {
-    switch (type) {
+  static JsonElement getJsonElement(JsonTuple tuple) {
+    switch (tuple.getType()) {
       case JSON_STRING:
-        return new JsonPrimitive(value);
+        return new JsonPrimitive(tuple.getValue());
       case JSON_BOOLEAN:
-        return new JsonPrimitive(Boolean.valueOf(value));
+        return new JsonPrimitive(tuple.getBooleanValue());
       case JSON_NUMBER:
-        try {
-          return new JsonPrimitive(Long.valueOf(value));
-        } catch (NumberFormatException e1) {
-          try {
-            return new JsonPrimitive(Double.valueOf(value));
-          } catch (NumberFormatException e2) {
-            throw new IllegalArgumentException("Unexpected json number: " + value);
-          }
-        }
+        return new JsonPrimitive(tuple.getNumberValue());
       case JSON_NULL:
         return JsonNull.INSTANCE;
       case JSON_EMPTY:
         return new JsonObject();
       default:
-        throw new IllegalArgumentException("Unexpected value type: " + type.name());
-    }
-  }
-
-  private static void checkArgument(boolean expression) {
-    if (!expression) {
-      throw new IllegalArgumentException();
-    }
-  }
-
-  private static void checkState(boolean expression) {
-    if (!expression) {
-      throw new IllegalStateException();
+        throw new IllegalArgumentException("Unexpected value type: " + tuple.getType().name());
     }
   }
 
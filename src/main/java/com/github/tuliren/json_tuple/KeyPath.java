@@ -4,6 +4,9 @@ import java.util.Optional;
 
 /**
  * Json key. It is named path because it is usually a sequence of keys (for nested elements).
+ * <p>
+ * The {@link Optional} accessors are kept for compatibility. The nullable and primitive accessors read the same
+ * values without allocating.
  */
 public interface KeyPath {
 
@@ -15,6 +18,27 @@ public interface KeyPath {
 
   Optional<Integer> getListSize();
 
+  /**
+   * @return the name, or null for a keyless array.
+   */
+  default String getNullableName() {
+    return getName().orElse(null);
+  }
+
+  /**
+   * @return the array index, or -1 if this is not an array key path.
+   */
+  default int getListIndexAsInt() {
+    return getListIndex().orElse(-1);
+  }
+
+  /**
+   * @return the array size, or -1 if this is not an array key path.
+   */
+  default int getListSizeAsInt() {
+    return getListSize().orElse(-1);
+  }
+
   @Override
   boolean equals(Object that);
 
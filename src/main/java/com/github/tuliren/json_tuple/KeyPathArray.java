@@ -0,0 +1,56 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of {@link KeyPath}s backed by an exactly sized array, with the hash code computed once.
+ * <p>
+ * It is used for standalone key paths, e.g. those parsed from a full path, which do not share parents with other
+ * tuples like {@link KeyPathList} does.
+ */
+final class KeyPathArray extends AbstractList<KeyPath> implements RandomAccess {
+
+  private final KeyPath[] paths;
+  private final int hash;
+
+  /**
+   * @param paths which must not be modified afterwards.
+   */
+  KeyPathArray(KeyPath[] paths) {
+    this.paths = paths;
+    this.hash = Arrays.hashCode(paths);
+  }
+
+  @Override
+  public KeyPath get(int index) {
+    return paths[index];
+  }
+
+  @Override
+  public int size() {
+    return paths.length;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (other instanceof KeyPathArray) {
+      KeyPathArray that = (KeyPathArray)other;
+      return hash == that.hash && Arrays.equals(paths, that.paths);
+    }
+    if (other instanceof KeyPathList && other.hashCode() != hash) {
+      return false;
+    }
+    return super.equals(other);
+  }
+
+}
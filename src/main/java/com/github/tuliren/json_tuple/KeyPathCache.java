@@ -0,0 +1,208 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe, size-bounded cache from full path strings to their parsed {@link KeyPath}s.
+ * <p>
+ * The cached key path lists are immutable and shared by all tuples of the same full path. Each {@link KeyPath}
+ * is also interned, so equal key paths in different full paths are the same instance. Both maps evict the least
+ * recently used entries when they exceed the maximum size.
+ * <p>
+ * To keep concurrent converters from contending on one lock, large caches are split into up to
+ * {@value #MAX_SEGMENT_COUNT} segments by hash, and each segment is a separate LRU map with its own lock and an
+ * equal share of the maximum size. Eviction is then least recently used within each segment. Caches smaller than
+ * {@value #MIN_SEGMENT_SIZE} times two entries have one segment, and are exactly LRU.
+ */
+public class KeyPathCache {
+
+  static final int MAX_SEGMENT_COUNT = 16;
+  static final int MIN_SEGMENT_SIZE = 64;
+
+  private final int maximumSize;
+  private final SegmentedMap<String, KeyPathArray> fullPaths;
+  private final SegmentedMap<KeyPath, KeyPath> keyPaths;
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+
+  public KeyPathCache(int maximumSize) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+    }
+    this.maximumSize = maximumSize;
+    this.fullPaths = new SegmentedMap<>(maximumSize);
+    this.keyPaths = new SegmentedMap<>(maximumSize);
+  }
+
+  /**
+   * @return the immutable key paths of {@code fullPath}, which are parsed when the full path is not cached.
+   */
+  public List<KeyPath> get(String fullPath) {
+    KeyPathArray paths = fullPaths.get(fullPath);
+    if (paths != null) {
+      hitCount.increment();
+      return paths;
+    }
+    missCount.increment();
+
+    // parse outside the locks; if another thread has cached the same full path in the meantime, its result is used
+    KeyPathArray parsedPaths = KeyPaths.parse(fullPath);
+    KeyPath[] internedPaths = new KeyPath[parsedPaths.size()];
+    for (int i = 0; i < internedPaths.length; i++) {
+      internedPaths[i] = intern(parsedPaths.get(i));
+    }
+    return fullPaths.putIfAbsent(fullPath, new KeyPathArray(internedPaths));
+  }
+
+  /**
+   * @return the canonical instance that is equal to {@code path}.
+   */
+  public KeyPath intern(KeyPath path) {
+    return keyPaths.putIfAbsent(path, path);
+  }
+
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  /**
+   * @return the number of cached full paths.
+   */
+  public int size() {
+    return fullPaths.size();
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * @return the number of evicted full paths and interned key paths.
+   */
+  public long getEvictionCount() {
+    return fullPaths.getEvictionCount() + keyPaths.getEvictionCount();
+  }
+
+  /**
+   * @return the number of evicted interned key paths, which is part of {@link #getEvictionCount()}.
+   */
+  public long getKeyPathEvictionCount() {
+    return keyPaths.getEvictionCount();
+  }
+
+  /**
+   * @return the number of segments of each map.
+   */
+  int getSegmentCount() {
+    return fullPaths.segments.length;
+  }
+
+  public void clear() {
+    fullPaths.clear();
+    keyPaths.clear();
+  }
+
+  /**
+   * Map split into LRU segments by hash, where each segment is guarded by its own monitor.
+   */
+  private static final class SegmentedMap<K, V> {
+
+    private final Segment<K, V>[] segments;
+    private final LongAdder evictionCount = new LongAdder();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    SegmentedMap(int maximumSize) {
+      int segmentCount = 1;
+      while (segmentCount < MAX_SEGMENT_COUNT && segmentCount * 2 * MIN_SEGMENT_SIZE <= maximumSize) {
+        segmentCount *= 2;
+      }
+      this.segments = new Segment[segmentCount];
+      for (int i = 0; i < segmentCount; i++) {
+        // the remainder is spread over the first segments, so that the sizes add up to the maximum size
+        int capacity = maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+        segments[i] = new Segment<>(capacity, evictionCount);
+      }
+    }
+
+    V get(K key) {
+      Segment<K, V> segment = getSegment(key);
+      synchronized (segment) {
+        return segment.get(key);
+      }
+    }
+
+    /**
+     * @return the value that is already in the map, or {@code value} if there is none.
+     */
+    V putIfAbsent(K key, V value) {
+      Segment<K, V> segment = getSegment(key);
+      synchronized (segment) {
+        V existingValue = segment.putIfAbsent(key, value);
+        return existingValue == null ? value : existingValue;
+      }
+    }
+
+    int size() {
+      int size = 0;
+      for (Segment<K, V> segment : segments) {
+        synchronized (segment) {
+          size += segment.size();
+        }
+      }
+      return size;
+    }
+
+    long getEvictionCount() {
+      return evictionCount.sum();
+    }
+
+    void clear() {
+      for (Segment<K, V> segment : segments) {
+        synchronized (segment) {
+          segment.clear();
+        }
+      }
+    }
+
+    private Segment<K, V> getSegment(K key) {
+      int hash = key.hashCode();
+      // spread the high bits, since string hash codes of similar paths differ mostly in the low bits
+      hash ^= hash >>> 16;
+      return segments[hash & (segments.length - 1)];
+    }
+
+  }
+
+  private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int capacity;
+    private final LongAdder evictionCount;
+
+    Segment(int capacity, LongAdder evictionCount) {
+      super(16, 0.75f, true);
+      this.capacity = capacity;
+      this.evictionCount = evictionCount;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      if (size() > capacity) {
+        evictionCount.increment();
+        return true;
+      }
+      return false;
+    }
+
+  }
+
+}
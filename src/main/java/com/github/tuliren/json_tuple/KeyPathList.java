@@ -0,0 +1,226 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Immutable list of {@link KeyPath}s that links to the list of its parent paths. Appending a path creates
+ * a new node in constant time, and sibling paths share the same parent node instead of copying it.
+ * <p>
+ * Nodes only hold a reference to their parent, so a tree of N tuples of depth D takes O(N) nodes instead of O(N * D)
+ * paths. Random access walks the parent chain, i.e. {@code get(i)} takes {@code size - 1 - i} hops, so it does not
+ * implement {@link java.util.RandomAccess}. Iteration and the other list views copy the paths into a temporary array
+ * that is not kept by the node, and converters that index every path copy them once per tuple with
+ * {@link KeyPaths#toArray} into a reused array. The hash code is computed from the hash code of the parent when a path is appended,
+ * and lists that share parents are compared only up to the shared node.
+ * <p>
+ * It does not extend {@link java.util.AbstractList}, whose modification count would add four bytes to every node.
+ */
+final class KeyPathList extends AbstractCollection<KeyPath> implements List<KeyPath> {
+
+  static final KeyPathList EMPTY = new KeyPathList(null, null, 0, 1);
+
+  private final KeyPathList parent;
+  private final KeyPath last;
+  private final int size;
+  // same as List#hashCode
+  private final int hash;
+
+  private KeyPathList(KeyPathList parent, KeyPath last, int size, int hash) {
+    this.parent = parent;
+    this.last = last;
+    this.size = size;
+    this.hash = hash;
+  }
+
+  /**
+   * @return a key path list with the same paths as {@code paths}, which is returned as is if it is already a key path list.
+   */
+  static KeyPathList of(List<KeyPath> paths) {
+    if (paths instanceof KeyPathList) {
+      return (KeyPathList)paths;
+    }
+    KeyPathList list = EMPTY;
+    for (KeyPath path : paths) {
+      list = list.append(path);
+    }
+    return list;
+  }
+
+  /**
+   * @return a new list with {@code path} appended to this list.
+   */
+  KeyPathList append(KeyPath path) {
+    return new KeyPathList(this, path, size + 1, 31 * hash + path.hashCode());
+  }
+
+  /**
+   * @return the list without the last path, or null if this list is empty.
+   */
+  KeyPathList getParent() {
+    return parent;
+  }
+
+  /**
+   * @return the last path, or null if this list is empty.
+   */
+  KeyPath getLast() {
+    return last;
+  }
+
+  /**
+   * @return the number of leading paths that this list and {@code other} share as the same parent node. Lists
+   * appended to the same parent share its paths, so this is found by identity without comparing any path.
+   */
+  int getSharedSize(KeyPathList other) {
+    KeyPathList node = this;
+    KeyPathList otherNode = other;
+    while (node.size > otherNode.size) {
+      node = node.parent;
+    }
+    while (otherNode.size > node.size) {
+      otherNode = otherNode.parent;
+    }
+    // all lists are appended to the empty list, so both nodes meet there at the latest
+    while (node != otherNode) {
+      node = node.parent;
+      otherNode = otherNode.parent;
+    }
+    return node.size;
+  }
+
+  /**
+   * Copies the paths to the start of {@code target}, which must have at least {@code size} elements.
+   */
+  void copyTo(KeyPath[] target) {
+    KeyPathList node = this;
+    for (int i = size - 1; i >= 0; i--) {
+      target[i] = node.last;
+      node = node.parent;
+    }
+  }
+
+  @Override
+  public KeyPath get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+    KeyPathList node = this;
+    for (int i = size - 1; i > index; i--) {
+      node = node.parent;
+    }
+    return node.last;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Object[] toArray() {
+    return getPaths();
+  }
+
+  @Override
+  public Iterator<KeyPath> iterator() {
+    return listIterator();
+  }
+
+  @Override
+  public ListIterator<KeyPath> listIterator() {
+    return listIterator(0);
+  }
+
+  @Override
+  public ListIterator<KeyPath> listIterator(int index) {
+    return asList().listIterator(index);
+  }
+
+  @Override
+  public List<KeyPath> subList(int fromIndex, int toIndex) {
+    return asList().subList(fromIndex, toIndex);
+  }
+
+  @Override
+  public int indexOf(Object path) {
+    return asList().indexOf(path);
+  }
+
+  @Override
+  public int lastIndexOf(Object path) {
+    return asList().lastIndexOf(path);
+  }
+
+  @Override
+  public KeyPath set(int index, KeyPath path) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void add(int index, KeyPath path) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public KeyPath remove(int index) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean addAll(int index, Collection<? extends KeyPath> paths) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (other instanceof KeyPathList) {
+      KeyPathList that = (KeyPathList)other;
+      if (size != that.size || hash != that.hash) {
+        return false;
+      }
+      // compare from the last path until both lists reach a shared parent
+      KeyPathList node = this;
+      KeyPathList otherNode = that;
+      while (node != otherNode) {
+        if (!node.last.equals(otherNode.last)) {
+          return false;
+        }
+        node = node.parent;
+        otherNode = otherNode.parent;
+      }
+      return true;
+    }
+    if (other instanceof KeyPathArray && other.hashCode() != hash) {
+      return false;
+    }
+    return other instanceof List && asList().equals(other);
+  }
+
+  private List<KeyPath> asList() {
+    return Collections.unmodifiableList(Arrays.asList(getPaths()));
+  }
+
+  /**
+   * @return a new array of all paths, which is not cached so that nodes stay small.
+   */
+  private KeyPath[] getPaths() {
+    KeyPath[] result = new KeyPath[size];
+    copyTo(result);
+    return result;
+  }
+
+}
@@ -1,9 +1,6 @@
 package com.github.tuliren.json_tuple;
 
-import java.util.Optional;
-import java.util.regex.Pattern;
-
-import org.apache.commons.lang3.math.NumberUtils;
+import java.util.List;
 
 /**
  * {@link KeyPath} factory.
@@ -14,18 +11,174 @@ final class KeyPaths {
   }
 
   static KeyPath create(String path) {
-    String[] listPathSplits = path.split(Pattern.quote(Constants.LIST_PATH_SEPARATOR));
-    if (listPathSplits.length == 3 && NumberUtils.isDigits(listPathSplits[1]) && NumberUtils.isDigits(listPathSplits[2])) {
-      int index = Integer.valueOf(listPathSplits[1]);
-      int size = Integer.valueOf(listPathSplits[2]);
-      if (listPathSplits[0].equals(Constants.KEYLESS_ARRAY_NAME)) {
-        return new ArrayKeyPath(Optional.empty(), index, size);
-      } else {
-        return new ArrayKeyPath(Optional.of(listPathSplits[0]), index, size);
+    return create(path, 0, path.length());
+  }
+
+  /**
+   * Parses the key path between {@code start} (inclusive) and {@code end} (exclusive) of {@code path} in one pass.
+   * Only paths that match /[^|]*\|\d+\|\d+/ are parsed to {@link ArrayKeyPath}; all else are parsed to {@link ElementKeyPath}.
+   */
+  static KeyPath create(CharSequence path, int start, int end) {
+    return create(path, start, end, Constants.LIST_PATH_SEPARATOR_CHAR);
+  }
+
+  /**
+   * Same as {@link KeyPaths#create(CharSequence, int, int)}, except that array key paths are separated by
+   * {@code listSeparator}.
+   */
+  static KeyPath create(CharSequence path, int start, int end, char listSeparator) {
+    int firstSeparator = -1;
+    int secondSeparator = -1;
+    for (int i = start; i < end; i++) {
+      if (path.charAt(i) == listSeparator) {
+        if (firstSeparator < 0) {
+          firstSeparator = i;
+        } else if (secondSeparator < 0) {
+          secondSeparator = i;
+        } else {
+          return createElement(path, start, end);
+        }
+      }
+    }
+
+    if (secondSeparator < 0) {
+      return createElement(path, start, end);
+    }
+    int index = parseDigits(path, firstSeparator + 1, secondSeparator);
+    int size = parseDigits(path, secondSeparator + 1, end);
+    if (index < 0 || size < 0) {
+      return createElement(path, start, end);
+    }
+
+    if (firstSeparator == start) {
+      return ArrayKeyPath.create(null, index, size);
+    } else {
+      return ArrayKeyPath.create(path.subSequence(start, firstSeparator).toString(), index, size);
+    }
+  }
+
+  /**
+   * Parses a full path, in which key paths are joined by {@link Constants#PATH_SEPARATOR}, in one pass.
+   */
+  static KeyPathArray parse(CharSequence fullPath) {
+    return parse(fullPath, Constants.PATH_SEPARATOR_CHAR, Constants.LIST_PATH_SEPARATOR_CHAR);
+  }
+
+  /**
+   * Parses a full path, in which key paths are joined by {@code pathSeparator}, and array key paths are separated by
+   * {@code listSeparator}.
+   */
+  static KeyPathArray parse(CharSequence fullPath, char pathSeparator, char listSeparator) {
+    int length = fullPath.length();
+    int count = 1;
+    for (int i = 0; i < length; i++) {
+      if (fullPath.charAt(i) == pathSeparator) {
+        count++;
+      }
+    }
+
+    KeyPath[] paths = new KeyPath[count];
+    int start = 0;
+    int index = 0;
+    for (int i = 0; i < length; i++) {
+      if (fullPath.charAt(i) == pathSeparator) {
+        paths[index++] = create(fullPath, start, i, listSeparator);
+        start = i + 1;
+      }
+    }
+    paths[index] = create(fullPath, start, length, listSeparator);
+    return new KeyPathArray(paths);
+  }
+
+  /**
+   * Appends the string form of {@code path} to {@code builder}, which is the same as {@link KeyPath#toString}.
+   */
+  static void appendTo(StringBuilder builder, KeyPath path) {
+    appendTo(builder, path, Constants.LIST_PATH_SEPARATOR_CHAR);
+  }
+
+  /**
+   * Appends the string form of {@code path}, in which the parts of an array key path are separated by {@code listSeparator}.
+   */
+  static void appendTo(StringBuilder builder, KeyPath path, char listSeparator) {
+    if (path instanceof ArrayKeyPath) {
+      String name = path.getNullableName();
+      builder.append(name == null ? Constants.KEYLESS_ARRAY_NAME : name)
+          .append(listSeparator)
+          .append(path.getListIndexAsInt())
+          .append(listSeparator)
+          .append(path.getListSizeAsInt());
+    } else {
+      builder.append(path.toString());
+    }
+  }
+
+  /**
+   * Joins {@code paths} by {@link Constants#PATH_SEPARATOR}.
+   */
+  static String join(List<KeyPath> paths) {
+    StringBuilder builder = new StringBuilder();
+    appendTo(builder, paths, Constants.PATH_SEPARATOR_CHAR, Constants.LIST_PATH_SEPARATOR_CHAR);
+    return builder.toString();
+  }
+
+  /**
+   * Appends {@code paths} joined by {@code pathSeparator} to {@code builder}.
+   */
+  static void appendTo(StringBuilder builder, List<KeyPath> paths, char pathSeparator, char listSeparator) {
+    boolean first = true;
+    for (KeyPath path : paths) {
+      if (!first) {
+        builder.append(pathSeparator);
       }
+      appendTo(builder, path, listSeparator);
+      first = false;
+    }
+  }
+
+  /**
+   * Copies {@code paths} to the start of {@code scratch}, or of a larger new array if it does not fit. A
+   * {@link KeyPathList} is walked once, so that callers can index the paths of a tuple in constant time.
+   *
+   * @return the array that holds the paths.
+   */
+  static KeyPath[] toArray(List<KeyPath> paths, KeyPath[] scratch) {
+    int size = paths.size();
+    KeyPath[] result = size <= scratch.length ? scratch : new KeyPath[Math.max(size, scratch.length * 2)];
+    if (paths instanceof KeyPathList) {
+      ((KeyPathList)paths).copyTo(result);
     } else {
-      return new ElementKeyPath(path);
+      for (int i = 0; i < size; i++) {
+        result[i] = paths.get(i);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the non-negative integer of the ascii digits between {@code start} and {@code end}, or -1 if there is none,
+   * or if any char is not a digit.
+   */
+  private static int parseDigits(CharSequence path, int start, int end) {
+    if (start >= end) {
+      return -1;
     }
+    long value = 0;
+    for (int i = start; i < end; i++) {
+      char c = path.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+      if (value > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Array index or size is too large: " + path.subSequence(start, end));
+      }
+    }
+    return (int)value;
+  }
+
+  private static ElementKeyPath createElement(CharSequence path, int start, int end) {
+    return new ElementKeyPath(path.subSequence(start, end).toString());
   }
 
 }
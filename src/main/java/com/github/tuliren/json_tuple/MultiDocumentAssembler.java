@@ -0,0 +1,323 @@
+package com.github.tuliren.json_tuple;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Assembles json objects from a stream of (document id, tuple) pairs that covers many documents, and passes each
+ * json object to a consumer as soon as its document is complete. The tuples of each document must be in the order
+ * they are generated by {@link JsonTuples#toTupleList}, but documents can be grouped or interleaved:
+ * <ul>
+ *   <li>In the grouped mode, the tuples of each document are contiguous, and a document is complete when a tuple
+ *   of another document arrives. Each tuple is added to the json object right away, so only one document is held
+ *   in memory.</li>
+ *   <li>In the interleaved mode, the tuples of different documents can be mixed, and a document is complete when
+ *   {@link #complete} is called for it. The tuples of open documents are buffered, and at most
+ *   {@code maxOpenDocuments} documents are buffered in memory. When one more document needs to be buffered, the
+ *   {@link OverflowPolicy} either fails, so that the caller can complete some documents first, or spills the
+ *   tuples of the least recently updated document to a temporary file with {@link TupleEncoder}. Spilled numbers
+ *   are read back in the canonical form described there.</li>
+ * </ul>
+ * Call {@link #finish()} at the end of the stream to complete the remaining documents, and {@link #close()} to
+ * delete any temporary files. An assembler is not thread-safe.
+ */
+public class MultiDocumentAssembler<K> implements AutoCloseable {
+
+  public enum OverflowPolicy {
+    /**
+     * Throws {@link IllegalStateException} when too many documents are open.
+     */
+    FAIL,
+    /**
+     * Writes the buffered tuples of the least recently updated document to a temporary file.
+     */
+    SPILL
+  }
+
+  private final BiConsumer<K, JsonObject> consumer;
+  private final boolean grouped;
+  private final int maxOpenDocuments;
+  private final OverflowPolicy overflowPolicy;
+  private final Path spillDirectory;
+  private final TupleTreeBuilder builder = new TupleTreeBuilder();
+
+  // grouped mode: id of the document that is being built
+  private K currentId;
+  private boolean hasCurrent = false;
+
+  // interleaved mode: all open documents in the order of their first tuple
+  private final Map<K, OpenDocument> documents = new LinkedHashMap<>();
+  // interleaved mode: open documents with buffered tuples, from the least to the most recently updated
+  private final Map<K, OpenDocument> bufferedDocuments = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long documentCount = 0L;
+  private long spillCount = 0L;
+  private boolean finished = false;
+
+  private MultiDocumentAssembler(BiConsumer<K, JsonObject> consumer, boolean grouped, int maxOpenDocuments, OverflowPolicy overflowPolicy, Path spillDirectory) {
+    if (maxOpenDocuments <= 0) {
+      throw new IllegalArgumentException("Max open documents must be positive: " + maxOpenDocuments);
+    }
+    this.consumer = Objects.requireNonNull(consumer);
+    this.grouped = grouped;
+    this.maxOpenDocuments = maxOpenDocuments;
+    this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+    this.spillDirectory = spillDirectory;
+  }
+
+  /**
+   * @return an assembler for tuples that are grouped by document id.
+   */
+  public static <K> MultiDocumentAssembler<K> grouped(BiConsumer<K, JsonObject> consumer) {
+    return new MultiDocumentAssembler<>(consumer, true, 1, OverflowPolicy.FAIL, null);
+  }
+
+  /**
+   * @return an assembler for interleaved tuples, which spills to the default temporary directory.
+   */
+  public static <K> MultiDocumentAssembler<K> interleaved(int maxOpenDocuments, OverflowPolicy overflowPolicy, BiConsumer<K, JsonObject> consumer) {
+    return new MultiDocumentAssembler<>(consumer, false, maxOpenDocuments, overflowPolicy, null);
+  }
+
+  /**
+   * @return an assembler for interleaved tuples, which spills to {@code spillDirectory}.
+   */
+  public static <K> MultiDocumentAssembler<K> interleaved(int maxOpenDocuments, OverflowPolicy overflowPolicy, Path spillDirectory, BiConsumer<K, JsonObject> consumer) {
+    return new MultiDocumentAssembler<>(consumer, false, maxOpenDocuments, overflowPolicy, Objects.requireNonNull(spillDirectory));
+  }
+
+  /**
+   * @throws IllegalStateException if too many documents are open and the overflow policy is {@link OverflowPolicy#FAIL},
+   * or the tuple is not consistent with the previous tuples of its document.
+   * @throws UncheckedIOException if the tuples cannot be spilled.
+   */
+  public void add(K documentId, JsonTuple tuple) {
+    checkState(!finished, "Assembler has been finished");
+    if (grouped) {
+      addGrouped(documentId, tuple);
+    } else {
+      addInterleaved(documentId, tuple);
+    }
+  }
+
+  /**
+   * Builds the json object of {@code documentId} and passes it to the consumer. Nothing happens if the document
+   * is not open. In the grouped mode, only the current document can be completed.
+   *
+   * @throws UncheckedIOException if the spilled tuples cannot be read.
+   */
+  public void complete(K documentId) {
+    if (grouped) {
+      if (hasCurrent && Objects.equals(currentId, documentId)) {
+        completeCurrent();
+      }
+      return;
+    }
+    OpenDocument document = documents.remove(documentId);
+    if (document == null) {
+      return;
+    }
+    bufferedDocuments.remove(documentId);
+    try {
+      builder.reset();
+      document.addSpilledTuples(builder);
+      for (JsonTuple tuple : document.tuples) {
+        builder.add(tuple);
+      }
+      JsonObject json = builder.build();
+      documentCount++;
+      consumer.accept(documentId, json);
+    } finally {
+      builder.clear();
+      document.delete();
+    }
+  }
+
+  /**
+   * Completes all open documents in the order of their first tuple. No tuple can be added afterwards.
+   */
+  public void finish() {
+    if (finished) {
+      return;
+    }
+    if (grouped) {
+      if (hasCurrent) {
+        completeCurrent();
+      }
+    } else {
+      List<K> documentIds = new ArrayList<>(documents.keySet());
+      for (K documentId : documentIds) {
+        complete(documentId);
+      }
+    }
+    finished = true;
+  }
+
+  /**
+   * @return the number of documents that have been passed to the consumer.
+   */
+  public long getDocumentCount() {
+    return documentCount;
+  }
+
+  /**
+   * @return the number of documents that are open, including those that have been spilled.
+   */
+  public int getOpenDocumentCount() {
+    return grouped ? (hasCurrent ? 1 : 0) : documents.size();
+  }
+
+  /**
+   * @return the number of times that the tuples of a document have been spilled.
+   */
+  public long getSpillCount() {
+    return spillCount;
+  }
+
+  /**
+   * Discards all open documents and deletes their temporary files.
+   */
+  @Override
+  public void close() {
+    for (OpenDocument document : documents.values()) {
+      document.delete();
+    }
+    documents.clear();
+    bufferedDocuments.clear();
+    builder.clear();
+    hasCurrent = false;
+    currentId = null;
+    finished = true;
+  }
+
+  private void addGrouped(K documentId, JsonTuple tuple) {
+    if (!hasCurrent || !Objects.equals(currentId, documentId)) {
+      if (hasCurrent) {
+        completeCurrent();
+      }
+      builder.reset();
+      currentId = documentId;
+      hasCurrent = true;
+    }
+    builder.add(tuple);
+  }
+
+  private void completeCurrent() {
+    JsonObject json = builder.build();
+    K documentId = currentId;
+    builder.clear();
+    currentId = null;
+    hasCurrent = false;
+    documentCount++;
+    consumer.accept(documentId, json);
+  }
+
+  private void addInterleaved(K documentId, JsonTuple tuple) {
+    OpenDocument document = bufferedDocuments.get(documentId);
+    if (document == null) {
+      if (bufferedDocuments.size() >= maxOpenDocuments) {
+        if (overflowPolicy == OverflowPolicy.FAIL) {
+          throw new IllegalStateException("Too many open documents: " + bufferedDocuments.size());
+        }
+        spillLeastRecentlyUpdated();
+      }
+      document = documents.computeIfAbsent(documentId, id -> new OpenDocument());
+      bufferedDocuments.put(documentId, document);
+    }
+    document.tuples.add(tuple);
+  }
+
+  private void spillLeastRecentlyUpdated() {
+    Iterator<OpenDocument> iterator = bufferedDocuments.values().iterator();
+    OpenDocument document = iterator.next();
+    iterator.remove();
+    try {
+      document.spill();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    spillCount++;
+  }
+
+  private static void checkState(boolean expression, String message) {
+    if (!expression) {
+      throw new IllegalStateException(message);
+    }
+  }
+
+  /**
+   * Tuples of an open document, which are buffered in memory, and written to a temporary file when spilled. Each
+   * spill appends one encoded tuple stream to the file.
+   */
+  private final class OpenDocument {
+
+    private final List<JsonTuple> tuples = new ArrayList<>();
+    private Path spillFile = null;
+    private int spilledStreamCount = 0;
+
+    void spill() throws IOException {
+      if (spillFile == null) {
+        spillFile = spillDirectory == null ?
+            Files.createTempFile("tuples", ".spill") :
+            Files.createTempFile(spillDirectory, "tuples", ".spill");
+      }
+      try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile.toFile(), true)))) {
+        TupleEncoder encoder = new TupleEncoder(output);
+        for (JsonTuple tuple : tuples) {
+          encoder.write(tuple);
+        }
+        encoder.finish();
+      }
+      spilledStreamCount++;
+      tuples.clear();
+    }
+
+    void addSpilledTuples(TupleTreeBuilder builder) {
+      if (spillFile == null) {
+        return;
+      }
+      try (InputStream stream = new BufferedInputStream(Files.newInputStream(spillFile))) {
+        DataInputStream input = new DataInputStream(stream);
+        for (int i = 0; i < spilledStreamCount; i++) {
+          TupleDecoder decoder = new TupleDecoder(input);
+          for (JsonTuple tuple = decoder.read(); tuple != null; tuple = decoder.read()) {
+            builder.add(tuple);
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    void delete() {
+      tuples.clear();
+      if (spillFile != null) {
+        try {
+          Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        spillFile = null;
+      }
+    }
+
+  }
+
+}
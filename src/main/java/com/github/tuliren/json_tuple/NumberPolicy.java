@@ -0,0 +1,18 @@
+package com.github.tuliren.json_tuple;
+
+/**
+ * How json numbers are converted to tuples.
+ */
+public enum NumberPolicy {
+
+  /**
+   * Keeps the number as it is in the json object, with the narrowest {@link NumberType} that holds it exactly.
+   */
+  EXACT,
+
+  /**
+   * Converts every number to a {@link NumberType#DOUBLE}, which may lose precision beyond 15 significant digits.
+   */
+  DOUBLE
+
+}
@@ -0,0 +1,16 @@
+package com.github.tuliren.json_tuple;
+
+/**
+ * Numeric subtype of a {@link ValueType#JSON_NUMBER} value. It is determined once when a tuple is created,
+ * so that the number can be reconstructed without parsing it again.
+ */
+public enum NumberType {
+  // integer that fits in a long
+  LONG,
+  // decimal that can be represented by a double without losing precision
+  DOUBLE,
+  // integer that does not fit in a long
+  BIG_INTEGER,
+  // decimal that cannot be represented by a double without losing precision
+  BIG_DECIMAL
+}
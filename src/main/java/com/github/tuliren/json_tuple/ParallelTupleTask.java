@@ -0,0 +1,193 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveAction;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Fork-join task that converts a range of entries of an object, or a range of elements of an array, to tuples.
+ * <p>
+ * Ranges larger than the threshold are split in halves. Within a range, the subtrees are visited by a
+ * {@link TupleCursor} with an explicit stack, in the same order as the sequential conversion, and any object or array
+ * at any depth with more entries or elements than the threshold is forked as a task of its own, so a large array deep
+ * inside a small document is converted in parallel as well. Deep documents do not grow the call stack, and the max
+ * depth is checked the same way as {@link JsonTuples#toTupleList(JsonObject, int)} does.
+ * <p>
+ * Each task keeps its output as an ordered list of parts, which are either tuples converted by the task itself or
+ * forked tasks. Once all tasks are done, the parts are concatenated once into a list of the exact size, so the tuples
+ * are the same as those from the sequential {@link JsonTuples#toTupleList}, and each tuple is copied once.
+ */
+class ParallelTupleTask extends RecursiveAction implements TupleCursor.Splitter {
+
+  private static final long serialVersionUID = 1L;
+
+  static final int DEFAULT_THRESHOLD = 1024;
+
+  private final int threshold;
+  private final int maxDepth;
+  private final KeyPathList parentPaths;
+  private final int from;
+  private final int to;
+
+  // for a range of object entries
+  private final List<Map.Entry<String, JsonElement>> entries;
+
+  // for a range of array elements
+  private final String arrayName;
+  private final JsonArray jsonArray;
+
+  // output in order: lists of tuples converted by this task, and forked tasks
+  private final List<Object> parts = new ArrayList<>();
+  private List<JsonTuple> tuples = null;
+
+  private ParallelTupleTask(int threshold, int maxDepth, KeyPathList parentPaths, int from, int to, List<Map.Entry<String, JsonElement>> entries, String arrayName, JsonArray jsonArray) {
+    this.threshold = threshold;
+    this.maxDepth = maxDepth;
+    this.parentPaths = parentPaths;
+    this.from = from;
+    this.to = to;
+    this.entries = entries;
+    this.arrayName = arrayName;
+    this.jsonArray = jsonArray;
+  }
+
+  /**
+   * @return a task for the entries of {@code json}, which must not be empty.
+   */
+  static ParallelTupleTask forObject(JsonObject json, int threshold, int maxDepth) {
+    return forObject(KeyPathList.EMPTY, json, threshold, maxDepth);
+  }
+
+  private static ParallelTupleTask forObject(KeyPathList paths, JsonObject json, int threshold, int maxDepth) {
+    return new ParallelTupleTask(threshold, maxDepth, paths, 0, json.size(), new ArrayList<>(json.entrySet()), null, null);
+  }
+
+  private static ParallelTupleTask forArray(KeyPathList parentPaths, String arrayName, JsonArray jsonArray, int threshold, int maxDepth) {
+    return new ParallelTupleTask(threshold, maxDepth, parentPaths, 0, jsonArray.size(), null, arrayName, jsonArray);
+  }
+
+  @Override
+  protected void compute() {
+    if (to - from > threshold) {
+      int middle = (from + to) >>> 1;
+      ParallelTupleTask left = new ParallelTupleTask(threshold, maxDepth, parentPaths, from, middle, entries, arrayName, jsonArray);
+      ParallelTupleTask right = new ParallelTupleTask(threshold, maxDepth, parentPaths, middle, to, entries, arrayName, jsonArray);
+      parts.add(left);
+      parts.add(right);
+      right.fork();
+      left.compute();
+      right.join();
+      return;
+    }
+
+    TupleCursor cursor = new TupleCursor(maxDepth, NumberPolicy.EXACT, threshold, this);
+    if (entries != null) {
+      cursor.reset(parentPaths, entries.subList(from, to).iterator());
+    } else {
+      cursor.reset(parentPaths, arrayName, jsonArray, from, to);
+    }
+    for (JsonTuple tuple = cursor.next(); tuple != null; tuple = cursor.next()) {
+      if (tuples == null) {
+        tuples = new ArrayList<>();
+      }
+      tuples.add(tuple);
+    }
+    flush();
+
+    // the forked subtrees run while the rest of the range is visited
+    for (Object part : parts) {
+      if (part instanceof ParallelTupleTask) {
+        ((ParallelTupleTask)part).join();
+      }
+    }
+  }
+
+  @Override
+  public void splitObject(KeyPathList paths, JsonObject json) {
+    fork(forObject(paths, json, threshold, maxDepth));
+  }
+
+  @Override
+  public void splitArray(KeyPathList parentPaths, String arrayName, JsonArray jsonArray) {
+    fork(forArray(parentPaths, arrayName, jsonArray, threshold, maxDepth));
+  }
+
+  private void fork(ParallelTupleTask task) {
+    flush();
+    parts.add(task);
+    task.fork();
+  }
+
+  private void flush() {
+    if (tuples != null) {
+      parts.add(tuples);
+      tuples = null;
+    }
+  }
+
+  /**
+   * @return all tuples in order, after the task is done.
+   */
+  @SuppressWarnings("unchecked")
+  List<JsonTuple> getTuples() {
+    List<Object> allParts = getAllParts();
+    int count = 0;
+    for (Object part : allParts) {
+      if (part instanceof List) {
+        count += ((List<JsonTuple>)part).size();
+      }
+    }
+    List<JsonTuple> result = new ArrayList<>(count);
+    for (Object part : allParts) {
+      if (part instanceof List) {
+        result.addAll((List<JsonTuple>)part);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the number of tasks in the tree of this task, including itself.
+   */
+  int countTasks() {
+    int count = 1;
+    for (Object part : getAllParts()) {
+      if (part instanceof ParallelTupleTask) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @return the parts of all tasks in the tree in order, where each forked task is followed by its own parts. The
+   * tree is walked with an explicit stack, since forked tasks can be nested as deep as the document.
+   */
+  private List<Object> getAllParts() {
+    List<Object> result = new ArrayList<>();
+    Deque<Iterator<Object>> stack = new ArrayDeque<>();
+    stack.push(parts.iterator());
+    while (!stack.isEmpty()) {
+      Iterator<Object> iterator = stack.peek();
+      if (!iterator.hasNext()) {
+        stack.pop();
+        continue;
+      }
+      Object part = iterator.next();
+      result.add(part);
+      if (part instanceof ParallelTupleTask) {
+        stack.push(((ParallelTupleTask)part).parts.iterator());
+      }
+    }
+    return result;
+  }
+
+}
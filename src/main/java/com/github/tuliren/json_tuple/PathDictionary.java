@@ -0,0 +1,236 @@
+package com.github.tuliren.json_tuple;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Symbol table that assigns dense int ids, starting from 0, to the key paths of tuples. Documents of the same
+ * collection usually share a stable set of paths, so a tuple can be stored as (path id, type, value) against one
+ * dictionary instead of repeating its full path.
+ * <p>
+ * The dictionary is thread-safe. Lookups do not lock, and ids are assigned under a lock in the order the paths are
+ * first added. Ids are never reassigned, so a dictionary persisted with {@link #writeTo(DataOutput)} and read back
+ * with {@link #readFrom(DataInput)} resolves the same ids to the same paths.
+ */
+public class PathDictionary {
+
+  /**
+   * Id returned by {@link #getId} when the path is not in the dictionary.
+   */
+  public static final int NO_ID = -1;
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final Map<List<KeyPath>, Integer> ids = new ConcurrentHashMap<>();
+  private final Map<String, Integer> fullPathIds = new ConcurrentHashMap<>();
+  // only accessed under the lock
+  private final Map<KeyPath, KeyPath> keyPaths = new HashMap<>();
+
+  // written under the lock before size, and read after size
+  private KeyPathArray[] paths = new KeyPathArray[INITIAL_CAPACITY];
+  private volatile int size = 0;
+
+  /**
+   * @return the id of {@code paths}, which is assigned when the paths are not in the dictionary.
+   * @throws IllegalArgumentException if {@code paths} is empty.
+   */
+  public int getOrAddId(List<KeyPath> paths) {
+    Integer id = ids.get(paths);
+    if (id != null) {
+      return id;
+    }
+    checkArgument(!paths.isEmpty(), "Key paths cannot be empty");
+    return add(paths);
+  }
+
+  /**
+   * Same as {@link #getOrAddId(List)}, except that the paths are parsed from {@code fullPath} when it is new.
+   */
+  public int getOrAddId(String fullPath) {
+    Integer id = fullPathIds.get(fullPath);
+    if (id != null) {
+      return id;
+    }
+    int newId = getOrAddId(KeyPaths.parse(fullPath));
+    fullPathIds.putIfAbsent(fullPath, newId);
+    return newId;
+  }
+
+  /**
+   * @return the id of {@code paths}, or {@link #NO_ID} when the paths are not in the dictionary.
+   */
+  public int getId(List<KeyPath> paths) {
+    Integer id = ids.get(paths);
+    return id == null ? NO_ID : id;
+  }
+
+  /**
+   * @return the id of the paths of {@code fullPath}, or {@link #NO_ID} when the paths are not in the dictionary.
+   */
+  public int getId(String fullPath) {
+    Integer id = fullPathIds.get(fullPath);
+    return id == null ? getId(KeyPaths.parse(fullPath)) : id;
+  }
+
+  /**
+   * @return the immutable key paths of {@code id}, which are shared by all tuples created from the dictionary.
+   * @throws IllegalArgumentException if the id has not been assigned.
+   */
+  public List<KeyPath> getPaths(int id) {
+    // read size first, so that the array and its elements written before size are visible
+    int currentSize = size;
+    checkArgument(id >= 0 && id < currentSize, "Unknown path id: " + id);
+    return paths[id];
+  }
+
+  /**
+   * @return the full path of {@code id}.
+   * @throws IllegalArgumentException if the id has not been assigned.
+   */
+  public String getFullPath(int id) {
+    return KeyPaths.join(getPaths(id));
+  }
+
+  /**
+   * @return a tuple with the key paths of {@code id}.
+   * @throws IllegalArgumentException if the id has not been assigned, or {@code type} is not a json type.
+   */
+  public JsonTuple createTuple(int id, ValueType type, String value) {
+    return JsonTuple.create(getPaths(id), type, value);
+  }
+
+  /**
+   * @return the number of assigned ids.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Writes the paths in the order of their ids. Paths added concurrently may or may not be written.
+   * <p>
+   * Layout: path count, and for each path, the key path count followed by the key paths, which are encoded with
+   * the tags of {@link TupleFormat}. Counts, indices and sizes are ints, and names are length-prefixed UTF-8 bytes.
+   */
+  public void writeTo(DataOutput output) throws IOException {
+    int currentSize = size;
+    KeyPathArray[] currentPaths = paths;
+    output.writeInt(currentSize);
+    for (int id = 0; id < currentSize; id++) {
+      KeyPathArray keyPaths = currentPaths[id];
+      output.writeInt(keyPaths.size());
+      for (KeyPath path : keyPaths) {
+        writePath(output, path);
+      }
+    }
+  }
+
+  /**
+   * @return a dictionary with the paths written by {@link #writeTo(DataOutput)}, which keep their ids.
+   * @throws IllegalArgumentException when the input is not a valid dictionary.
+   */
+  public static PathDictionary readFrom(DataInput input) throws IOException {
+    PathDictionary dictionary = new PathDictionary();
+    int pathCount = input.readInt();
+    checkArgument(pathCount >= 0, "Invalid path count: " + pathCount);
+    for (int id = 0; id < pathCount; id++) {
+      int keyPathCount = input.readInt();
+      checkArgument(keyPathCount > 0, "Invalid key path count: " + keyPathCount);
+      KeyPath[] keyPaths = new KeyPath[keyPathCount];
+      for (int i = 0; i < keyPathCount; i++) {
+        keyPaths[i] = readPath(input);
+      }
+      int assignedId = dictionary.getOrAddId(new KeyPathArray(keyPaths));
+      checkArgument(assignedId == id, "Duplicate paths: " + KeyPaths.join(dictionary.getPaths(assignedId)));
+    }
+    return dictionary;
+  }
+
+  private synchronized int add(List<KeyPath> newPaths) {
+    // another thread may have added the same paths before the lock is acquired
+    Integer existingId = ids.get(newPaths);
+    if (existingId != null) {
+      return existingId;
+    }
+
+    KeyPath[] internedPaths = KeyPaths.toArray(newPaths, new KeyPath[newPaths.size()]);
+    for (int i = 0; i < internedPaths.length; i++) {
+      internedPaths[i] = intern(internedPaths[i]);
+    }
+    KeyPathArray keyPaths = new KeyPathArray(internedPaths);
+
+    int id = size;
+    if (id == paths.length) {
+      paths = Arrays.copyOf(paths, id * 2);
+    }
+    paths[id] = keyPaths;
+    size = id + 1;
+    ids.put(keyPaths, id);
+    return id;
+  }
+
+  private KeyPath intern(KeyPath path) {
+    KeyPath canonicalPath = keyPaths.putIfAbsent(path, path);
+    return canonicalPath == null ? path : canonicalPath;
+  }
+
+  private static void writePath(DataOutput output, KeyPath path) throws IOException {
+    String name = path.getNullableName();
+    if (!path.isArray()) {
+      output.writeByte(TupleFormat.ELEMENT_PATH);
+      writeString(output, name);
+      return;
+    }
+    if (name != null) {
+      output.writeByte(TupleFormat.NAMED_ARRAY_PATH);
+      writeString(output, name);
+    } else {
+      output.writeByte(TupleFormat.KEYLESS_ARRAY_PATH);
+    }
+    output.writeInt(path.getListIndexAsInt());
+    output.writeInt(path.getListSizeAsInt());
+  }
+
+  private static KeyPath readPath(DataInput input) throws IOException {
+    int tag = input.readUnsignedByte();
+    switch (tag) {
+      case TupleFormat.ELEMENT_PATH:
+        return new ElementKeyPath(readString(input));
+      case TupleFormat.NAMED_ARRAY_PATH:
+        String name = readString(input);
+        return ArrayKeyPath.create(name, input.readInt(), input.readInt());
+      case TupleFormat.KEYLESS_ARRAY_PATH:
+        return ArrayKeyPath.create(null, input.readInt(), input.readInt());
+      default:
+        throw new IllegalArgumentException("Unexpected key path tag: " + tag);
+    }
+  }
+
+  private static void writeString(DataOutput output, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString(DataInput input) throws IOException {
+    int length = input.readInt();
+    checkArgument(length >= 0, "Invalid string length: " + length);
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void checkArgument(boolean expression, String message) {
+    if (!expression) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+}
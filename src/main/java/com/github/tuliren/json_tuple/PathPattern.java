@@ -0,0 +1,202 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Pattern of key paths, in the same syntax as full paths, except that array segments have an index and no size.
+ * <p>
+ * Examples:
+ * <ul>
+ *   <li>{@code user.address}: the "address" of the "user" object. The last segment also matches all elements
+ *   when "address" is an array.</li>
+ *   <li>{@code items|*.price}: the "price" of every element in the "items" array.</li>
+ *   <li>{@code items|0.price}: the "price" of the first element in the "items" array.</li>
+ *   <li>{@code matrix|*.|1}: the second element of every keyless array in the "matrix" array.</li>
+ * </ul>
+ */
+public final class PathPattern {
+
+  static final int ANY_INDEX = -1;
+  private static final int NO_INDEX = -2;
+  private static final String WILDCARD = "*";
+
+  private final String pattern;
+  // name of each segment, or null for keyless arrays
+  private final String[] names;
+  // index of each array segment, ANY_INDEX for wildcard, and NO_INDEX for element segments
+  private final int[] indices;
+
+  private PathPattern(String pattern, String[] names, int[] indices) {
+    this.pattern = pattern;
+    this.names = names;
+    this.indices = indices;
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code pattern} is not valid.
+   */
+  public static PathPattern compile(String pattern) {
+    String[] segments = pattern.split("\\.", -1);
+    String[] names = new String[segments.length];
+    int[] indices = new int[segments.length];
+
+    for (int i = 0; i < segments.length; i++) {
+      String segment = segments[i];
+      int separator = segment.indexOf(Constants.LIST_PATH_SEPARATOR_CHAR);
+      if (separator < 0) {
+        names[i] = segment;
+        indices[i] = NO_INDEX;
+        continue;
+      }
+
+      names[i] = separator == 0 ? null : segment.substring(0, separator);
+      String index = segment.substring(separator + 1);
+      if (index.equals(WILDCARD)) {
+        indices[i] = ANY_INDEX;
+      } else if (!index.isEmpty() && index.chars().allMatch(c -> c >= '0' && c <= '9')) {
+        indices[i] = Integer.parseInt(index);
+      } else {
+        throw new IllegalArgumentException("Invalid array index in path pattern: " + pattern);
+      }
+      if (i == 0 && names[i] == null) {
+        throw new IllegalArgumentException("Path pattern cannot start with a keyless array: " + pattern);
+      }
+    }
+    return new PathPattern(pattern, names, indices);
+  }
+
+  /**
+   * @return the name of the first segment.
+   */
+  String getFirstName() {
+    return names[0];
+  }
+
+  /**
+   * @return number of segments.
+   */
+  int size() {
+    return names.length;
+  }
+
+  /**
+   * @return the pattern with every array index replaced by the wildcard, which is the same as
+   * {@link #toCanonicalPath(List)} of the paths it matches exactly, e.g. {@code items|*.price}.
+   */
+  String toCanonicalPath() {
+    StringBuilder builder = new StringBuilder(pattern.length());
+    for (int i = 0; i < names.length; i++) {
+      if (i > 0) {
+        builder.append(Constants.PATH_SEPARATOR_CHAR);
+      }
+      if (names[i] != null) {
+        builder.append(names[i]);
+      }
+      if (indices[i] != NO_INDEX) {
+        builder.append(Constants.LIST_PATH_SEPARATOR_CHAR).append(WILDCARD);
+      }
+    }
+    return builder.toString();
+  }
+
+  /**
+   * @return the path of {@code paths} in pattern syntax with all array indices normalized to the wildcard, so that
+   * the same field of every array element has the same canonical path.
+   */
+  static String toCanonicalPath(List<KeyPath> paths) {
+    StringBuilder builder = new StringBuilder();
+    boolean first = true;
+    for (KeyPath path : paths) {
+      if (!first) {
+        builder.append(Constants.PATH_SEPARATOR_CHAR);
+      }
+      first = false;
+      String name = path.getNullableName();
+      if (name != null) {
+        builder.append(name);
+      }
+      if (path.isArray()) {
+        builder.append(Constants.LIST_PATH_SEPARATOR_CHAR).append(WILDCARD);
+      }
+    }
+    return builder.toString();
+  }
+
+  /**
+   * @return true if the pattern matches {@code paths} or any of its leading paths, i.e. {@code paths} is in the
+   * subtree selected by this pattern.
+   */
+  public boolean matchesPrefixOf(List<KeyPath> paths) {
+    if (paths.size() < names.length) {
+      return false;
+    }
+    if (paths instanceof KeyPathList) {
+      // match the leading paths backwards along the parent chain, instead of walking it for every index
+      KeyPathList node = (KeyPathList)paths;
+      while (node.size() > names.length) {
+        node = node.getParent();
+      }
+      for (int i = names.length - 1; i >= 0; i--) {
+        if (!matchesSegment(i, node.getLast())) {
+          return false;
+        }
+        node = node.getParent();
+      }
+      return true;
+    }
+    for (int i = 0; i < names.length; i++) {
+      if (!matchesSegment(i, paths.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return true if the pattern matches all of {@code paths}.
+   */
+  public boolean matches(List<KeyPath> paths) {
+    return paths.size() == names.length && matchesPrefixOf(paths);
+  }
+
+  private boolean matchesSegment(int segment, KeyPath path) {
+    int index = indices[segment];
+    if (index == NO_INDEX) {
+      // an element segment also matches the whole array of the same name when it is the last segment
+      if (path.isArray() && segment != names.length - 1) {
+        return false;
+      }
+      return names[segment].equals(path.getNullableName());
+    }
+    if (!path.isArray()) {
+      return false;
+    }
+    if (index != ANY_INDEX && index != path.getListIndexAsInt()) {
+      return false;
+    }
+    return Objects.equals(names[segment], path.getNullableName());
+  }
+
+  @Override
+  public String toString() {
+    return pattern;
+  }
+
+  @Override
+  public int hashCode() {
+    return pattern.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof PathPattern)) {
+      return false;
+    }
+    return pattern.equals(((PathPattern)other).pattern);
+  }
+
+}
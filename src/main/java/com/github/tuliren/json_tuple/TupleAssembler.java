@@ -0,0 +1,105 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+import com.google.gson.JsonElement;
+
+/**
+ * Push-based assembler that builds a json object from tuples one at a time, and passes each top-level key and
+ * value to a listener as soon as the value is complete, instead of returning the whole json object at the end.
+ * <p>
+ * The tuples must be in the order they are generated by {@link JsonTuples#toTupleList}, where the tuples of each
+ * top-level key are contiguous. A top-level value is complete when a tuple of another top-level key arrives, or
+ * when {@link #finish()} is called. The assembler does not keep the value after it is passed to the listener, so
+ * memory is bounded by the largest top-level value. Combined with {@link JsonTuples#toTuples(java.io.Reader,
+ * java.util.function.Consumer)}, a large document can be forwarded section by section:
+ * <pre>
+ * TupleAssembler assembler = new TupleAssembler((key, value) -&gt; forward(key, value));
+ * JsonTuples.toTuples(reader, assembler::add);
+ * assembler.finish();
+ * </pre>
+ * An assembler is not thread-safe.
+ */
+public class TupleAssembler {
+
+  private final BiConsumer<String, JsonElement> listener;
+  private final TupleTreeBuilder builder;
+
+  // top-level key whose value is being built, or null if there is none
+  private String currentKey = null;
+  private long completedCount = 0L;
+  private boolean finished = false;
+
+  public TupleAssembler(BiConsumer<String, JsonElement> listener) {
+    this(listener, Constants.UNLIMITED_DEPTH);
+  }
+
+  /**
+   * @param maxDepth maximum number of key paths of each tuple.
+   */
+  public TupleAssembler(BiConsumer<String, JsonElement> listener, int maxDepth) {
+    this.listener = Objects.requireNonNull(listener);
+    this.builder = new TupleTreeBuilder(maxDepth);
+    builder.clear();
+  }
+
+  /**
+   * Adds {@code tuple}, and passes the previous top-level value to the listener if the tuple starts a new one.
+   *
+   * @throws IllegalArgumentException if the tuple has more key paths than the max depth.
+   * @throws IllegalStateException if the assembler has been finished, or the tuple is not consistent with the
+   * previous tuples.
+   */
+  public void add(JsonTuple tuple) {
+    checkState(!finished, "Assembler has been finished");
+    List<KeyPath> paths = tuple.getPaths();
+    String key = paths.get(0).getNullableName();
+    if (currentKey == null || !currentKey.equals(key)) {
+      if (currentKey != null) {
+        complete();
+      }
+      builder.reset();
+      currentKey = key;
+    }
+    builder.add(tuple);
+  }
+
+  /**
+   * Passes the last top-level value to the listener. No tuple can be added afterwards.
+   */
+  public void finish() {
+    if (finished) {
+      return;
+    }
+    if (currentKey != null) {
+      complete();
+    }
+    finished = true;
+  }
+
+  /**
+   * @return the number of top-level values that have been passed to the listener.
+   */
+  public long getCompletedCount() {
+    return completedCount;
+  }
+
+  private void complete() {
+    String key = currentKey;
+    JsonElement value = builder.build().get(key);
+    // release the value before it is passed on, so that it can be collected once the listener is done with it
+    builder.clear();
+    currentKey = null;
+    completedCount++;
+    listener.accept(key, value);
+  }
+
+  private static void checkState(boolean expression, String message) {
+    if (!expression) {
+      throw new IllegalStateException(message);
+    }
+  }
+
+}
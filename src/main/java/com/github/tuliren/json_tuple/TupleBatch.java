@@ -0,0 +1,547 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Columnar container of tuples, which keeps each field of the tuples in a primitive array instead of one
+ * {@link JsonTuple} per row:
+ * <ul>
+ *   <li>path id of each row in a {@link PathDictionary};</li>
+ *   <li>value code of each row, which combines the {@link ValueType}, the {@link NumberType} and the boolean value
+ *   like {@link TupleFormat};</li>
+ *   <li>long value, or raw bits of double value, or offset and length of string value in the string arena;</li>
+ *   <li>characters of all string values and big numbers in one arena.</li>
+ * </ul>
+ * The select methods scan the columns in tight loops without creating tuples, and write the matching row numbers
+ * to a selection array. Rows can be read with a reusable {@link Row} view.
+ * <p>
+ * A batch is not thread-safe, but batches that share the same dictionary can be filled concurrently.
+ */
+public class TupleBatch implements Iterable<TupleBatch.Row> {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private static final ValueType[] VALUE_TYPES = new ValueType[TupleFormat.BIG_DECIMAL + 1];
+
+  static {
+    VALUE_TYPES[TupleFormat.STRING] = ValueType.JSON_STRING;
+    VALUE_TYPES[TupleFormat.FALSE] = ValueType.JSON_BOOLEAN;
+    VALUE_TYPES[TupleFormat.TRUE] = ValueType.JSON_BOOLEAN;
+    VALUE_TYPES[TupleFormat.NULL] = ValueType.JSON_NULL;
+    VALUE_TYPES[TupleFormat.EMPTY] = ValueType.JSON_EMPTY;
+    VALUE_TYPES[TupleFormat.LONG] = ValueType.JSON_NUMBER;
+    VALUE_TYPES[TupleFormat.DOUBLE] = ValueType.JSON_NUMBER;
+    VALUE_TYPES[TupleFormat.BIG_INTEGER] = ValueType.JSON_NUMBER;
+    VALUE_TYPES[TupleFormat.BIG_DECIMAL] = ValueType.JSON_NUMBER;
+  }
+
+  private final PathDictionary dictionary;
+
+  private int size = 0;
+  private int[] pathIds;
+  private byte[] valueCodes;
+  private long[] values;
+  private char[] arena;
+  private int arenaLength = 0;
+
+  public TupleBatch(PathDictionary dictionary) {
+    this(dictionary, INITIAL_CAPACITY);
+  }
+
+  public TupleBatch(PathDictionary dictionary, int capacity) {
+    checkArgument(capacity > 0, "Capacity must be positive: " + capacity);
+    this.dictionary = dictionary;
+    this.pathIds = new int[capacity];
+    this.valueCodes = new byte[capacity];
+    this.values = new long[capacity];
+    this.arena = new char[capacity * 8];
+  }
+
+  /**
+   * @return a batch with the tuples of {@code json}, whose paths are added to {@code dictionary}.
+   */
+  public static TupleBatch of(JsonObject json, PathDictionary dictionary) {
+    TupleBatch batch = new TupleBatch(dictionary);
+    batch.add(json);
+    return batch;
+  }
+
+  /**
+   * Appends the tuples of {@code json} in the order of {@link JsonTuples#toTupleList}.
+   */
+  public void add(JsonObject json) {
+    TupleCursor cursor = new TupleCursor();
+    cursor.reset(KeyPathList.EMPTY, json);
+    for (JsonTuple tuple = cursor.next(); tuple != null; tuple = cursor.next()) {
+      add(tuple);
+    }
+  }
+
+  public void add(JsonTuple tuple) {
+    ensureCapacity(size + 1);
+    pathIds[size] = dictionary.getOrAddId(tuple.getPaths());
+    switch (tuple.getType()) {
+      case JSON_STRING:
+        valueCodes[size] = TupleFormat.STRING;
+        values[size] = addString(tuple.getValue());
+        break;
+      case JSON_BOOLEAN:
+        valueCodes[size] = (byte)(tuple.getBooleanValue() ? TupleFormat.TRUE : TupleFormat.FALSE);
+        break;
+      case JSON_NULL:
+        valueCodes[size] = TupleFormat.NULL;
+        break;
+      case JSON_EMPTY:
+        valueCodes[size] = TupleFormat.EMPTY;
+        break;
+      case JSON_NUMBER:
+        addNumber(tuple);
+        break;
+      default:
+        throw new IllegalArgumentException("Unexpected value type: " + tuple.getType().name());
+    }
+    size++;
+  }
+
+  /**
+   * @return the json object built from all rows, which must be the tuples of one json object in their original order.
+   */
+  public JsonObject toJsonObject() {
+    return toJsonObject(0, size);
+  }
+
+  /**
+   * @return the json object built from rows {@code fromRow} (inclusive) to {@code toRow} (exclusive).
+   */
+  public JsonObject toJsonObject(int fromRow, int toRow) {
+    checkArgument(fromRow >= 0 && fromRow <= toRow && toRow <= size, "Invalid row range: [" + fromRow + ", " + toRow + ")");
+    TupleTreeBuilder builder = new TupleTreeBuilder();
+    for (int row = fromRow; row < toRow; row++) {
+      builder.add(getTuple(row));
+    }
+    return builder.build();
+  }
+
+  public PathDictionary getDictionary() {
+    return dictionary;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Removes all rows and keeps the allocated columns.
+   */
+  public void clear() {
+    size = 0;
+    arenaLength = 0;
+  }
+
+  public int getPathId(int row) {
+    checkRow(row);
+    return pathIds[row];
+  }
+
+  public List<KeyPath> getPaths(int row) {
+    return dictionary.getPaths(getPathId(row));
+  }
+
+  public ValueType getType(int row) {
+    checkRow(row);
+    return VALUE_TYPES[valueCodes[row]];
+  }
+
+  /**
+   * @return the number type of the number in {@code row}, or null if the row is not a number.
+   */
+  public NumberType getNumberType(int row) {
+    checkRow(row);
+    switch (valueCodes[row]) {
+      case TupleFormat.LONG:
+        return NumberType.LONG;
+      case TupleFormat.DOUBLE:
+        return NumberType.DOUBLE;
+      case TupleFormat.BIG_INTEGER:
+        return NumberType.BIG_INTEGER;
+      case TupleFormat.BIG_DECIMAL:
+        return NumberType.BIG_DECIMAL;
+      default:
+        return null;
+    }
+  }
+
+  public boolean getBooleanValue(int row) {
+    checkRow(row);
+    checkArgument(valueCodes[row] == TupleFormat.TRUE || valueCodes[row] == TupleFormat.FALSE, "Row " + row + " is not a boolean");
+    return valueCodes[row] == TupleFormat.TRUE;
+  }
+
+  /**
+   * @return the number value, which may be truncated or rounded like {@link JsonTuple#getLongValue()}.
+   * @throws IllegalArgumentException if the row is not a number.
+   */
+  public long getLongValue(int row) {
+    checkRow(row);
+    switch (valueCodes[row]) {
+      case TupleFormat.LONG:
+        return values[row];
+      case TupleFormat.DOUBLE:
+        return (long)Double.longBitsToDouble(values[row]);
+      case TupleFormat.BIG_INTEGER:
+      case TupleFormat.BIG_DECIMAL:
+        return getTuple(row).getLongValue();
+      default:
+        throw new IllegalArgumentException("Row " + row + " is not a number");
+    }
+  }
+
+  /**
+   * @return the number value, which may be rounded like {@link JsonTuple#getDoubleValue()}.
+   * @throws IllegalArgumentException if the row is not a number.
+   */
+  public double getDoubleValue(int row) {
+    checkRow(row);
+    switch (valueCodes[row]) {
+      case TupleFormat.LONG:
+        return values[row];
+      case TupleFormat.DOUBLE:
+        return Double.longBitsToDouble(values[row]);
+      case TupleFormat.BIG_INTEGER:
+      case TupleFormat.BIG_DECIMAL:
+        return Double.parseDouble(getArenaString(values[row]));
+      default:
+        throw new IllegalArgumentException("Row " + row + " is not a number");
+    }
+  }
+
+  /**
+   * @return the value of {@code row} in the same form as {@link JsonTuple#getValue()}.
+   */
+  public String getValue(int row) {
+    checkRow(row);
+    switch (valueCodes[row]) {
+      case TupleFormat.STRING:
+      case TupleFormat.BIG_INTEGER:
+      case TupleFormat.BIG_DECIMAL:
+        return getArenaString(values[row]);
+      case TupleFormat.FALSE:
+        return "false";
+      case TupleFormat.TRUE:
+        return "true";
+      case TupleFormat.LONG:
+        return Long.toString(values[row]);
+      case TupleFormat.DOUBLE:
+        return Double.toString(Double.longBitsToDouble(values[row]));
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * @return a new tuple of {@code row}.
+   */
+  public JsonTuple getTuple(int row) {
+    List<KeyPath> paths = getPaths(row);
+    switch (valueCodes[row]) {
+      case TupleFormat.STRING:
+        return JsonTuple.createString(paths, getArenaString(values[row]));
+      case TupleFormat.FALSE:
+        return JsonTuple.createBoolean(paths, false);
+      case TupleFormat.TRUE:
+        return JsonTuple.createBoolean(paths, true);
+      case TupleFormat.NULL:
+        return JsonTuple.createNull(paths);
+      case TupleFormat.EMPTY:
+        return JsonTuple.createEmpty(paths);
+      case TupleFormat.LONG:
+        return JsonTuple.createLong(paths, values[row]);
+      case TupleFormat.DOUBLE:
+        return JsonTuple.createDouble(paths, Double.longBitsToDouble(values[row]));
+      case TupleFormat.BIG_INTEGER:
+        return JsonTuple.createNumber(paths, getArenaString(values[row]), NumberType.BIG_INTEGER);
+      case TupleFormat.BIG_DECIMAL:
+        return JsonTuple.createNumber(paths, getArenaString(values[row]), NumberType.BIG_DECIMAL);
+      default:
+        throw new IllegalStateException("Unexpected value code: " + valueCodes[row]);
+    }
+  }
+
+  /**
+   * Writes the rows whose paths match {@code pattern} to {@code selection}.
+   *
+   * @param selection which must have at least {@link #size()} elements.
+   * @return the number of selected rows.
+   */
+  public int selectPaths(PathPattern pattern, int[] selection) {
+    // match each path once, so the scan only looks up the path id
+    int pathCount = dictionary.size();
+    boolean[] matches = new boolean[pathCount];
+    for (int id = 0; id < pathCount; id++) {
+      matches[id] = pattern.matches(dictionary.getPaths(id));
+    }
+    return selectPathIds(matches, selection);
+  }
+
+  /**
+   * Writes the rows whose path id is {@code pathId} to {@code selection}.
+   *
+   * @param selection which must have at least {@link #size()} elements.
+   * @return the number of selected rows.
+   */
+  public int selectPathId(int pathId, int[] selection) {
+    checkSelection(selection);
+    int[] pathIds = this.pathIds;
+    int count = 0;
+    for (int row = 0; row < size; row++) {
+      selection[count] = row;
+      count += pathIds[row] == pathId ? 1 : 0;
+    }
+    return count;
+  }
+
+  /**
+   * Writes the rows of {@code type} to {@code selection}.
+   *
+   * @param selection which must have at least {@link #size()} elements.
+   * @return the number of selected rows.
+   */
+  public int selectType(ValueType type, int[] selection) {
+    checkSelection(selection);
+    boolean[] matches = new boolean[VALUE_TYPES.length];
+    for (int code = 0; code < VALUE_TYPES.length; code++) {
+      matches[code] = VALUE_TYPES[code] == type;
+    }
+    byte[] valueCodes = this.valueCodes;
+    int count = 0;
+    for (int row = 0; row < size; row++) {
+      selection[count] = row;
+      count += matches[valueCodes[row]] ? 1 : 0;
+    }
+    return count;
+  }
+
+  /**
+   * Writes the rows of long numbers between {@code min} and {@code max} (both inclusive) to {@code selection}.
+   * Doubles and big numbers are not selected.
+   *
+   * @param selection which must have at least {@link #size()} elements.
+   * @return the number of selected rows.
+   */
+  public int selectLongRange(long min, long max, int[] selection) {
+    checkSelection(selection);
+    byte[] valueCodes = this.valueCodes;
+    long[] values = this.values;
+    int count = 0;
+    for (int row = 0; row < size; row++) {
+      long value = values[row];
+      selection[count] = row;
+      count += valueCodes[row] == TupleFormat.LONG & value >= min & value <= max ? 1 : 0;
+    }
+    return count;
+  }
+
+  /**
+   * Writes the rows of long or double numbers between {@code min} and {@code max} (both inclusive) to
+   * {@code selection}. Big numbers are not selected.
+   *
+   * @param selection which must have at least {@link #size()} elements.
+   * @return the number of selected rows.
+   */
+  public int selectDoubleRange(double min, double max, int[] selection) {
+    checkSelection(selection);
+    byte[] valueCodes = this.valueCodes;
+    long[] values = this.values;
+    int count = 0;
+    for (int row = 0; row < size; row++) {
+      byte valueCode = valueCodes[row];
+      long bits = values[row];
+      double value = valueCode == TupleFormat.LONG ? (double)bits : Double.longBitsToDouble(bits);
+      selection[count] = row;
+      count += (valueCode == TupleFormat.LONG | valueCode == TupleFormat.DOUBLE) & value >= min & value <= max ? 1 : 0;
+    }
+    return count;
+  }
+
+  /**
+   * @return an iterator over all rows, which returns the same {@link Row} view moved to each row.
+   */
+  @Override
+  public Iterator<Row> iterator() {
+    Row view = new Row();
+    return new Iterator<Row>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public Row next() {
+        if (next >= size) {
+          throw new NoSuchElementException();
+        }
+        view.row = next++;
+        return view;
+      }
+    };
+  }
+
+  /**
+   * @return a view of {@code row}, which can be moved to other rows with {@link Row#moveTo(int)}.
+   */
+  public Row getRow(int row) {
+    Row view = new Row();
+    view.moveTo(row);
+    return view;
+  }
+
+  /**
+   * Mutable view of one row of the batch. Values are read from the columns of the batch, and nothing is copied
+   * until {@link #toTuple()} is called.
+   */
+  public final class Row {
+
+    private int row = -1;
+
+    private Row() {
+    }
+
+    public Row moveTo(int row) {
+      checkRow(row);
+      this.row = row;
+      return this;
+    }
+
+    public int getRowNumber() {
+      return row;
+    }
+
+    public int getPathId() {
+      return TupleBatch.this.getPathId(row);
+    }
+
+    public List<KeyPath> getPaths() {
+      return TupleBatch.this.getPaths(row);
+    }
+
+    public ValueType getType() {
+      return TupleBatch.this.getType(row);
+    }
+
+    public NumberType getNumberType() {
+      return TupleBatch.this.getNumberType(row);
+    }
+
+    public String getValue() {
+      return TupleBatch.this.getValue(row);
+    }
+
+    public boolean getBooleanValue() {
+      return TupleBatch.this.getBooleanValue(row);
+    }
+
+    public long getLongValue() {
+      return TupleBatch.this.getLongValue(row);
+    }
+
+    public double getDoubleValue() {
+      return TupleBatch.this.getDoubleValue(row);
+    }
+
+    public JsonTuple toTuple() {
+      return TupleBatch.this.getTuple(row);
+    }
+
+    @Override
+    public String toString() {
+      return row < 0 ? "Row{}" : toTuple().toString();
+    }
+
+  }
+
+  private void addNumber(JsonTuple tuple) {
+    switch (tuple.getNumberType()) {
+      case LONG:
+        valueCodes[size] = TupleFormat.LONG;
+        values[size] = tuple.getLongValue();
+        break;
+      case DOUBLE:
+        valueCodes[size] = TupleFormat.DOUBLE;
+        values[size] = Double.doubleToRawLongBits(tuple.getDoubleValue());
+        break;
+      case BIG_INTEGER:
+        valueCodes[size] = TupleFormat.BIG_INTEGER;
+        values[size] = addString(tuple.getValue());
+        break;
+      case BIG_DECIMAL:
+        valueCodes[size] = TupleFormat.BIG_DECIMAL;
+        values[size] = addString(tuple.getValue());
+        break;
+      default:
+        throw new IllegalArgumentException("Unexpected number type: " + tuple.getNumberType().name());
+    }
+  }
+
+  /**
+   * @return offset of the string in the arena in the high 32 bits, and its length in the low 32 bits.
+   */
+  private long addString(String value) {
+    int length = value.length();
+    if (arenaLength + length > arena.length) {
+      checkArgument(arenaLength + length > 0, "String arena is full");
+      arena = Arrays.copyOf(arena, Math.max(arenaLength + length, arena.length * 2));
+    }
+    value.getChars(0, length, arena, arenaLength);
+    long offsetAndLength = (long)arenaLength << 32 | length;
+    arenaLength += length;
+    return offsetAndLength;
+  }
+
+  private String getArenaString(long offsetAndLength) {
+    return new String(arena, (int)(offsetAndLength >>> 32), (int)offsetAndLength);
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > pathIds.length) {
+      int newCapacity = Math.max(capacity, pathIds.length * 2);
+      pathIds = Arrays.copyOf(pathIds, newCapacity);
+      valueCodes = Arrays.copyOf(valueCodes, newCapacity);
+      values = Arrays.copyOf(values, newCapacity);
+    }
+  }
+
+  private void checkRow(int row) {
+    if (row < 0 || row >= size) {
+      throw new IndexOutOfBoundsException("Row: " + row + ", size: " + size);
+    }
+  }
+
+  private void checkSelection(int[] selection) {
+    checkArgument(selection.length >= size, "Selection must have at least " + size + " elements: " + selection.length);
+  }
+
+  private int selectPathIds(boolean[] matches, int[] selection) {
+    checkSelection(selection);
+    int[] pathIds = this.pathIds;
+    int count = 0;
+    for (int row = 0; row < size; row++) {
+      selection[count] = row;
+      count += matches[pathIds[row]] ? 1 : 0;
+    }
+    return count;
+  }
+
+  private static void checkArgument(boolean expression, String message) {
+    if (!expression) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+}
@@ -0,0 +1,156 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Tuples that are inserted, updated and deleted between two versions of a json object.
+ */
+public final class TupleChangeset {
+
+  private final List<JsonTuple> inserted;
+  private final List<Update> updated;
+  private final List<JsonTuple> deleted;
+
+  TupleChangeset(List<JsonTuple> inserted, List<Update> updated, List<JsonTuple> deleted) {
+    this.inserted = Collections.unmodifiableList(inserted);
+    this.updated = Collections.unmodifiableList(updated);
+    this.deleted = Collections.unmodifiableList(deleted);
+  }
+
+  /**
+   * @return a changeset of the given tuples, e.g. to apply changes that are not computed by {@link TupleDiff}.
+   */
+  public static TupleChangeset of(List<JsonTuple> inserted, List<Update> updated, List<JsonTuple> deleted) {
+    return new TupleChangeset(new ArrayList<>(inserted), new ArrayList<>(updated), new ArrayList<>(deleted));
+  }
+
+  /**
+   * Applies the changes to {@code json} in place, which is expected to be the old version of the changeset. Only the
+   * key paths of the changed tuples are visited, and arrays that have removed elements are compacted.
+   * <p>
+   * Arrays grow to the sizes in the key paths of the new tuples, and shrink by the removed elements. Objects and
+   * arrays that become empty after their tuples are removed are removed from their parents.
+   *
+   * @return {@code json}
+   */
+  public JsonObject applyTo(JsonObject json) {
+    new ChangesetApplier(json).apply(this);
+    return json;
+  }
+
+  /**
+   * @return tuples that only exist in the new version.
+   */
+  public List<JsonTuple> getInserted() {
+    return inserted;
+  }
+
+  /**
+   * @return tuples that exist in both versions with a different value, value type, or array sizes in their key paths.
+   */
+  public List<Update> getUpdated() {
+    return updated;
+  }
+
+  /**
+   * @return tuples that only exist in the old version.
+   */
+  public List<JsonTuple> getDeleted() {
+    return deleted;
+  }
+
+  public boolean isEmpty() {
+    return inserted.isEmpty() && updated.isEmpty() && deleted.isEmpty();
+  }
+
+  /**
+   * @return total number of changed tuples.
+   */
+  public int size() {
+    return inserted.size() + updated.size() + deleted.size();
+  }
+
+  @Override
+  public String toString() {
+    return "TupleChangeset{inserted=" + inserted + ", updated=" + updated + ", deleted=" + deleted + "}";
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(inserted, updated, deleted);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof TupleChangeset)) {
+      return false;
+    }
+    TupleChangeset that = (TupleChangeset)other;
+    return inserted.equals(that.inserted) && updated.equals(that.updated) && deleted.equals(that.deleted);
+  }
+
+  /**
+   * Old and new versions of a tuple at the same key paths, ignoring array sizes.
+   */
+  public static final class Update {
+
+    private final JsonTuple before;
+    private final JsonTuple after;
+
+    Update(JsonTuple before, JsonTuple after) {
+      this.before = before;
+      this.after = after;
+    }
+
+    public static Update of(JsonTuple before, JsonTuple after) {
+      return new Update(before, after);
+    }
+
+    public JsonTuple getBefore() {
+      return before;
+    }
+
+    public JsonTuple getAfter() {
+      return after;
+    }
+
+    /**
+     * @return true if only the array sizes in the key paths have changed.
+     */
+    public boolean isPathOnly() {
+      return before.getType() == after.getType() && Objects.equals(before.getValue(), after.getValue());
+    }
+
+    @Override
+    public String toString() {
+      return before + " -> " + after;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(before, after);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof Update)) {
+        return false;
+      }
+      Update that = (Update)other;
+      return before.equals(that.before) && after.equals(that.after);
+    }
+
+  }
+
+}
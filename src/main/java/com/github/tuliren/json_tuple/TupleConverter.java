@@ -0,0 +1,101 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Converts json objects from and to tuples like {@link JsonTuples}, but owns scratch state that is reused across
+ * conversions: the frame stack of the traversal, the container stack of the reconstruction, and a string builder
+ * for full paths. Repeated conversions then allocate little more than their output.
+ * <p>
+ * A converter is not thread-safe. Hold one per thread, e.g. in a {@link ThreadLocal}, or borrow one from a pool.
+ */
+public class TupleConverter {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final TupleConverterConfig config;
+  private final TupleCursor cursor;
+  private final TupleTreeBuilder builder;
+  private final StringBuilder pathBuilder = new StringBuilder();
+  // number of tuples of the last conversion, which is the initial capacity of the next output list
+  private int lastSize = INITIAL_CAPACITY;
+
+  public TupleConverter() {
+    this(TupleConverterConfig.DEFAULT);
+  }
+
+  public TupleConverter(TupleConverterConfig config) {
+    this.config = config;
+    this.cursor = new TupleCursor(config.getMaxDepth(), config.getNumberPolicy());
+    this.builder = new TupleTreeBuilder(config.getMaxDepth());
+  }
+
+  public TupleConverterConfig getConfig() {
+    return config;
+  }
+
+  /**
+   * @return a list of {@link JsonTuple} representing the input {@code json}.
+   */
+  public List<JsonTuple> toTupleList(JsonObject json) {
+    List<JsonTuple> tuples = new ArrayList<>(lastSize);
+    toTupleList(json, tuples);
+    return tuples;
+  }
+
+  /**
+   * Appends the tuples of {@code json} to {@code output}, which can be cleared and reused by the caller.
+   */
+  public void toTupleList(JsonObject json, List<JsonTuple> output) {
+    int start = output.size();
+    try {
+      cursor.reset(KeyPathList.EMPTY, json);
+      for (JsonTuple tuple = cursor.next(); tuple != null; tuple = cursor.next()) {
+        output.add(tuple);
+      }
+    } finally {
+      // release the json object held by the frames
+      cursor.clear();
+    }
+    lastSize = Math.max(output.size() - start, 1);
+  }
+
+  /**
+   * @return a json object from input {@code tuples}, which must be in the order they are generated.
+   */
+  public JsonObject fromTupleList(List<JsonTuple> tuples) {
+    builder.reset();
+    try {
+      for (JsonTuple tuple : tuples) {
+        builder.add(tuple);
+      }
+      return builder.build();
+    } finally {
+      builder.clear();
+    }
+  }
+
+  /**
+   * @return the full path of {@code tuple} with the separators of the config.
+   */
+  public String toFullPath(JsonTuple tuple) {
+    if (config.getPathSeparator() == Constants.PATH_SEPARATOR_CHAR &&
+        config.getListPathSeparator() == Constants.LIST_PATH_SEPARATOR_CHAR) {
+      return tuple.getFullPaths();
+    }
+    pathBuilder.setLength(0);
+    KeyPaths.appendTo(pathBuilder, tuple.getPaths(), config.getPathSeparator(), config.getListPathSeparator());
+    return pathBuilder.toString();
+  }
+
+  /**
+   * @return a tuple whose full path is in the format of {@link TupleConverter#toFullPath}.
+   */
+  public JsonTuple createTuple(String fullPath, ValueType type, String value) {
+    return JsonTuple.create(KeyPaths.parse(fullPath, config.getPathSeparator(), config.getListPathSeparator()), type, value);
+  }
+
+}
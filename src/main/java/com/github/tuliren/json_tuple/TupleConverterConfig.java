@@ -0,0 +1,110 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.Objects;
+
+/**
+ * Immutable options of a {@link TupleConverter}. Start from {@link TupleConverterConfig#DEFAULT} and change options with
+ * the {@code withXxx} methods, each of which returns a new config.
+ */
+public final class TupleConverterConfig {
+
+  /**
+   * Separators of {@link JsonTuple#getFullPaths}, no depth limit, and {@link NumberPolicy#EXACT}.
+   */
+  public static final TupleConverterConfig DEFAULT = new TupleConverterConfig(
+      Constants.PATH_SEPARATOR_CHAR, Constants.LIST_PATH_SEPARATOR_CHAR, Constants.UNLIMITED_DEPTH, NumberPolicy.EXACT
+  );
+
+  private final char pathSeparator;
+  private final char listPathSeparator;
+  private final int maxDepth;
+  private final NumberPolicy numberPolicy;
+
+  private TupleConverterConfig(char pathSeparator, char listPathSeparator, int maxDepth, NumberPolicy numberPolicy) {
+    if (pathSeparator == listPathSeparator) {
+      throw new IllegalArgumentException("Path separator and list path separator must be different: " + pathSeparator);
+    }
+    if (Character.isDigit(pathSeparator) || Character.isDigit(listPathSeparator)) {
+      throw new IllegalArgumentException("Separators cannot be digits: " + pathSeparator + ", " + listPathSeparator);
+    }
+    if (maxDepth <= 0) {
+      throw new IllegalArgumentException("Max depth must be positive: " + maxDepth);
+    }
+    this.pathSeparator = pathSeparator;
+    this.listPathSeparator = listPathSeparator;
+    this.maxDepth = maxDepth;
+    this.numberPolicy = Objects.requireNonNull(numberPolicy);
+  }
+
+  /**
+   * @return separator between the key paths of a full path, which is '.' by default.
+   */
+  public char getPathSeparator() {
+    return pathSeparator;
+  }
+
+  /**
+   * @return separator between the name, index and size of an array key path, which is '|' by default.
+   */
+  public char getListPathSeparator() {
+    return listPathSeparator;
+  }
+
+  /**
+   * @return maximum number of key paths of each tuple.
+   */
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  public NumberPolicy getNumberPolicy() {
+    return numberPolicy;
+  }
+
+  public TupleConverterConfig withPathSeparator(char pathSeparator) {
+    return new TupleConverterConfig(pathSeparator, listPathSeparator, maxDepth, numberPolicy);
+  }
+
+  public TupleConverterConfig withListPathSeparator(char listPathSeparator) {
+    return new TupleConverterConfig(pathSeparator, listPathSeparator, maxDepth, numberPolicy);
+  }
+
+  public TupleConverterConfig withMaxDepth(int maxDepth) {
+    return new TupleConverterConfig(pathSeparator, listPathSeparator, maxDepth, numberPolicy);
+  }
+
+  public TupleConverterConfig withNumberPolicy(NumberPolicy numberPolicy) {
+    return new TupleConverterConfig(pathSeparator, listPathSeparator, maxDepth, numberPolicy);
+  }
+
+  @Override
+  public String toString() {
+    return "TupleConverterConfig{" +
+        "pathSeparator=" + pathSeparator +
+        ", listPathSeparator=" + listPathSeparator +
+        ", maxDepth=" + maxDepth +
+        ", numberPolicy=" + numberPolicy +
+        "}";
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(pathSeparator, listPathSeparator, maxDepth, numberPolicy);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof TupleConverterConfig)) {
+      return false;
+    }
+    TupleConverterConfig that = (TupleConverterConfig)other;
+    return pathSeparator == that.pathSeparator &&
+        listPathSeparator == that.listPathSeparator &&
+        maxDepth == that.maxDepth &&
+        numberPolicy == that.numberPolicy;
+  }
+
+}
@@ -0,0 +1,297 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Cursor that converts a json object to tuples one at a time, in the same order as {@link JsonTuples#toTupleList}.
+ * <p>
+ * The objects and arrays that are being visited are kept in an explicit stack of frames instead of the call stack.
+ * The frames are reused when the cursor is reset, so a cursor can convert many json objects.
+ * <p>
+ * When a {@link Splitter} is given, objects and arrays with more entries or elements than the split threshold are
+ * passed to it instead of being visited, so that they can be converted separately, e.g. in parallel.
+ */
+final class TupleCursor {
+
+  private static final int INITIAL_DEPTH = 8;
+
+  private final int maxDepth;
+  private final NumberPolicy numberPolicy;
+  private final int splitThreshold;
+  private final Splitter splitter;
+  private Frame[] frames = new Frame[INITIAL_DEPTH];
+  private int depth = 0;
+  // tuple of an empty root object, which is returned before anything else
+  private JsonTuple pending = null;
+
+  TupleCursor() {
+    this(Constants.UNLIMITED_DEPTH);
+  }
+
+  /**
+   * @param maxDepth maximum number of key paths of each tuple.
+   */
+  TupleCursor(int maxDepth) {
+    this(maxDepth, NumberPolicy.EXACT);
+  }
+
+  TupleCursor(int maxDepth, NumberPolicy numberPolicy) {
+    this(maxDepth, numberPolicy, Integer.MAX_VALUE, null);
+  }
+
+  /**
+   * @param splitThreshold objects and arrays with more entries or elements than this are passed to {@code splitter}.
+   */
+  TupleCursor(int maxDepth, NumberPolicy numberPolicy, int splitThreshold, Splitter splitter) {
+    if (maxDepth <= 0) {
+      throw new IllegalArgumentException("Max depth must be positive: " + maxDepth);
+    }
+    this.maxDepth = maxDepth;
+    this.numberPolicy = numberPolicy;
+    this.splitThreshold = splitThreshold;
+    this.splitter = splitter;
+  }
+
+  /**
+   * Starts converting {@code json} under {@code parentPaths}.
+   */
+  void reset(KeyPathList parentPaths, JsonObject json) {
+    clear();
+    if (json.size() == 0) {
+      pending = JsonTuple.createEmpty(parentPaths);
+    } else {
+      pushObject(parentPaths, json);
+    }
+  }
+
+  /**
+   * Starts converting one entry of an object under {@code parentPaths}.
+   */
+  void reset(KeyPathList parentPaths, String key, JsonElement jsonElement) {
+    clear();
+    pending = visitEntry(parentPaths, key, jsonElement);
+  }
+
+  /**
+   * Starts converting the elements of an array under {@code parentPaths}.
+   */
+  void reset(KeyPathList parentPaths, String arrayName, JsonArray jsonArray) {
+    clear();
+    pending = visitArray(parentPaths, arrayName, jsonArray);
+  }
+
+  /**
+   * Starts converting {@code entries} of an object under {@code parentPaths}, e.g. a range of its entries.
+   */
+  void reset(KeyPathList parentPaths, Iterator<Map.Entry<String, JsonElement>> entries) {
+    clear();
+    push(parentPaths).entries = entries;
+  }
+
+  /**
+   * Starts converting the elements from {@code from} (inclusive) to {@code to} (exclusive) of an array under
+   * {@code parentPaths}.
+   */
+  void reset(KeyPathList parentPaths, String arrayName, JsonArray jsonArray, int from, int to) {
+    clear();
+    pushArray(parentPaths, arrayName, jsonArray, from, to);
+  }
+
+  /**
+   * @return the next tuple, or null if all tuples have been returned.
+   * @throws IllegalArgumentException if a tuple would have more key paths than the max depth.
+   */
+  JsonTuple next() {
+    if (pending != null) {
+      JsonTuple tuple = pending;
+      pending = null;
+      return tuple;
+    }
+
+    while (depth > 0) {
+      Frame frame = frames[depth - 1];
+      JsonTuple tuple;
+      if (frame.entries != null) {
+        if (!frame.entries.hasNext()) {
+          pop();
+          continue;
+        }
+        Map.Entry<String, JsonElement> entry = frame.entries.next();
+        tuple = visitEntry(frame.paths, entry.getKey(), entry.getValue());
+      } else {
+        if (frame.index == frame.end) {
+          pop();
+          continue;
+        }
+        int index = frame.index++;
+        KeyPathList childPaths = frame.paths.append(ArrayKeyPath.create(frame.arrayName, index, frame.size));
+        tuple = visitElement(childPaths, frame.array.get(index));
+      }
+      if (tuple != null) {
+        return tuple;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the tuple of a primitive, null, or empty entry, or null if a frame is pushed for the entry.
+   */
+  private JsonTuple visitEntry(KeyPathList parentPaths, String key, JsonElement jsonElement) {
+    if (jsonElement.isJsonArray()) {
+      return visitArray(parentPaths, key, jsonElement.getAsJsonArray());
+    }
+    // sibling tuples share the parent paths
+    KeyPathList childPaths = parentPaths.append(new ElementKeyPath(key));
+    if (jsonElement.isJsonObject()) {
+      return visitObject(childPaths, jsonElement.getAsJsonObject());
+    }
+    return visitValue(childPaths, jsonElement);
+  }
+
+  private JsonTuple visitElement(KeyPathList childPaths, JsonElement jsonElement) {
+    if (jsonElement.isJsonArray()) {
+      return visitArray(childPaths, null, jsonElement.getAsJsonArray());
+    }
+    if (jsonElement.isJsonObject()) {
+      return visitObject(childPaths, jsonElement.getAsJsonObject());
+    }
+    return visitValue(childPaths, jsonElement);
+  }
+
+  private JsonTuple visitObject(KeyPathList paths, JsonObject json) {
+    if (json.size() == 0) {
+      return JsonTuple.createEmpty(paths);
+    }
+    if (json.size() > splitThreshold) {
+      checkDepth(paths);
+      splitter.splitObject(paths, json);
+      return null;
+    }
+    pushObject(paths, json);
+    return null;
+  }
+
+  private JsonTuple visitArray(KeyPathList parentPaths, String arrayName, JsonArray jsonArray) {
+    if (jsonArray.size() == 0) {
+      checkDepth(parentPaths);
+      return JsonTuple.createEmpty(parentPaths.append(ArrayKeyPath.create(arrayName, 0, 0)));
+    }
+    if (jsonArray.size() > splitThreshold) {
+      checkDepth(parentPaths);
+      splitter.splitArray(parentPaths, arrayName, jsonArray);
+      return null;
+    }
+    pushArray(parentPaths, arrayName, jsonArray, 0, jsonArray.size());
+    return null;
+  }
+
+  private JsonTuple visitValue(KeyPathList paths, JsonElement jsonElement) {
+    if (jsonElement.isJsonPrimitive()) {
+      JsonPrimitive jsonPrimitive = jsonElement.getAsJsonPrimitive();
+      if (numberPolicy == NumberPolicy.DOUBLE && jsonPrimitive.isNumber()) {
+        return JsonTuple.createDouble(paths, jsonPrimitive.getAsDouble());
+      }
+      return JsonTuples.createPrimitiveTuple(paths, jsonPrimitive);
+    } else if (jsonElement.isJsonNull()) {
+      return JsonTuple.createNull(paths);
+    } else {
+      throw new IllegalArgumentException("Unexpected json element: " + jsonElement);
+    }
+  }
+
+  /**
+   * Checks that the children of {@code parentPaths} do not exceed the max depth.
+   */
+  private void checkDepth(KeyPathList parentPaths) {
+    if (parentPaths.size() >= maxDepth) {
+      throw new IllegalArgumentException("Json depth exceeds the max depth of " + maxDepth + ": " + parentPaths);
+    }
+  }
+
+  private void pushObject(KeyPathList paths, JsonObject json) {
+    push(paths).entries = json.entrySet().iterator();
+  }
+
+  private void pushArray(KeyPathList parentPaths, String arrayName, JsonArray jsonArray, int from, int to) {
+    Frame frame = push(parentPaths);
+    frame.arrayName = arrayName;
+    frame.array = jsonArray;
+    frame.index = from;
+    frame.end = to;
+    frame.size = jsonArray.size();
+  }
+
+  private Frame push(KeyPathList paths) {
+    // fail before visiting any child whose key paths would exceed the max depth
+    checkDepth(paths);
+    if (depth == frames.length) {
+      frames = Arrays.copyOf(frames, depth * 2);
+    }
+    Frame frame = frames[depth];
+    if (frame == null) {
+      frame = new Frame();
+      frames[depth] = frame;
+    }
+    depth++;
+    frame.paths = paths;
+    return frame;
+  }
+
+  private void pop() {
+    frames[--depth].clear();
+  }
+
+  /**
+   * Releases the objects and arrays that are being visited.
+   */
+  void clear() {
+    while (depth > 0) {
+      pop();
+    }
+    pending = null;
+  }
+
+  /**
+   * An object or array that is being visited.
+   */
+  private static final class Frame {
+    // parent paths of the entries or elements
+    KeyPathList paths;
+    // remaining entries of an object
+    Iterator<Map.Entry<String, JsonElement>> entries;
+    // elements of an array
+    String arrayName;
+    JsonArray array;
+    int index;
+    // index after the last element to visit
+    int end;
+    int size;
+
+    void clear() {
+      paths = null;
+      entries = null;
+      arrayName = null;
+      array = null;
+    }
+  }
+
+  /**
+   * Receives the objects and arrays that are larger than the split threshold, in the order they are reached.
+   */
+  interface Splitter {
+
+    void splitObject(KeyPathList paths, JsonObject json);
+
+    void splitArray(KeyPathList parentPaths, String arrayName, JsonArray jsonArray);
+
+  }
+
+}
@@ -0,0 +1,237 @@
+package com.github.tuliren.json_tuple;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes {@link JsonTuple}s written by {@link TupleEncoder}, from a {@link DataInput} or a {@link ByteBuffer}.
+ * Tuples are read one at a time, and tuples that share leading key paths share the same {@link KeyPathList} node.
+ * <p>
+ * Tuples encoded with a {@link PathDictionary} can only be decoded with the same dictionary, and their key paths are
+ * those in the dictionary.
+ */
+public class TupleDecoder {
+
+  private static final int INITIAL_DEPTH = 8;
+
+  private final DataInput input;
+  private final ByteBuffer buffer;
+  private final PathDictionary dictionary;
+
+  private boolean dictionaryEncoded = false;
+  private KeyPathList previousPaths = KeyPathList.EMPTY;
+  // scratch copy of the previous key paths, which new paths are read against
+  private KeyPath[] previousPathArray = new KeyPath[INITIAL_DEPTH];
+  private byte[] stringBuffer = new byte[64];
+  private boolean started = false;
+  private boolean finished = false;
+
+  public TupleDecoder(DataInput input) {
+    this(input, null);
+  }
+
+  public TupleDecoder(DataInput input, PathDictionary dictionary) {
+    this.input = input;
+    this.buffer = null;
+    this.dictionary = dictionary;
+  }
+
+  public TupleDecoder(ByteBuffer buffer) {
+    this(buffer, null);
+  }
+
+  public TupleDecoder(ByteBuffer buffer, PathDictionary dictionary) {
+    this.input = null;
+    this.buffer = buffer;
+    this.dictionary = dictionary;
+  }
+
+  /**
+   * @return the tuples decoded from {@code bytes}.
+   */
+  public static List<JsonTuple> decode(byte[] bytes) {
+    return decode(bytes, null);
+  }
+
+  /**
+   * @return the tuples decoded from {@code bytes}, whose key paths may be looked up from {@code dictionary}.
+   */
+  public static List<JsonTuple> decode(byte[] bytes, PathDictionary dictionary) {
+    TupleDecoder decoder = new TupleDecoder(new DataInputStream(new ByteArrayInputStream(bytes)), dictionary);
+    List<JsonTuple> tuples = new ArrayList<>();
+    try {
+      JsonTuple tuple = decoder.read();
+      while (tuple != null) {
+        tuples.add(tuple);
+        tuple = decoder.read();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return tuples;
+  }
+
+  /**
+   * @return the next tuple, or null when the end of the tuples has been reached.
+   * @throws IllegalArgumentException when the input is not in a supported format.
+   */
+  public JsonTuple read() throws IOException {
+    if (finished) {
+      return null;
+    }
+    start();
+
+    int valueCode = readUnsignedByte();
+    if (valueCode == TupleFormat.END) {
+      finished = true;
+      return null;
+    }
+
+    List<KeyPath> paths = dictionaryEncoded ? dictionary.getPaths(readVarInt()) : readPaths();
+
+    switch (valueCode) {
+      case TupleFormat.STRING:
+        return JsonTuple.createString(paths, readString());
+      case TupleFormat.FALSE:
+        return JsonTuple.createBoolean(paths, false);
+      case TupleFormat.TRUE:
+        return JsonTuple.createBoolean(paths, true);
+      case TupleFormat.NULL:
+        return JsonTuple.createNull(paths);
+      case TupleFormat.EMPTY:
+        return JsonTuple.createEmpty(paths);
+      case TupleFormat.LONG:
+        long value = readVarLong();
+        return JsonTuple.createLong(paths, (value >>> 1) ^ -(value & 1));
+      case TupleFormat.DOUBLE:
+        long bits = 0L;
+        for (int i = 0; i < 8; i++) {
+          bits = (bits << 8) | readUnsignedByte();
+        }
+        return JsonTuple.createDouble(paths, Double.longBitsToDouble(bits));
+      case TupleFormat.BIG_INTEGER:
+        return JsonTuple.createNumber(paths, readString(), NumberType.BIG_INTEGER);
+      case TupleFormat.BIG_DECIMAL:
+        return JsonTuple.createNumber(paths, readString(), NumberType.BIG_DECIMAL);
+      default:
+        throw new IllegalArgumentException("Unexpected value code: " + valueCode);
+    }
+  }
+
+  private void start() throws IOException {
+    if (started) {
+      return;
+    }
+    if (readByte() != TupleFormat.MAGIC_0 || readByte() != TupleFormat.MAGIC_1) {
+      throw new IllegalArgumentException("Input is not in the tuple format");
+    }
+    int version = readUnsignedByte();
+    if (version == TupleFormat.DICTIONARY_VERSION) {
+      if (dictionary == null) {
+        throw new IllegalArgumentException("Path dictionary is required to decode the tuples");
+      }
+      dictionaryEncoded = true;
+    } else if (version != TupleFormat.VERSION) {
+      throw new IllegalArgumentException("Unsupported tuple format version: " + version);
+    }
+    started = true;
+  }
+
+  private KeyPathList readPaths() throws IOException {
+    int pathCounts = readVarInt();
+    int shared = pathCounts >>> 4;
+    int newPathCount = pathCounts & TupleFormat.MAX_INLINE_PATH_COUNT;
+    if (newPathCount == TupleFormat.MAX_INLINE_PATH_COUNT) {
+      newPathCount = readVarInt();
+    }
+    if (shared > previousPaths.size()) {
+      throw new IllegalArgumentException("Shared path count " + shared + " exceeds previous path count " + previousPaths.size());
+    }
+    int previousSize = previousPaths.size();
+    if (shared < previousSize) {
+      previousPathArray = KeyPaths.toArray(previousPaths, previousPathArray);
+    }
+    KeyPathList paths = previousPaths;
+    for (int i = previousSize; i > shared; i--) {
+      paths = paths.getParent();
+    }
+    for (int i = shared; i < shared + newPathCount; i++) {
+      paths = paths.append(readPath(i < previousSize ? previousPathArray[i] : null));
+    }
+    previousPaths = paths;
+    return paths;
+  }
+
+  private KeyPath readPath(KeyPath previousPath) throws IOException {
+    int tag = readUnsignedByte();
+    switch (tag) {
+      case TupleFormat.ELEMENT_PATH:
+        return new ElementKeyPath(readString());
+      case TupleFormat.NAMED_ARRAY_PATH:
+        String name = readString();
+        return ArrayKeyPath.create(name, readVarInt(), readVarInt());
+      case TupleFormat.KEYLESS_ARRAY_PATH:
+        return ArrayKeyPath.create(null, readVarInt(), readVarInt());
+      case TupleFormat.NEXT_ARRAY_ELEMENT_PATH:
+        if (previousPath == null || !previousPath.isArray()) {
+          throw new IllegalArgumentException("Next array element has no previous array path");
+        }
+        return ArrayKeyPath.create(previousPath.getNullableName(), previousPath.getListIndexAsInt() + 1, previousPath.getListSizeAsInt());
+      default:
+        throw new IllegalArgumentException("Unexpected key path tag: " + tag);
+    }
+  }
+
+  private String readString() throws IOException {
+    int length = readVarInt();
+    if (stringBuffer.length < length) {
+      stringBuffer = new byte[Math.max(length, stringBuffer.length * 2)];
+    }
+    if (input != null) {
+      input.readFully(stringBuffer, 0, length);
+    } else {
+      buffer.get(stringBuffer, 0, length);
+    }
+    return new String(stringBuffer, 0, length, StandardCharsets.UTF_8);
+  }
+
+  private int readVarInt() throws IOException {
+    long value = readVarLong();
+    if (value > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Unexpected varint: " + value);
+    }
+    return (int)value;
+  }
+
+  private long readVarLong() throws IOException {
+    long value = 0L;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = readUnsignedByte();
+      value |= (long)(b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint");
+  }
+
+  private int readUnsignedByte() throws IOException {
+    return readByte() & 0xFF;
+  }
+
+  private byte readByte() throws IOException {
+    if (input != null) {
+      return input.readByte();
+    } else {
+      return buffer.get();
+    }
+  }
+
+}
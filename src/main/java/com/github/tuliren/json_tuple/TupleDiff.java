@@ -0,0 +1,153 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Computes the minimal {@link TupleChangeset} between two versions of a json object.
+ * <p>
+ * Tuples are matched by their key paths ignoring array sizes, so resizing an array turns the tuples of its
+ * remaining elements into updates of their key paths, instead of deleting and inserting all of them. Tuples in
+ * the order of {@link JsonTuples#toTupleList} are compared in lockstep until the first mismatch, and the rest are
+ * matched by a hash join, so the diff takes linear time either way.
+ */
+public final class TupleDiff {
+
+  private TupleDiff() {
+  }
+
+  public static TupleChangeset diff(JsonObject before, JsonObject after) {
+    return diff(JsonTuples.toTupleList(before), JsonTuples.toTupleList(after));
+  }
+
+  public static TupleChangeset diff(List<JsonTuple> before, List<JsonTuple> after) {
+    List<JsonTuple> inserted = new ArrayList<>();
+    List<TupleChangeset.Update> updated = new ArrayList<>();
+    List<JsonTuple> deleted = new ArrayList<>();
+
+    int aligned = 0;
+    int alignedSize = Math.min(before.size(), after.size());
+    while (aligned < alignedSize && isSameKey(before.get(aligned).getPaths(), after.get(aligned).getPaths())) {
+      addUpdate(before.get(aligned), after.get(aligned), updated);
+      aligned++;
+    }
+
+    if (aligned == before.size()) {
+      inserted.addAll(after.subList(aligned, after.size()));
+    } else if (aligned == after.size()) {
+      deleted.addAll(before.subList(aligned, before.size()));
+    } else {
+      Map<TupleKey, JsonTuple> remaining = new HashMap<>(2 * (before.size() - aligned));
+      for (int i = aligned; i < before.size(); i++) {
+        JsonTuple tuple = before.get(i);
+        remaining.put(new TupleKey(tuple.getPaths()), tuple);
+      }
+      for (int i = aligned; i < after.size(); i++) {
+        JsonTuple tuple = after.get(i);
+        JsonTuple previous = remaining.remove(new TupleKey(tuple.getPaths()));
+        if (previous == null) {
+          inserted.add(tuple);
+        } else {
+          addUpdate(previous, tuple, updated);
+        }
+      }
+      // keep the deleted tuples in their original order
+      if (!remaining.isEmpty()) {
+        for (int i = aligned; i < before.size(); i++) {
+          JsonTuple tuple = before.get(i);
+          if (remaining.containsKey(new TupleKey(tuple.getPaths()))) {
+            deleted.add(tuple);
+          }
+        }
+      }
+    }
+
+    return new TupleChangeset(inserted, updated, deleted);
+  }
+
+  private static void addUpdate(JsonTuple before, JsonTuple after, List<TupleChangeset.Update> updated) {
+    if (!before.equals(after)) {
+      updated.add(new TupleChangeset.Update(before, after));
+    }
+  }
+
+  /**
+   * @return true if the two lists have the same key paths except for array sizes.
+   */
+  static boolean isSameKey(List<KeyPath> paths, List<KeyPath> otherPaths) {
+    if (paths.size() != otherPaths.size()) {
+      return false;
+    }
+    if (paths instanceof KeyPathList && otherPaths instanceof KeyPathList) {
+      // compare from the last path until both lists reach a shared parent
+      KeyPathList node = (KeyPathList)paths;
+      KeyPathList otherNode = (KeyPathList)otherPaths;
+      while (node != otherNode) {
+        if (!isSameKey(node.getLast(), otherNode.getLast())) {
+          return false;
+        }
+        node = node.getParent();
+        otherNode = otherNode.getParent();
+      }
+      return true;
+    }
+    Iterator<KeyPath> otherIterator = otherPaths.iterator();
+    for (KeyPath path : paths) {
+      if (!isSameKey(path, otherIterator.next())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSameKey(KeyPath path, KeyPath otherPath) {
+    if (path.isArray() != otherPath.isArray()) {
+      return false;
+    }
+    if (path.isArray() && path.getListIndexAsInt() != otherPath.getListIndexAsInt()) {
+      return false;
+    }
+    return Objects.equals(path.getNullableName(), otherPath.getNullableName());
+  }
+
+  /**
+   * Hash key of the key paths of a tuple, ignoring array sizes.
+   */
+  private static final class TupleKey {
+
+    private final List<KeyPath> paths;
+    private final int hash;
+
+    TupleKey(List<KeyPath> paths) {
+      this.paths = paths;
+      int hash = 1;
+      for (KeyPath path : paths) {
+        hash = 31 * hash + Objects.hashCode(path.getNullableName());
+        hash = 31 * hash + (path.isArray() ? path.getListIndexAsInt() + 1 : 0);
+      }
+      this.hash = hash;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof TupleKey)) {
+        return false;
+      }
+      TupleKey that = (TupleKey)other;
+      return hash == that.hash && isSameKey(paths, that.paths);
+    }
+
+  }
+
+}
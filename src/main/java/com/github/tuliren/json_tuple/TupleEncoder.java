@@ -0,0 +1,259 @@
+package com.github.tuliren.json_tuple;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Encodes {@link JsonTuple}s into the compact binary format described in {@link TupleFormat}, to a
+ * {@link DataOutput} or a {@link ByteBuffer}. Tuples are written one at a time, and the key paths of each
+ * tuple are encoded as a delta from those of the previous tuple. Longs and doubles are written in binary form,
+ * so their string values are decoded in the canonical form of {@link Long#toString} and {@link Double#toString}.
+ * <p>
+ * When a {@link PathDictionary} is given, the key paths of each tuple are written as their id in the dictionary,
+ * which is assigned when the paths are new. The dictionary must be persisted next to the encoded tuples.
+ * <p>
+ * Use {@link TupleDecoder} to read the tuples back.
+ */
+public class TupleEncoder {
+
+  private static final int INITIAL_DEPTH = 8;
+
+  private final DataOutput output;
+  private final ByteBuffer buffer;
+  private final PathDictionary dictionary;
+
+  // key paths of the previous tuple, and the current tuple, copied once per tuple into reused arrays
+  private KeyPath[] previousPaths = new KeyPath[INITIAL_DEPTH];
+  private int previousSize = 0;
+  private KeyPath[] paths = new KeyPath[INITIAL_DEPTH];
+  private boolean started = false;
+  private boolean finished = false;
+
+  public TupleEncoder(DataOutput output) {
+    this(output, null);
+  }
+
+  public TupleEncoder(DataOutput output, PathDictionary dictionary) {
+    this.output = output;
+    this.buffer = null;
+    this.dictionary = dictionary;
+  }
+
+  /**
+   * @throws java.nio.BufferOverflowException when {@code buffer} does not have enough space.
+   */
+  public TupleEncoder(ByteBuffer buffer) {
+    this(buffer, null);
+  }
+
+  /**
+   * @throws java.nio.BufferOverflowException when {@code buffer} does not have enough space.
+   */
+  public TupleEncoder(ByteBuffer buffer, PathDictionary dictionary) {
+    this.output = null;
+    this.buffer = buffer;
+    this.dictionary = dictionary;
+  }
+
+  /**
+   * @return the encoded bytes of {@code tuples}.
+   */
+  public static byte[] encode(List<JsonTuple> tuples) {
+    return encode(tuples, null);
+  }
+
+  /**
+   * @return the encoded bytes of {@code tuples}, whose key paths are added to {@code dictionary}.
+   */
+  public static byte[] encode(List<JsonTuple> tuples, PathDictionary dictionary) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    TupleEncoder encoder = new TupleEncoder(new DataOutputStream(bytes), dictionary);
+    try {
+      for (JsonTuple tuple : tuples) {
+        encoder.write(tuple);
+      }
+      encoder.finish();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  public void write(JsonTuple tuple) throws IOException {
+    if (finished) {
+      throw new IllegalStateException("Encoder has been finished");
+    }
+    start();
+
+    writeByte(getValueCode(tuple));
+    if (dictionary != null) {
+      writeVarInt(dictionary.getOrAddId(tuple.getPaths()));
+    } else {
+      writePaths(tuple.getPaths());
+    }
+
+    switch (tuple.getType()) {
+      case JSON_STRING:
+        writeString(tuple.getValue());
+        break;
+      case JSON_NUMBER:
+        writeNumber(tuple);
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Writes the end of the tuples. The header is written even if there is no tuple.
+   */
+  public void finish() throws IOException {
+    if (finished) {
+      return;
+    }
+    start();
+    writeByte(TupleFormat.END);
+    finished = true;
+  }
+
+  private void start() throws IOException {
+    if (!started) {
+      writeByte(TupleFormat.MAGIC_0);
+      writeByte(TupleFormat.MAGIC_1);
+      writeByte(dictionary == null ? TupleFormat.VERSION : TupleFormat.DICTIONARY_VERSION);
+      started = true;
+    }
+  }
+
+  private void writePaths(List<KeyPath> tuplePaths) throws IOException {
+    int size = tuplePaths.size();
+    KeyPath[] paths = KeyPaths.toArray(tuplePaths, this.paths);
+    int shared = 0;
+    int maxShared = Math.min(size, previousSize);
+    while (shared < maxShared && paths[shared].equals(previousPaths[shared])) {
+      shared++;
+    }
+    int newPathCount = size - shared;
+    if (newPathCount < TupleFormat.MAX_INLINE_PATH_COUNT) {
+      writeVarInt(shared << 4 | newPathCount);
+    } else {
+      writeVarInt(shared << 4 | TupleFormat.MAX_INLINE_PATH_COUNT);
+      writeVarInt(newPathCount);
+    }
+    for (int i = shared; i < size; i++) {
+      writePath(paths[i], i < previousSize ? previousPaths[i] : null);
+    }
+    this.paths = previousPaths;
+    previousPaths = paths;
+    previousSize = size;
+  }
+
+  private void writePath(KeyPath path, KeyPath previousPath) throws IOException {
+    if (!path.isArray()) {
+      writeByte(TupleFormat.ELEMENT_PATH);
+      writeString(path.getNullableName());
+      return;
+    }
+    int index = path.getListIndexAsInt();
+    int size = path.getListSizeAsInt();
+    if (previousPath != null && previousPath.isArray() &&
+        previousPath.getListIndexAsInt() + 1 == index &&
+        previousPath.getListSizeAsInt() == size &&
+        Objects.equals(previousPath.getNullableName(), path.getNullableName())) {
+      writeByte(TupleFormat.NEXT_ARRAY_ELEMENT_PATH);
+      return;
+    }
+    if (path.getNullableName() != null) {
+      writeByte(TupleFormat.NAMED_ARRAY_PATH);
+      writeString(path.getNullableName());
+    } else {
+      writeByte(TupleFormat.KEYLESS_ARRAY_PATH);
+    }
+    writeVarInt(index);
+    writeVarInt(size);
+  }
+
+  private static int getValueCode(JsonTuple tuple) {
+    switch (tuple.getType()) {
+      case JSON_STRING:
+        return TupleFormat.STRING;
+      case JSON_BOOLEAN:
+        return tuple.getBooleanValue() ? TupleFormat.TRUE : TupleFormat.FALSE;
+      case JSON_NULL:
+        return TupleFormat.NULL;
+      case JSON_EMPTY:
+        return TupleFormat.EMPTY;
+      case JSON_NUMBER:
+        switch (tuple.getNumberType()) {
+          case LONG:
+            return TupleFormat.LONG;
+          case DOUBLE:
+            return TupleFormat.DOUBLE;
+          case BIG_INTEGER:
+            return TupleFormat.BIG_INTEGER;
+          case BIG_DECIMAL:
+            return TupleFormat.BIG_DECIMAL;
+          default:
+            throw new IllegalArgumentException("Unexpected number type: " + tuple.getNumberType().name());
+        }
+      default:
+        throw new IllegalArgumentException("Unexpected value type: " + tuple.getType().name());
+    }
+  }
+
+  private void writeNumber(JsonTuple tuple) throws IOException {
+    switch (tuple.getNumberType()) {
+      case LONG:
+        long value = tuple.getLongValue();
+        writeVarLong((value << 1) ^ (value >> 63));
+        break;
+      case DOUBLE:
+        long bits = Double.doubleToRawLongBits(tuple.getDoubleValue());
+        for (int shift = 56; shift >= 0; shift -= 8) {
+          writeByte((int)(bits >>> shift));
+        }
+        break;
+      default:
+        writeString(tuple.getValue());
+        break;
+    }
+  }
+
+  private void writeString(String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(bytes.length);
+    if (output != null) {
+      output.write(bytes);
+    } else {
+      buffer.put(bytes);
+    }
+  }
+
+  private void writeVarInt(int value) throws IOException {
+    writeVarLong(value & 0xFFFFFFFFL);
+  }
+
+  private void writeVarLong(long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      writeByte((int)((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    writeByte((int)value);
+  }
+
+  private void writeByte(int value) throws IOException {
+    if (output != null) {
+      output.writeByte(value);
+    } else {
+      buffer.put((byte)value);
+    }
+  }
+
+}
@@ -0,0 +1,55 @@
+package com.github.tuliren.json_tuple;
+
+/**
+ * Constants of the binary tuple format written by {@link TupleEncoder} and read by {@link TupleDecoder}.
+ * <p>
+ * Version 1 layout:
+ * <pre>
+ * header  := 'J' 'T' version
+ * record  := value-code path-counts path* value
+ * counts  := varint of (shared-path-count &lt;&lt; 4 | new-path-count), with new-path-count 15 followed by the actual count
+ * path    := tag, followed by name for element, name index size for named array, index size for keyless array,
+ *            and nothing for the next element of the array at the same position in the previous tuple
+ * value   := string for string and big numbers, zigzag varint for long, 8 bytes for double, and nothing otherwise
+ * end     := 0
+ * </pre>
+ * Version 2 is written with a {@link PathDictionary}, and each record refers to its key paths by id:
+ * <pre>
+ * record  := value-code path-id value
+ * </pre>
+ * The path id is an unsigned varint, and the dictionary is persisted separately.
+ * <p>
+ * The value code combines the {@link ValueType}, the {@link NumberType} and the boolean value in one byte.
+ * Counts, lengths, indices and sizes are unsigned varints, and strings are length-prefixed UTF-8 bytes.
+ * The shared path count is the number of leading key paths that are the same as those of the previous tuple.
+ */
+final class TupleFormat {
+
+  static final byte MAGIC_0 = 'J';
+  static final byte MAGIC_1 = 'T';
+  static final byte VERSION = 1;
+  static final byte DICTIONARY_VERSION = 2;
+
+  static final int END = 0;
+
+  static final int STRING = 1;
+  static final int FALSE = 2;
+  static final int TRUE = 3;
+  static final int NULL = 4;
+  static final int EMPTY = 5;
+  static final int LONG = 6;
+  static final int DOUBLE = 7;
+  static final int BIG_INTEGER = 8;
+  static final int BIG_DECIMAL = 9;
+
+  static final int MAX_INLINE_PATH_COUNT = 15;
+
+  static final int ELEMENT_PATH = 0;
+  static final int NAMED_ARRAY_PATH = 1;
+  static final int KEYLESS_ARRAY_PATH = 2;
+  static final int NEXT_ARRAY_ELEMENT_PATH = 3;
+
+  private TupleFormat() {
+  }
+
+}
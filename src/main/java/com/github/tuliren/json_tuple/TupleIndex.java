@@ -0,0 +1,382 @@
+package com.github.tuliren.json_tuple;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.google.gson.JsonObject;
+
+/**
+ * In-memory inverted index from the paths and values of tuples to the ids of the documents that contain them, so
+ * that a lookup like {@code k2.nest3.double-nest1 = 100} does not scan any tuple.
+ * <p>
+ * Tuples are indexed by canonical path, which is the path in {@link PathPattern} syntax with every array index
+ * replaced by the wildcard, e.g. {@code items|*.price}. Lookup paths are canonicalized the same way, so
+ * {@code items|0.price} and {@code items|*.price} look up the same values. Values are typed: the string "100" and the
+ * number 100 are different values, while numbers are compared numerically, so 100 and 100.0 are the same value.
+ * <p>
+ * Each (path, value) pair has a posting list of sorted primitive int document ids, and each posting keeps the number
+ * of tuples of the document with that pair, so that a document stays in the list until its last such tuple is
+ * removed. Numbers are also kept in a sorted map per path for range lookups. Documents must be removed with the same
+ * tuples they were added with, or updated with the {@link TupleChangeset} of their change.
+ * <p>
+ * The index is thread-safe. Lookups share a read lock, and updates take a write lock. Every lookup returns a new
+ * array of sorted document ids.
+ */
+public class TupleIndex {
+
+  private static final int[] NO_DOCUMENTS = new int[0];
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // canonical path -> postings of the path; guarded by the lock
+  private final Map<String, PathEntry> entries = new HashMap<>();
+
+  /**
+   * Indexes the tuples of {@code json} under {@code documentId}.
+   */
+  public void add(int documentId, JsonObject json) {
+    add(documentId, JsonTuples.toTupleList(json));
+  }
+
+  /**
+   * Indexes {@code tuples} under {@code documentId}. Adding documents in increasing id order appends to the posting
+   * lists without shifting.
+   *
+   * @throws IllegalArgumentException if {@code documentId} is negative.
+   */
+  public void add(int documentId, Collection<JsonTuple> tuples) {
+    checkDocumentId(documentId);
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      for (JsonTuple tuple : tuples) {
+        addTuple(documentId, tuple);
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Removes {@code tuples}, which have been added under {@code documentId}, from the index. Tuples that are not in
+   * the index are ignored.
+   */
+  public void remove(int documentId, Collection<JsonTuple> tuples) {
+    checkDocumentId(documentId);
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      for (JsonTuple tuple : tuples) {
+        removeTuple(documentId, tuple);
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Applies {@code changeset}, which is the change of the document {@code documentId}, to the index atomically.
+   */
+  public void apply(int documentId, TupleChangeset changeset) {
+    checkDocumentId(documentId);
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      for (JsonTuple tuple : changeset.getDeleted()) {
+        removeTuple(documentId, tuple);
+      }
+      for (TupleChangeset.Update update : changeset.getUpdated()) {
+        removeTuple(documentId, update.getBefore());
+        addTuple(documentId, update.getAfter());
+      }
+      for (JsonTuple tuple : changeset.getInserted()) {
+        addTuple(documentId, tuple);
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * @return ids of the documents with the string {@code value} at {@code path}.
+   * @throws IllegalArgumentException if {@code path} is not a valid path pattern.
+   */
+  public int[] lookup(String path, String value) {
+    return lookupValue(path, value);
+  }
+
+  public int[] lookup(String path, boolean value) {
+    return lookupValue(path, value);
+  }
+
+  public int[] lookup(String path, long value) {
+    return lookupValue(path, value);
+  }
+
+  /**
+   * @throws NumberFormatException if {@code value} is infinite or NaN.
+   */
+  public int[] lookup(String path, double value) {
+    return lookupValue(path, toNumberKey(BigDecimal.valueOf(value)));
+  }
+
+  /**
+   * @return ids of the documents with json null at {@code path}.
+   */
+  public int[] lookupNull(String path) {
+    return lookupValue(path, ValueType.JSON_NULL);
+  }
+
+  /**
+   * @return ids of the documents with any value at {@code path}, including empty objects, and empty arrays under
+   * the array path, e.g. {@code tags|*}. Objects that are not empty have no value themselves, so look up one of
+   * their fields instead.
+   */
+  public int[] lookupExists(String path) {
+    String canonicalPath = PathPattern.compile(path).toCanonicalPath();
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      PathEntry entry = entries.get(canonicalPath);
+      return entry == null ? NO_DOCUMENTS : entry.all.toArray();
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * @return ids of the documents with any number at {@code path} between {@code min} and {@code max}. Numbers are
+   * compared as doubles.
+   * @throws IllegalArgumentException if a bound is NaN.
+   */
+  public int[] lookupRange(String path, double min, boolean minInclusive, double max, boolean maxInclusive) {
+    checkArgument(!Double.isNaN(min) && !Double.isNaN(max), "Range bounds cannot be NaN");
+    String canonicalPath = PathPattern.compile(path).toCanonicalPath();
+    if (min > max) {
+      return NO_DOCUMENTS;
+    }
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      PathEntry entry = entries.get(canonicalPath);
+      if (entry == null) {
+        return NO_DOCUMENTS;
+      }
+      Collection<Postings> matches = entry.numbers.subMap(normalize(min), minInclusive, normalize(max), maxInclusive).values();
+      if (matches.isEmpty()) {
+        return NO_DOCUMENTS;
+      }
+      if (matches.size() == 1) {
+        return matches.iterator().next().toArray();
+      }
+      BitSet union = new BitSet();
+      for (Postings postings : matches) {
+        postings.addTo(union);
+      }
+      return union.stream().toArray();
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of distinct canonical paths in the index.
+   */
+  public int getPathCount() {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      return entries.size();
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  private int[] lookupValue(String path, Object value) {
+    String canonicalPath = PathPattern.compile(path).toCanonicalPath();
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      PathEntry entry = entries.get(canonicalPath);
+      if (entry == null) {
+        return NO_DOCUMENTS;
+      }
+      Postings postings = entry.values.get(value);
+      return postings == null ? NO_DOCUMENTS : postings.toArray();
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  private void addTuple(int documentId, JsonTuple tuple) {
+    PathEntry entry = entries.computeIfAbsent(PathPattern.toCanonicalPath(tuple.getPaths()), path -> new PathEntry());
+    entry.all.add(documentId);
+    entry.values.computeIfAbsent(getValueKey(tuple), key -> new Postings()).add(documentId);
+    if (tuple.getType() == ValueType.JSON_NUMBER) {
+      entry.numbers.computeIfAbsent(normalize(tuple.getDoubleValue()), key -> new Postings()).add(documentId);
+    }
+  }
+
+  private void removeTuple(int documentId, JsonTuple tuple) {
+    String canonicalPath = PathPattern.toCanonicalPath(tuple.getPaths());
+    PathEntry entry = entries.get(canonicalPath);
+    if (entry == null) {
+      return;
+    }
+    Object key = getValueKey(tuple);
+    Postings postings = entry.values.get(key);
+    if (postings == null || !postings.remove(documentId)) {
+      return;
+    }
+    if (postings.isEmpty()) {
+      entry.values.remove(key);
+    }
+    if (tuple.getType() == ValueType.JSON_NUMBER) {
+      Double number = normalize(tuple.getDoubleValue());
+      Postings numberPostings = entry.numbers.get(number);
+      if (numberPostings != null && numberPostings.remove(documentId) && numberPostings.isEmpty()) {
+        entry.numbers.remove(number);
+      }
+    }
+    entry.all.remove(documentId);
+    if (entry.all.isEmpty()) {
+      entries.remove(canonicalPath);
+    }
+  }
+
+  /**
+   * @return the key of the typed value: the string for strings, a {@link Boolean} for booleans, a {@link Long} or
+   * {@link BigDecimal} for numbers, and the {@link ValueType} for json null and empty values.
+   */
+  private static Object getValueKey(JsonTuple tuple) {
+    switch (tuple.getType()) {
+      case JSON_STRING:
+        return tuple.getValue();
+      case JSON_BOOLEAN:
+        return tuple.getBooleanValue();
+      case JSON_NUMBER:
+        if (tuple.getNumberType() == NumberType.LONG) {
+          return tuple.getLongValue();
+        }
+        return toNumberKey(tuple.getBigDecimalValue());
+      default:
+        return tuple.getType();
+    }
+  }
+
+  /**
+   * @return a {@link Long} for integral numbers within the long range, so that numerically equal numbers have equal
+   * keys, or the number without trailing zeros otherwise.
+   */
+  private static Object toNumberKey(BigDecimal number) {
+    BigDecimal stripped = number.signum() == 0 ? BigDecimal.ZERO : number.stripTrailingZeros();
+    if (stripped.scale() <= 0) {
+      try {
+        return stripped.longValueExact();
+      } catch (ArithmeticException e) {
+        // out of the long range
+      }
+    }
+    return stripped;
+  }
+
+  /**
+   * @return {@code value} with -0.0 as 0.0, which are different keys in a sorted map of doubles.
+   */
+  private static Double normalize(double value) {
+    return value + 0.0;
+  }
+
+  private static void checkDocumentId(int documentId) {
+    checkArgument(documentId >= 0, "Document id cannot be negative: " + documentId);
+  }
+
+  private static void checkArgument(boolean expression, String message) {
+    if (!expression) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  private static final class PathEntry {
+
+    // documents with any value at the path
+    private final Postings all = new Postings();
+    private final Map<Object, Postings> values = new HashMap<>();
+    private final NavigableMap<Double, Postings> numbers = new TreeMap<>();
+
+  }
+
+  /**
+   * Sorted document ids, with the number of tuples of each document.
+   */
+  private static final class Postings {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    void add(int id) {
+      if (size > 0 && ids[size - 1] == id) {
+        counts[size - 1]++;
+        return;
+      }
+      int position = size == 0 || ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+      if (position >= 0) {
+        counts[position]++;
+        return;
+      }
+      position = -(position + 1);
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+        counts = Arrays.copyOf(counts, size * 2);
+      }
+      System.arraycopy(ids, position, ids, position + 1, size - position);
+      System.arraycopy(counts, position, counts, position + 1, size - position);
+      ids[position] = id;
+      counts[position] = 1;
+      size++;
+    }
+
+    /**
+     * @return false if {@code id} is not in the postings.
+     */
+    boolean remove(int id) {
+      int position = Arrays.binarySearch(ids, 0, size, id);
+      if (position < 0) {
+        return false;
+      }
+      if (--counts[position] == 0) {
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        System.arraycopy(counts, position + 1, counts, position, size - position - 1);
+        size--;
+      }
+      return true;
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(ids, size);
+    }
+
+    void addTo(BitSet bits) {
+      for (int i = 0; i < size; i++) {
+        bits.set(ids[i]);
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,245 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Evaluates a compiled {@link TuplePredicate} over the tuples of a json object, without reconstructing the json object.
+ * <p>
+ * Tuples are consumed one at a time, in the order they are generated by {@link JsonTuples#toTupleList}. Each check
+ * starts as unknown, and becomes true when a tuple satisfies it. Since the tuples of each top-level key are
+ * contiguous, a check that is still unknown becomes false once the tuples move past the top-level key of its pattern,
+ * and all unknown checks become false at the end of the tuples. The predicate is evaluated with three-valued logic
+ * whenever a check changes, and the evaluation stops at the first tuple that decides the result.
+ * <p>
+ * A matcher is immutable and thread-safe, so it can evaluate many documents in parallel.
+ */
+public final class TupleMatcher {
+
+  private static final byte UNKNOWN = 0;
+  private static final byte TRUE = 1;
+  private static final byte FALSE = 2;
+
+  private final TuplePredicate predicate;
+  // all checks of the predicate
+  private final TuplePredicate[] checks;
+  // indices of the checks grouped by the name of the first segment of their patterns
+  private final Map<String, int[]> checksByFirstName;
+
+  // nodes of the predicate in depth-first order; the root is node 0
+  private final TuplePredicate.Operator[] operators;
+  // child node indices of each combining node
+  private final int[][] children;
+  // check index of each check node
+  private final int[] checkIndices;
+
+  TupleMatcher(TuplePredicate predicate) {
+    this.predicate = predicate;
+    List<TuplePredicate> nodes = new ArrayList<>();
+    List<TuplePredicate> checkList = new ArrayList<>();
+    addNodes(predicate, nodes, checkList);
+
+    this.checks = checkList.toArray(new TuplePredicate[0]);
+    this.operators = new TuplePredicate.Operator[nodes.size()];
+    this.children = new int[nodes.size()][];
+    this.checkIndices = new int[nodes.size()];
+    for (int i = 0; i < nodes.size(); i++) {
+      TuplePredicate node = nodes.get(i);
+      operators[i] = node.operator;
+      if (node.isCheck()) {
+        checkIndices[i] = indexOf(checkList, node);
+      } else {
+        children[i] = new int[node.children.size()];
+        for (int c = 0; c < children[i].length; c++) {
+          children[i][c] = indexOf(nodes, node.children.get(c));
+        }
+      }
+    }
+
+    Map<String, List<Integer>> groups = new HashMap<>();
+    for (int i = 0; i < checks.length; i++) {
+      groups.computeIfAbsent(checks[i].pattern.getFirstName(), name -> new ArrayList<>()).add(i);
+    }
+    this.checksByFirstName = new HashMap<>();
+    groups.forEach((name, group) -> checksByFirstName.put(name, group.stream().mapToInt(Integer::intValue).toArray()));
+  }
+
+  public TuplePredicate getPredicate() {
+    return predicate;
+  }
+
+  /**
+   * @return true if the tuples of a json object satisfy the predicate.
+   */
+  public boolean matches(List<JsonTuple> tuples) {
+    return matches(tuples.iterator());
+  }
+
+  /**
+   * Same as {@link #matches(List)}, except that the stream is only consumed up to the tuple that decides the result.
+   * With {@link JsonTuples#stream(JsonObject)}, the remaining tuples are not even generated.
+   */
+  public boolean matches(Stream<JsonTuple> tuples) {
+    return matches(tuples.iterator());
+  }
+
+  /**
+   * @return true if the tuples of {@code json} satisfy the predicate. The tuples are generated lazily.
+   */
+  public boolean matches(JsonObject json) {
+    if (json.size() == 0) {
+      return matches(Collections.emptyIterator());
+    }
+    return matches(JsonTuples.stream(json));
+  }
+
+  /**
+   * Same as {@link #matches(List)}, except that the iterator is only consumed up to the tuple that decides the result.
+   */
+  public boolean matches(Iterator<JsonTuple> tuples) {
+    byte[] states = new byte[checks.length];
+    String previousName = null;
+    int[] previousChecks = null;
+
+    while (tuples.hasNext()) {
+      JsonTuple tuple = tuples.next();
+      String name = tuple.getPaths().get(0).getNullableName();
+      boolean changed = false;
+
+      if (previousChecks != null && !previousName.equals(name)) {
+        // the tuples have moved past the top-level key of these checks
+        for (int check : previousChecks) {
+          if (states[check] == UNKNOWN) {
+            states[check] = FALSE;
+            changed = true;
+          }
+        }
+      }
+
+      int[] candidates = checksByFirstName.get(name);
+      if (candidates != null) {
+        for (int check : candidates) {
+          if (states[check] == UNKNOWN && checks[check].test(tuple)) {
+            states[check] = TRUE;
+            changed = true;
+          }
+        }
+      }
+
+      if (changed) {
+        byte result = evaluate(0, states);
+        if (result != UNKNOWN) {
+          return result == TRUE;
+        }
+      }
+      previousName = name;
+      previousChecks = candidates;
+    }
+    return evaluate(states, true);
+  }
+
+  /**
+   * @return whether each document satisfies the predicate, evaluated in parallel on the common fork-join pool.
+   */
+  public boolean[] matchAll(List<? extends List<JsonTuple>> documents) {
+    return matchAll(documents, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @return whether each document satisfies the predicate, evaluated in parallel on {@code pool}.
+   */
+  public boolean[] matchAll(List<? extends List<JsonTuple>> documents, ForkJoinPool pool) {
+    boolean[] results = new boolean[documents.size()];
+    pool.submit(() -> IntStream.range(0, results.length).parallel().forEach(i -> results[i] = matches(documents.get(i)))).join();
+    return results;
+  }
+
+  @Override
+  public String toString() {
+    return predicate.toString();
+  }
+
+  /**
+   * @param complete when true, the checks that are still unknown are false.
+   */
+  private boolean evaluate(byte[] states, boolean complete) {
+    if (complete) {
+      for (int i = 0; i < states.length; i++) {
+        if (states[i] == UNKNOWN) {
+          states[i] = FALSE;
+        }
+      }
+    }
+    return evaluate(0, states) == TRUE;
+  }
+
+  private byte evaluate(int node, byte[] states) {
+    switch (operators[node]) {
+      case AND: {
+        byte result = TRUE;
+        for (int child : children[node]) {
+          byte value = evaluate(child, states);
+          if (value == FALSE) {
+            return FALSE;
+          }
+          if (value == UNKNOWN) {
+            result = UNKNOWN;
+          }
+        }
+        return result;
+      }
+      case OR: {
+        byte result = FALSE;
+        for (int child : children[node]) {
+          byte value = evaluate(child, states);
+          if (value == TRUE) {
+            return TRUE;
+          }
+          if (value == UNKNOWN) {
+            result = UNKNOWN;
+          }
+        }
+        return result;
+      }
+      case NOT: {
+        byte value = evaluate(children[node][0], states);
+        return value == UNKNOWN ? UNKNOWN : value == TRUE ? FALSE : TRUE;
+      }
+      default:
+        return states[checkIndices[node]];
+    }
+  }
+
+  private static void addNodes(TuplePredicate node, List<TuplePredicate> nodes, List<TuplePredicate> checks) {
+    nodes.add(node);
+    if (node.isCheck()) {
+      checks.add(node);
+      return;
+    }
+    for (TuplePredicate child : node.children) {
+      addNodes(child, nodes, checks);
+    }
+  }
+
+  /**
+   * @return the index of the same instance, which may appear more than once when a predicate is reused.
+   */
+  private static int indexOf(List<TuplePredicate> nodes, TuplePredicate node) {
+    for (int i = 0; i < nodes.size(); i++) {
+      if (nodes.get(i) == node) {
+        return i;
+      }
+    }
+    throw new IllegalStateException("Unknown predicate: " + node);
+  }
+
+}
@@ -0,0 +1,234 @@
+package com.github.tuliren.json_tuple;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable condition on the tuples of a json object, built from checks on the values under {@link PathPattern}s and
+ * combined with {@link #and}, {@link #or} and {@link #not}. Compile it with {@link #compile()} to evaluate it over
+ * tuples with a {@link TupleMatcher}.
+ * <p>
+ * A check holds if any tuple under its pattern satisfies it, so {@code gt("items|*.price", 100)} holds if the price
+ * of any item is greater than 100. Value checks only look at tuples whose paths match the pattern exactly, while
+ * {@link #exists} also holds for any tuple under the pattern.
+ */
+public final class TuplePredicate {
+
+  enum Operator {
+    EXISTS, IS_NULL, EQ_STRING, EQ_BOOLEAN, EQ_NUMBER, RANGE, AND, OR, NOT
+  }
+
+  final Operator operator;
+  final PathPattern pattern;
+  final String stringValue;
+  final BigDecimal numberValue;
+  final double min;
+  final double max;
+  final boolean minInclusive;
+  final boolean maxInclusive;
+  final List<TuplePredicate> children;
+  // whether the number value is an exact long, which is compared with long numbers without allocation
+  private final boolean isLongValue;
+
+  private TuplePredicate(Operator operator, PathPattern pattern, String stringValue, BigDecimal numberValue, double min, boolean minInclusive, double max, boolean maxInclusive, List<TuplePredicate> children) {
+    this.operator = operator;
+    this.pattern = pattern;
+    this.stringValue = stringValue;
+    this.numberValue = numberValue;
+    this.min = min;
+    this.minInclusive = minInclusive;
+    this.max = max;
+    this.maxInclusive = maxInclusive;
+    this.children = children;
+    this.isLongValue = numberValue != null && isLong(numberValue);
+  }
+
+  private static boolean isLong(BigDecimal value) {
+    try {
+      value.longValueExact();
+      return true;
+    } catch (ArithmeticException e) {
+      return false;
+    }
+  }
+
+  private static TuplePredicate check(Operator operator, String pattern, String stringValue, BigDecimal numberValue) {
+    return new TuplePredicate(operator, PathPattern.compile(pattern), stringValue, numberValue, 0.0, false, 0.0, false, null);
+  }
+
+  private static TuplePredicate range(String pattern, double min, boolean minInclusive, double max, boolean maxInclusive) {
+    if (Double.isNaN(min) || Double.isNaN(max)) {
+      throw new IllegalArgumentException("Range bounds cannot be NaN");
+    }
+    return new TuplePredicate(Operator.RANGE, PathPattern.compile(pattern), null, null, min, minInclusive, max, maxInclusive, null);
+  }
+
+  private static TuplePredicate combine(Operator operator, TuplePredicate... children) {
+    if (children.length == 0) {
+      throw new IllegalArgumentException(operator.name() + " must have at least one predicate");
+    }
+    for (TuplePredicate child : children) {
+      Objects.requireNonNull(child);
+    }
+    return new TuplePredicate(operator, null, null, null, 0.0, false, 0.0, false, Arrays.asList(children.clone()));
+  }
+
+  /**
+   * @return a predicate that holds if there is any tuple under {@code pattern}.
+   * @throws IllegalArgumentException if {@code pattern} is not valid.
+   */
+  public static TuplePredicate exists(String pattern) {
+    return check(Operator.EXISTS, pattern, null, null);
+  }
+
+  /**
+   * @return a predicate that holds if any value at {@code pattern} is json null.
+   */
+  public static TuplePredicate isNull(String pattern) {
+    return check(Operator.IS_NULL, pattern, null, null);
+  }
+
+  /**
+   * @return a predicate that holds if any string value at {@code pattern} is {@code value}.
+   */
+  public static TuplePredicate eq(String pattern, String value) {
+    return check(Operator.EQ_STRING, pattern, Objects.requireNonNull(value), null);
+  }
+
+  /**
+   * @return a predicate that holds if any boolean value at {@code pattern} is {@code value}.
+   */
+  public static TuplePredicate eq(String pattern, boolean value) {
+    return check(Operator.EQ_BOOLEAN, pattern, String.valueOf(value), null);
+  }
+
+  /**
+   * @return a predicate that holds if any number at {@code pattern} is numerically equal to {@code value}.
+   */
+  public static TuplePredicate eq(String pattern, long value) {
+    return check(Operator.EQ_NUMBER, pattern, null, BigDecimal.valueOf(value));
+  }
+
+  /**
+   * @return a predicate that holds if any number at {@code pattern} is numerically equal to {@code value}.
+   * @throws NumberFormatException if {@code value} is infinite or NaN.
+   */
+  public static TuplePredicate eq(String pattern, double value) {
+    return check(Operator.EQ_NUMBER, pattern, null, BigDecimal.valueOf(value));
+  }
+
+  /**
+   * @return a predicate that holds if any number at {@code pattern} is greater than {@code value}. Numbers are
+   * compared as doubles in all range checks.
+   */
+  public static TuplePredicate gt(String pattern, double value) {
+    return range(pattern, value, false, Double.POSITIVE_INFINITY, true);
+  }
+
+  public static TuplePredicate ge(String pattern, double value) {
+    return range(pattern, value, true, Double.POSITIVE_INFINITY, true);
+  }
+
+  public static TuplePredicate lt(String pattern, double value) {
+    return range(pattern, Double.NEGATIVE_INFINITY, true, value, false);
+  }
+
+  public static TuplePredicate le(String pattern, double value) {
+    return range(pattern, Double.NEGATIVE_INFINITY, true, value, true);
+  }
+
+  /**
+   * @return a predicate that holds if any number at {@code pattern} is between {@code min} and {@code max}, both
+   * inclusive.
+   */
+  public static TuplePredicate between(String pattern, double min, double max) {
+    return range(pattern, min, true, max, true);
+  }
+
+  public static TuplePredicate and(TuplePredicate... predicates) {
+    return combine(Operator.AND, predicates);
+  }
+
+  public static TuplePredicate or(TuplePredicate... predicates) {
+    return combine(Operator.OR, predicates);
+  }
+
+  public static TuplePredicate not(TuplePredicate predicate) {
+    return combine(Operator.NOT, predicate);
+  }
+
+  public TupleMatcher compile() {
+    return new TupleMatcher(this);
+  }
+
+  boolean isCheck() {
+    return children == null;
+  }
+
+  /**
+   * @return true if {@code tuple} satisfies this check.
+   */
+  boolean test(JsonTuple tuple) {
+    List<KeyPath> paths = tuple.getPaths();
+    if (operator == Operator.EXISTS) {
+      return pattern.matchesPrefixOf(paths);
+    }
+    if (!pattern.matches(paths)) {
+      return false;
+    }
+    ValueType type = tuple.getType();
+    switch (operator) {
+      case IS_NULL:
+        return type == ValueType.JSON_NULL;
+      case EQ_STRING:
+        return type == ValueType.JSON_STRING && stringValue.equals(tuple.getValue());
+      case EQ_BOOLEAN:
+        return type == ValueType.JSON_BOOLEAN && stringValue.equals(tuple.getValue());
+      case EQ_NUMBER:
+        if (type != ValueType.JSON_NUMBER) {
+          return false;
+        }
+        if (tuple.getNumberType() == NumberType.LONG) {
+          return isLongValue && numberValue.longValue() == tuple.getLongValue();
+        }
+        return numberValue.compareTo(tuple.getBigDecimalValue()) == 0;
+      case RANGE:
+        if (type != ValueType.JSON_NUMBER) {
+          return false;
+        }
+        double value = tuple.getDoubleValue();
+        return (minInclusive ? value >= min : value > min) && (maxInclusive ? value <= max : value < max);
+      default:
+        throw new IllegalStateException("Unexpected check: " + operator.name());
+    }
+  }
+
+  @Override
+  public String toString() {
+    switch (operator) {
+      case AND:
+      case OR:
+        return children.stream().map(TuplePredicate::toString).collect(Collectors.joining(" " + operator.name() + " ", "(", ")"));
+      case NOT:
+        return "NOT " + children.get(0);
+      case EXISTS:
+        return "EXISTS " + pattern;
+      case IS_NULL:
+        return pattern + " IS NULL";
+      case EQ_STRING:
+        return pattern + " = \"" + stringValue + "\"";
+      case EQ_BOOLEAN:
+        return pattern + " = " + stringValue;
+      case EQ_NUMBER:
+        return pattern + " = " + numberValue;
+      case RANGE:
+        return pattern + " IN " + (minInclusive ? "[" : "(") + min + ", " + max + (maxInclusive ? "]" : ")");
+      default:
+        throw new IllegalStateException("Unexpected operator: " + operator.name());
+    }
+  }
+
+}
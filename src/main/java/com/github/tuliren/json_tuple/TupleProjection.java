@@ -0,0 +1,76 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set of {@link PathPattern}s that selects the subtrees to reconstruct from tuples.
+ * <p>
+ * Tuples are first checked by the name of their first key path, which rejects most non-matching tuples with one
+ * hash lookup and no allocation.
+ */
+public final class TupleProjection {
+
+  private final List<PathPattern> patterns;
+  // patterns grouped by the name of their first segment
+  private final Map<String, PathPattern[]> patternsByFirstName;
+
+  private TupleProjection(List<PathPattern> patterns) {
+    this.patterns = patterns;
+    Map<String, List<PathPattern>> groups = new HashMap<>();
+    for (PathPattern pattern : patterns) {
+      groups.computeIfAbsent(pattern.getFirstName(), name -> new ArrayList<>()).add(pattern);
+    }
+    this.patternsByFirstName = new HashMap<>();
+    groups.forEach((name, group) -> patternsByFirstName.put(name, group.toArray(new PathPattern[0])));
+  }
+
+  /**
+   * @param patterns path patterns in the syntax of {@link PathPattern}.
+   */
+  public static TupleProjection of(String... patterns) {
+    return of(Arrays.asList(patterns));
+  }
+
+  public static TupleProjection of(Collection<String> patterns) {
+    if (patterns.isEmpty()) {
+      throw new IllegalArgumentException("Projection must have at least one path pattern");
+    }
+    List<PathPattern> pathPatterns = new ArrayList<>(patterns.size());
+    for (String pattern : patterns) {
+      pathPatterns.add(PathPattern.compile(pattern));
+    }
+    return new TupleProjection(pathPatterns);
+  }
+
+  /**
+   * @return true if {@code tuple} is in any of the selected subtrees.
+   */
+  public boolean matches(JsonTuple tuple) {
+    List<KeyPath> paths = tuple.getPaths();
+    PathPattern[] candidates = patternsByFirstName.get(paths.get(0).getNullableName());
+    if (candidates == null) {
+      return false;
+    }
+    for (PathPattern candidate : candidates) {
+      if (candidate.matchesPrefixOf(paths)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public List<PathPattern> getPatterns() {
+    return patterns;
+  }
+
+  @Override
+  public String toString() {
+    return patterns.toString();
+  }
+
+}
@@ -0,0 +1,80 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Spliterator that lazily converts the top-level entries of a json object to tuples with a {@link TupleCursor}.
+ * It is split at top-level entries: the prefix keeps the entry that is being converted.
+ */
+final class TupleSpliterator implements Spliterator<JsonTuple> {
+
+  private final List<Map.Entry<String, JsonElement>> entries;
+  private int from;
+  private final int to;
+  // cursor of the entry before from, or null if no entry has been started
+  private TupleCursor cursor;
+
+  private TupleSpliterator(List<Map.Entry<String, JsonElement>> entries, int from, int to, TupleCursor cursor) {
+    this.entries = entries;
+    this.from = from;
+    this.to = to;
+    this.cursor = cursor;
+  }
+
+  static TupleSpliterator forObject(JsonObject json) {
+    List<Map.Entry<String, JsonElement>> entries = new ArrayList<>(json.entrySet());
+    return new TupleSpliterator(entries, 0, entries.size(), null);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super JsonTuple> action) {
+    while (true) {
+      JsonTuple tuple = cursor == null ? null : cursor.next();
+      if (tuple != null) {
+        action.accept(tuple);
+        return true;
+      }
+      if (from == to) {
+        return false;
+      }
+      if (cursor == null) {
+        cursor = new TupleCursor();
+      }
+      Map.Entry<String, JsonElement> entry = entries.get(from++);
+      cursor.reset(KeyPathList.EMPTY, entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Override
+  public Spliterator<JsonTuple> trySplit() {
+    if (to - from < 2) {
+      return null;
+    }
+    int middle = (from + to) >>> 1;
+    TupleSpliterator prefix = new TupleSpliterator(entries, from, middle, cursor);
+    from = middle;
+    cursor = null;
+    return prefix;
+  }
+
+  /**
+   * @return the number of remaining top-level entries, which is an estimate of the number of remaining tuples.
+   */
+  @Override
+  public long estimateSize() {
+    return to - from;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+
+}
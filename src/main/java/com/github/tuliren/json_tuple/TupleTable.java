@@ -0,0 +1,170 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable names of a database table that stores tuples, one row per tuple, used by {@link JdbcTupleSink} and
+ * {@link JdbcTupleSource}. Start from {@link TupleTable#of(String)} and change column names with the
+ * {@code withXxx} methods, each of which returns a new table.
+ * <p>
+ * The columns are:
+ * <ul>
+ *   <li>document id, which can be any type supported by the driver;</li>
+ *   <li>tuple index, an int with the position of the tuple in its document;</li>
+ *   <li>path, a varchar with the full path of {@link JsonTuple#getFullPaths()};</li>
+ *   <li>type, an int with the {@link ValueType#value};</li>
+ *   <li>value, a nullable varchar with {@link JsonTuple#getValue()}.</li>
+ * </ul>
+ * Names are put into sql statements as is, so they can only have letters, digits and underscores, optionally
+ * qualified by a schema name.
+ */
+public final class TupleTable {
+
+  private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+  private static final Pattern COLUMN_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+  private final String tableName;
+  private final String documentIdColumn;
+  private final String indexColumn;
+  private final String pathColumn;
+  private final String typeColumn;
+  private final String valueColumn;
+
+  private TupleTable(String tableName, String documentIdColumn, String indexColumn, String pathColumn, String typeColumn, String valueColumn) {
+    checkName(TABLE_NAME, tableName);
+    checkName(COLUMN_NAME, documentIdColumn);
+    checkName(COLUMN_NAME, indexColumn);
+    checkName(COLUMN_NAME, pathColumn);
+    checkName(COLUMN_NAME, typeColumn);
+    checkName(COLUMN_NAME, valueColumn);
+    this.tableName = tableName;
+    this.documentIdColumn = documentIdColumn;
+    this.indexColumn = indexColumn;
+    this.pathColumn = pathColumn;
+    this.typeColumn = typeColumn;
+    this.valueColumn = valueColumn;
+  }
+
+  /**
+   * @return a table with columns document_id, tuple_index, tuple_path, tuple_type and tuple_value.
+   * @throws IllegalArgumentException if the table name is not valid.
+   */
+  public static TupleTable of(String tableName) {
+    return new TupleTable(tableName, "document_id", "tuple_index", "tuple_path", "tuple_type", "tuple_value");
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  public String getDocumentIdColumn() {
+    return documentIdColumn;
+  }
+
+  public String getIndexColumn() {
+    return indexColumn;
+  }
+
+  public String getPathColumn() {
+    return pathColumn;
+  }
+
+  public String getTypeColumn() {
+    return typeColumn;
+  }
+
+  public String getValueColumn() {
+    return valueColumn;
+  }
+
+  public TupleTable withDocumentIdColumn(String documentIdColumn) {
+    return new TupleTable(tableName, documentIdColumn, indexColumn, pathColumn, typeColumn, valueColumn);
+  }
+
+  public TupleTable withIndexColumn(String indexColumn) {
+    return new TupleTable(tableName, documentIdColumn, indexColumn, pathColumn, typeColumn, valueColumn);
+  }
+
+  public TupleTable withPathColumn(String pathColumn) {
+    return new TupleTable(tableName, documentIdColumn, indexColumn, pathColumn, typeColumn, valueColumn);
+  }
+
+  public TupleTable withTypeColumn(String typeColumn) {
+    return new TupleTable(tableName, documentIdColumn, indexColumn, pathColumn, typeColumn, valueColumn);
+  }
+
+  public TupleTable withValueColumn(String valueColumn) {
+    return new TupleTable(tableName, documentIdColumn, indexColumn, pathColumn, typeColumn, valueColumn);
+  }
+
+  String getInsertSql() {
+    return "INSERT INTO " + tableName +
+        " (" + documentIdColumn + ", " + indexColumn + ", " + pathColumn + ", " + typeColumn + ", " + valueColumn + ")" +
+        " VALUES (?, ?, ?, ?, ?)";
+  }
+
+  /**
+   * @param documentIdCount number of document ids in the where clause, or 0 to select all documents.
+   */
+  String getSelectSql(int documentIdCount) {
+    StringBuilder sql = new StringBuilder()
+        .append("SELECT ")
+        .append(documentIdColumn).append(", ")
+        .append(pathColumn).append(", ")
+        .append(typeColumn).append(", ")
+        .append(valueColumn)
+        .append(" FROM ").append(tableName);
+    if (documentIdCount == 1) {
+      sql.append(" WHERE ").append(documentIdColumn).append(" = ?");
+    } else if (documentIdCount > 1) {
+      sql.append(" WHERE ").append(documentIdColumn).append(" IN (?");
+      for (int i = 1; i < documentIdCount; i++) {
+        sql.append(", ?");
+      }
+      sql.append(")");
+    }
+    return sql.append(" ORDER BY ").append(documentIdColumn).append(", ").append(indexColumn).toString();
+  }
+
+  private static void checkName(Pattern pattern, String name) {
+    if (name == null || !pattern.matcher(name).matches()) {
+      throw new IllegalArgumentException("Invalid table or column name: " + name);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "TupleTable{" +
+        "tableName=" + tableName +
+        ", documentIdColumn=" + documentIdColumn +
+        ", indexColumn=" + indexColumn +
+        ", pathColumn=" + pathColumn +
+        ", typeColumn=" + typeColumn +
+        ", valueColumn=" + valueColumn +
+        "}";
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(tableName, documentIdColumn, indexColumn, pathColumn, typeColumn, valueColumn);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof TupleTable)) {
+      return false;
+    }
+    TupleTable that = (TupleTable)other;
+    return tableName.equals(that.tableName) &&
+        documentIdColumn.equals(that.documentIdColumn) &&
+        indexColumn.equals(that.indexColumn) &&
+        pathColumn.equals(that.pathColumn) &&
+        typeColumn.equals(that.typeColumn) &&
+        valueColumn.equals(that.valueColumn);
+  }
+
+}
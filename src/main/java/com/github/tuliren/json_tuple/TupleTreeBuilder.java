@@ -0,0 +1,208 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Builds a json object from tuples in the order they are generated by {@link JsonTuples#toTupleList}.
+ * <p>
+ * Each tuple is added by walking its key paths in a loop instead of recursion. The containers visited by the
+ * previous tuple are kept in a stack, so a tuple that shares leading key paths with the previous one starts from the
+ * deepest shared container instead of the root. The stack is reused when the builder is reset. The key paths of each
+ * tuple are copied once into a reused array, so that they are not looked up by index in the tuple.
+ */
+final class TupleTreeBuilder {
+
+  private static final int INITIAL_DEPTH = 8;
+
+  private final int maxDepth;
+
+  private JsonObject root;
+  // key paths of the previous tuple
+  private List<KeyPath> previousPaths;
+  private KeyPath[] previousPathArray = new KeyPath[INITIAL_DEPTH];
+  private KeyPath[] pathArray = new KeyPath[INITIAL_DEPTH];
+  // containers[i] is the parent element of key path i of the previous tuple
+  private JsonElement[] containers = new JsonElement[INITIAL_DEPTH];
+
+  TupleTreeBuilder() {
+    this(Constants.UNLIMITED_DEPTH);
+  }
+
+  /**
+   * @param maxDepth maximum number of key paths of each tuple.
+   */
+  TupleTreeBuilder(int maxDepth) {
+    if (maxDepth <= 0) {
+      throw new IllegalArgumentException("Max depth must be positive: " + maxDepth);
+    }
+    this.maxDepth = maxDepth;
+    reset();
+  }
+
+  /**
+   * Starts building a new json object.
+   */
+  void reset() {
+    clear();
+    root = new JsonObject();
+  }
+
+  /**
+   * Releases the json object that is being built.
+   */
+  void clear() {
+    root = null;
+    Arrays.fill(containers, null);
+    Arrays.fill(previousPathArray, null);
+    Arrays.fill(pathArray, null);
+    previousPaths = null;
+  }
+
+  /**
+   * @throws IllegalArgumentException if the tuple has more key paths than the max depth.
+   * @throws IllegalStateException if the tuple is not consistent with the previous tuples.
+   */
+  void add(JsonTuple tuple) {
+    List<KeyPath> paths = tuple.getPaths();
+    int size = paths.size();
+    checkArgument(size > 0);
+    if (size > maxDepth) {
+      throw new IllegalArgumentException("Tuple depth exceeds the max depth of " + maxDepth + ": " + tuple);
+    }
+    if (size > containers.length) {
+      containers = Arrays.copyOf(containers, Math.max(size, containers.length * 2));
+    }
+
+    KeyPath[] pathArray = KeyPaths.toArray(paths, this.pathArray);
+    int start = getSharedDepth(paths, pathArray);
+    containers[0] = root;
+    JsonElement parent = containers[start];
+    for (int i = start; i < size - 1; i++) {
+      parent = getChild(parent, pathArray[i], pathArray[i + 1]);
+      containers[i + 1] = parent;
+    }
+    addValue(parent, pathArray[size - 1], tuple);
+
+    // the array of this tuple becomes the previous one, and the previous one is reused for the next tuple
+    this.pathArray = previousPathArray;
+    previousPathArray = pathArray;
+    previousPaths = paths;
+  }
+
+  JsonObject build() {
+    return root;
+  }
+
+  /**
+   * @return the number of leading key paths that are containers shared with the previous tuple.
+   */
+  private int getSharedDepth(List<KeyPath> paths, KeyPath[] pathArray) {
+    if (previousPaths == null) {
+      return 0;
+    }
+    int limit = Math.min(previousPaths.size(), paths.size()) - 1;
+    int shared = 0;
+    if (paths instanceof KeyPathList && previousPaths instanceof KeyPathList) {
+      // sibling tuples share their parent node, so the shared paths need not be compared
+      shared = Math.min(((KeyPathList)paths).getSharedSize((KeyPathList)previousPaths), limit);
+    }
+    while (shared < limit && previousPathArray[shared].equals(pathArray[shared])) {
+      shared++;
+    }
+    return shared;
+  }
+
+  /**
+   * @return the container of {@code path} under {@code parent}, which is created if it does not exist.
+   */
+  private static JsonElement getChild(JsonElement parent, KeyPath path, KeyPath nextPath) {
+    if (!path.isArray()) {
+      // parent element must be an object because it has an element path
+      checkState(parent.isJsonObject());
+      JsonObject parentObject = parent.getAsJsonObject();
+      String name = path.getNullableName();
+      JsonElement child = parentObject.get(name);
+      if (child == null) {
+        // current child must be an object because it is an element path,
+        // and next child must have a name because the current child is an object
+        checkArgument(nextPath.getNullableName() != null);
+        child = new JsonObject();
+        parentObject.add(name, child);
+      }
+      return child;
+    }
+
+    JsonArray array = getArray(parent, path);
+    int index = path.getListIndexAsInt();
+    if (array.size() <= index) {
+      JsonElement child = isKeylessArray(nextPath) ? new JsonArray() : new JsonObject();
+      array.add(child);
+      return child;
+    }
+    return array.get(index);
+  }
+
+  private static void addValue(JsonElement parent, KeyPath path, JsonTuple tuple) {
+    if (!path.isArray()) {
+      // parent element must be an object because it has an element path
+      checkState(parent.isJsonObject());
+      parent.getAsJsonObject().add(path.getNullableName(), JsonTuples.getJsonElement(tuple));
+      return;
+    }
+
+    JsonArray array = getArray(parent, path);
+    // tuples are sorted by name, and this element must have not been added to the array
+    checkState(array.size() == path.getListIndexAsInt());
+    if (tuple.getType() != ValueType.JSON_EMPTY) {
+      array.add(JsonTuples.getJsonElement(tuple));
+    } else if (path.getListSizeAsInt() != 0) {
+      // when the array is not empty, it is an empty object inside the array: [..., {}, ...]
+      array.add(new JsonObject());
+    }
+    // otherwise it is an empty array, which has been created by itself or by the parent path: []
+  }
+
+  /**
+   * @return the array of {@code path}, which is a named array in the parent object, or the parent itself.
+   */
+  private static JsonArray getArray(JsonElement parent, KeyPath path) {
+    String name = path.getNullableName();
+    if (name == null) {
+      // when the child has no name, the parent must be an array
+      checkState(parent.isJsonArray());
+      return parent.getAsJsonArray();
+    }
+
+    // when the child has a name, the parent must be an object
+    checkState(parent.isJsonObject());
+    JsonObject parentObject = parent.getAsJsonObject();
+    JsonElement array = parentObject.get(name);
+    if (array == null) {
+      array = new JsonArray();
+      parentObject.add(name, array);
+    }
+    return array.getAsJsonArray();
+  }
+
+  private static boolean isKeylessArray(KeyPath path) {
+    return path.isArray() && path.getNullableName() == null;
+  }
+
+  private static void checkArgument(boolean expression) {
+    if (!expression) {
+      throw new IllegalArgumentException();
+    }
+  }
+
+  private static void checkState(boolean expression) {
+    if (!expression) {
+      throw new IllegalStateException();
+    }
+  }
+
+}
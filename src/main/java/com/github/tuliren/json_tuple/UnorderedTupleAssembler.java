@@ -0,0 +1,184 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Assembles a json object from tuples in any order.
+ * <p>
+ * Each array is allocated with the size in its {@link ArrayKeyPath}, and each element is placed into the slot of
+ * its index, so the tuples do not need to be sorted. The cost is linear in the number of tuples times their depth.
+ */
+final class UnorderedTupleAssembler {
+
+  private final ObjectNode root = new ObjectNode();
+  // key paths of the current tuple, copied once per tuple
+  private KeyPath[] paths = new KeyPath[8];
+  // when true, array slots without any tuple are skipped; otherwise they are an error
+  private final boolean skipMissingElements;
+
+  UnorderedTupleAssembler(boolean skipMissingElements) {
+    this.skipMissingElements = skipMissingElements;
+  }
+
+  void add(JsonTuple tuple) {
+    int depth = tuple.getPaths().size();
+    paths = KeyPaths.toArray(tuple.getPaths(), paths);
+    Object current = root;
+
+    for (int i = 0; i < depth; i++) {
+      KeyPath path = paths[i];
+      boolean isLast = i == depth - 1;
+      KeyPath nextPath = isLast ? null : paths[i + 1];
+
+      if (!path.isArray()) {
+        ObjectNode parentObject = asObject(current);
+        String name = path.getNullableName();
+        if (isLast) {
+          parentObject.children.put(name, getLeaf(tuple, parentObject.children.get(name)));
+        } else {
+          current = getOrCreateChild(parentObject.children, name);
+        }
+        continue;
+      }
+
+      int index = path.getListIndexAsInt();
+      int size = path.getListSizeAsInt();
+      final ArrayNode array;
+      if (path.getNullableName() != null) {
+        // a named array is a value of the parent object
+        ObjectNode parentObject = asObject(current);
+        Object child = parentObject.children.get(path.getNullableName());
+        if (child == null) {
+          child = new ArrayNode(size);
+          parentObject.children.put(path.getNullableName(), child);
+        }
+        array = asArray(child, size);
+      } else {
+        // a keyless array is an element of the parent array
+        array = asArray(current, size);
+      }
+
+      if (size == 0) {
+        // an empty array: []
+        checkState(isLast && tuple.getType() == ValueType.JSON_EMPTY);
+        return;
+      }
+      if (index >= size) {
+        throw new IllegalStateException("Array index " + index + " is out of size " + size);
+      }
+      if (isLast) {
+        array.slots[index] = getLeaf(tuple, array.slots[index]);
+      } else {
+        Object child = array.slots[index];
+        if (child == null) {
+          child = createContainer(nextPath);
+          array.slots[index] = child;
+        }
+        current = child;
+      }
+    }
+  }
+
+  JsonObject build() {
+    return root.build(skipMissingElements);
+  }
+
+  private static Object getOrCreateChild(Map<String, Object> children, String name) {
+    Object child = children.get(name);
+    if (child == null) {
+      // the child is an object because it has an element path
+      child = new ObjectNode();
+      children.put(name, child);
+    }
+    return child;
+  }
+
+  private static Object createContainer(KeyPath nextPath) {
+    if (nextPath.isArray() && nextPath.getNullableName() == null) {
+      return new ArrayNode(nextPath.getListSizeAsInt());
+    }
+    return new ObjectNode();
+  }
+
+  private static Object getLeaf(JsonTuple tuple, Object existingChild) {
+    if (tuple.getType() == ValueType.JSON_EMPTY) {
+      // an empty object: {}, which may have been created by another tuple
+      return existingChild instanceof ObjectNode ? existingChild : new ObjectNode();
+    }
+    return JsonTuples.getJsonElement(tuple);
+  }
+
+  private static ObjectNode asObject(Object node) {
+    if (!(node instanceof ObjectNode)) {
+      throw new IllegalStateException("Json object is expected, but the actual element is: " + node);
+    }
+    return (ObjectNode)node;
+  }
+
+  private static ArrayNode asArray(Object node, int size) {
+    if (!(node instanceof ArrayNode)) {
+      throw new IllegalStateException("Json array is expected, but the actual element is: " + node);
+    }
+    ArrayNode array = (ArrayNode)node;
+    if (array.slots.length != size) {
+      throw new IllegalStateException("Array size " + size + " does not match previous size " + array.slots.length);
+    }
+    return array;
+  }
+
+  private static JsonElement build(Object node, boolean skipMissingElements) {
+    if (node instanceof ObjectNode) {
+      return ((ObjectNode)node).build(skipMissingElements);
+    } else if (node instanceof ArrayNode) {
+      return ((ArrayNode)node).build(skipMissingElements);
+    } else {
+      return (JsonElement)node;
+    }
+  }
+
+  private static void checkState(boolean expression) {
+    if (!expression) {
+      throw new IllegalStateException();
+    }
+  }
+
+  private static final class ObjectNode {
+    // values are json elements for leaves, or object and array nodes
+    private final Map<String, Object> children = new LinkedHashMap<>();
+
+    private JsonObject build(boolean skipMissingElements) {
+      JsonObject json = new JsonObject();
+      for (Map.Entry<String, Object> entry : children.entrySet()) {
+        json.add(entry.getKey(), UnorderedTupleAssembler.build(entry.getValue(), skipMissingElements));
+      }
+      return json;
+    }
+  }
+
+  private static final class ArrayNode {
+    // values are json elements for leaves, or object and array nodes
+    private final Object[] slots;
+
+    private ArrayNode(int size) {
+      this.slots = new Object[size];
+    }
+
+    private JsonArray build(boolean skipMissingElements) {
+      JsonArray json = new JsonArray(slots.length);
+      for (int i = 0; i < slots.length; i++) {
+        if (slots[i] != null) {
+          json.add(UnorderedTupleAssembler.build(slots[i], skipMissingElements));
+        } else if (!skipMissingElements) {
+          throw new IllegalStateException("Array element " + i + " of size " + slots.length + " is missing");
+        }
+      }
+      return json;
+    }
+  }
+
+}
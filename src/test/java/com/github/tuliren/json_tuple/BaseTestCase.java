@@ -1,4 +1,16 @@
 package com.github.tuliren.json_tuple;
 
 class BaseTestCase {
+
+  // json objects with all value types, empty values, big numbers, nested arrays, and non-ASCII text
+  static final String[] SAMPLE_JSON_STRINGS = {
+      "{key: \"string\", unicode: \"\\u4f60\\u597d\"}",
+      "{k1: 1, k2: 2.5, k3: true, k4: null, k5: \"\", \"\": value, k6: -9223372036854775808}",
+      "{k1: 12345678901234567890123, k2: 3.14159265358979323846264}",
+      "{key: {}, array: [], objects: [{}, {}]}",
+      "{key: [[1, 2, 3], [4, 5, 6], 1, 2.2, string, true, false]}",
+      "{key: [[[[{l1: v1}, {l2: v2}]], {l3: v3}]]}",
+      "{k1: {nest1: 10, nest2: 20}, k2: {nest1: 55, nest2: 56, nest3: {double-nest1: 100, double-nest2: 200}}}"
+  };
+
 }
@@ -0,0 +1,94 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestBatchConverter extends BaseTestCase {
+
+  private final JsonParser parser = new JsonParser();
+
+  @Test
+  public void testToTupleLists() {
+    List<JsonObject> jsons = createJsons(100);
+    List<ConversionResult<List<JsonTuple>>> results = new BatchConverter().toTupleLists(jsons);
+
+    assertEquals(jsons.size(), results.size());
+    for (int i = 0; i < jsons.size(); i++) {
+      assertEquals(JsonTuples.toTupleList(jsons.get(i)), results.get(i).get());
+    }
+  }
+
+  @Test
+  public void testFromTupleListsWithFailure() {
+    List<JsonObject> jsons = createJsons(10);
+    Map<String, List<JsonTuple>> tupleLists = new LinkedHashMap<>();
+    for (int i = 0; i < jsons.size(); i++) {
+      tupleLists.put("doc" + i, JsonTuples.toTupleList(jsons.get(i)));
+    }
+    // the first array element is missing
+    tupleLists.put("doc3", Collections.singletonList(JsonTuple.create("array|1|2", ValueType.JSON_NUMBER, "1")));
+
+    Map<String, ConversionResult<JsonObject>> results = new BatchConverter().fromTupleLists(tupleLists);
+
+    assertEquals(new ArrayList<>(tupleLists.keySet()), new ArrayList<>(results.keySet()));
+    for (int i = 0; i < jsons.size(); i++) {
+      ConversionResult<JsonObject> result = results.get("doc" + i);
+      if (i == 3) {
+        assertFalse(result.isSuccess());
+        assertTrue(result.getFailure().get() instanceof IllegalStateException);
+      } else {
+        assertEquals(jsons.get(i), result.get());
+      }
+    }
+  }
+
+  @Test
+  public void testBoundedConcurrency() {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    AtomicInteger runningWorkers = new AtomicInteger(0);
+    AtomicInteger maxRunningWorkers = new AtomicInteger(0);
+    try {
+      BatchConverter converter = new BatchConverter(task -> executor.execute(() -> {
+        maxRunningWorkers.accumulateAndGet(runningWorkers.incrementAndGet(), Math::max);
+        try {
+          task.run();
+        } finally {
+          runningWorkers.decrementAndGet();
+        }
+      }), 2);
+
+      List<JsonObject> jsons = createJsons(200);
+      List<CompletableFuture<List<JsonTuple>>> futures = converter.toTupleListsAsync(jsons);
+      for (int i = 0; i < jsons.size(); i++) {
+        assertEquals(JsonTuples.toTupleList(jsons.get(i)), futures.get(i).join());
+      }
+      assertTrue(maxRunningWorkers.get() <= 2);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private List<JsonObject> createJsons(int count) {
+    List<JsonObject> jsons = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      jsons.add(parser.parse(String.format("{id: %d, items: [{price: %d.5}, {price: 2}], nested: {key: [[%d]]}}", i, i, i)).getAsJsonObject());
+    }
+    return jsons;
+  }
+
+}
@@ -0,0 +1,144 @@
+package com.github.tuliren.json_tuple;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestJdbcTupleSink extends BaseTestCase {
+
+  private static final TupleTable TABLE = TupleTable.of("tuples");
+
+  private final JsonParser parser = new JsonParser();
+  private Connection connection;
+
+  @Before
+  public void setup() throws SQLException {
+    connection = DriverManager.getConnection("jdbc:h2:mem:");
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE tuples (document_id BIGINT, tuple_index INT, tuple_path VARCHAR(1000), tuple_type INT, tuple_value VARCHAR(1000))");
+    }
+  }
+
+  @After
+  public void teardown() throws SQLException {
+    connection.close();
+  }
+
+  @Test
+  public void testWrite() throws SQLException {
+    JsonObject json = parser.parse("{k1: text, k2: [1, 2.5], k3: {k4: true, k5: null, k6: {}}}").getAsJsonObject();
+    List<JsonTuple> tuples = JsonTuples.toTupleList(json);
+    try (JdbcTupleSink sink = new JdbcTupleSink(connection, TABLE)) {
+      sink.write(1L, tuples);
+    }
+
+    try (Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery("SELECT * FROM tuples ORDER BY tuple_index")) {
+      for (int i = 0; i < tuples.size(); i++) {
+        assertTrue(resultSet.next());
+        JsonTuple tuple = tuples.get(i);
+        assertEquals(1L, resultSet.getLong("document_id"));
+        assertEquals(i, resultSet.getInt("tuple_index"));
+        assertEquals(tuple.getFullPaths(), resultSet.getString("tuple_path"));
+        assertEquals(tuple.getType().value, resultSet.getInt("tuple_type"));
+        assertEquals(tuple.getValue(), resultSet.getString("tuple_value"));
+      }
+      assertFalse(resultSet.next());
+    }
+  }
+
+  @Test
+  public void testBatchSize() throws SQLException {
+    JsonObject json = parser.parse("{k1: 1, k2: 2, k3: 3, k4: 4, k5: 5}").getAsJsonObject();
+    JdbcTupleSink sink = new JdbcTupleSink(connection, TABLE, 2);
+    sink.write(1L, json);
+    // the last row is pending until the sink is flushed
+    assertEquals(4L, sink.getRowCount());
+    assertEquals(4, countRows());
+
+    sink.write(2L, json);
+    sink.close();
+    assertEquals(10L, sink.getRowCount());
+    assertEquals(10, countRows());
+  }
+
+  @Test
+  public void testInvalidBatchSize() throws SQLException {
+    try {
+      new JdbcTupleSink(connection, TABLE, 0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testCustomColumns() throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE custom (doc VARCHAR(10), pos INT, p VARCHAR(100), t INT, v VARCHAR(100))");
+    }
+    TupleTable table = TupleTable.of("custom")
+        .withDocumentIdColumn("doc")
+        .withIndexColumn("pos")
+        .withPathColumn("p")
+        .withTypeColumn("t")
+        .withValueColumn("v");
+    try (JdbcTupleSink sink = new JdbcTupleSink(connection, table)) {
+      sink.write("a", parser.parse("{k: null}").getAsJsonObject());
+    }
+
+    try (Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery("SELECT doc, pos, p, t, v FROM custom")) {
+      assertTrue(resultSet.next());
+      assertEquals("a", resultSet.getString(1));
+      assertEquals(0, resultSet.getInt(2));
+      assertEquals("k", resultSet.getString(3));
+      assertEquals(ValueType.JSON_NULL.value, resultSet.getInt(4));
+      assertNull(resultSet.getString(5));
+    }
+  }
+
+  @Test
+  public void testInvalidNames() {
+    String[] names = {"", "1table", "tuples; DROP TABLE tuples", "a.b.c", "a-b"};
+    for (String name : names) {
+      try {
+        TupleTable.of(name);
+        fail(name);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+    try {
+      TABLE.withValueColumn("value)");
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    assertEquals(TupleTable.of("schema.tuples").withTypeColumn("t"), TupleTable.of("schema.tuples").withTypeColumn("t"));
+  }
+
+  private int countRows() throws SQLException {
+    try (Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM tuples")) {
+      resultSet.next();
+      return resultSet.getInt(1);
+    }
+  }
+
+}
@@ -0,0 +1,99 @@
+package com.github.tuliren.json_tuple;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestJdbcTupleSource extends BaseTestCase {
+
+  private static final TupleTable TABLE = TupleTable.of("tuples");
+
+  private final JsonParser parser = new JsonParser();
+  private final List<JsonObject> documents = new ArrayList<>();
+  private Connection connection;
+
+  @Before
+  public void setup() throws SQLException {
+    connection = DriverManager.getConnection("jdbc:h2:mem:");
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE tuples (document_id BIGINT, tuple_index INT, tuple_path VARCHAR(1000), tuple_type INT, tuple_value VARCHAR(1000))");
+    }
+    // write the documents and their tuples in reverse order, and then negate the tuple indices,
+    // so that the rows are only read in order when the query sorts them
+    try (JdbcTupleSink sink = new JdbcTupleSink(connection, TABLE, 3)) {
+      for (int i = SAMPLE_JSON_STRINGS.length - 1; i >= 0; i--) {
+        List<JsonTuple> tuples = JsonTuples.toTupleList(parser.parse(SAMPLE_JSON_STRINGS[i]).getAsJsonObject());
+        Collections.reverse(tuples);
+        sink.write((long)i, tuples);
+      }
+    }
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("UPDATE tuples SET tuple_index = -tuple_index");
+    }
+    for (String jsonString : SAMPLE_JSON_STRINGS) {
+      documents.add(parser.parse(jsonString).getAsJsonObject());
+    }
+  }
+
+  @After
+  public void teardown() throws SQLException {
+    connection.close();
+  }
+
+  @Test
+  public void testRead() throws SQLException {
+    JdbcTupleSource source = new JdbcTupleSource(connection, TABLE, 2);
+    for (int i = 0; i < SAMPLE_JSON_STRINGS.length; i++) {
+      assertEquals(SAMPLE_JSON_STRINGS[i], documents.get(i), source.read((long)i));
+    }
+    assertNull(source.read(100L));
+  }
+
+  @Test
+  public void testReadMany() throws SQLException {
+    JdbcTupleSource source = new JdbcTupleSource(connection, TABLE);
+
+    List<Object> ids = new ArrayList<>();
+    List<JsonObject> jsons = new ArrayList<>();
+    source.read(Arrays.asList(4L, 1L, 100L, 2L), (id, json) -> {
+      ids.add(id);
+      jsons.add(json);
+    });
+    assertEquals(Arrays.asList(1L, 2L, 4L), ids);
+    assertEquals(Arrays.asList(documents.get(1), documents.get(2), documents.get(4)), jsons);
+
+    jsons.clear();
+    source.readAll((id, json) -> jsons.add(json));
+    assertEquals(documents, jsons);
+
+    source.read(Collections.emptyList(), (id, json) -> jsons.add(json));
+    assertEquals(documents.size(), jsons.size());
+  }
+
+  @Test
+  public void testReadTuples() throws SQLException {
+    JdbcTupleSource source = new JdbcTupleSource(connection, TABLE);
+    List<JsonTuple> tuples = source.readTuples(4L);
+    assertEquals(JsonTuples.toTupleList(documents.get(4)), tuples);
+    // tuples of the same full path share their key paths
+    assertSame(tuples.get(0).getPaths(), source.readTuples(4L).get(0).getPaths());
+    assertTrue(source.readTuples(100L).isEmpty());
+  }
+
+}
@@ -0,0 +1,87 @@
+package com.github.tuliren.json_tuple;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestJsonNumbers extends BaseTestCase {
+
+  @Test
+  public void testLong() {
+    assertEquals(NumberType.LONG, JsonNumbers.classify("0"));
+    assertEquals(NumberType.LONG, JsonNumbers.classify("-0"));
+    assertEquals(NumberType.LONG, JsonNumbers.classify("123"));
+    assertEquals(NumberType.LONG, JsonNumbers.classify(String.valueOf(Long.MAX_VALUE)));
+    assertEquals(NumberType.LONG, JsonNumbers.classify(String.valueOf(Long.MIN_VALUE)));
+    assertEquals(NumberType.LONG, JsonNumbers.classify(5));
+  }
+
+  @Test
+  public void testBigInteger() {
+    assertEquals(NumberType.BIG_INTEGER, JsonNumbers.classify("9223372036854775808"));
+    assertEquals(NumberType.BIG_INTEGER, JsonNumbers.classify("-9223372036854775809"));
+    assertEquals(NumberType.BIG_INTEGER, JsonNumbers.classify("123456789012345678901234567890"));
+    assertEquals(NumberType.BIG_INTEGER, JsonNumbers.classify(BigInteger.ONE));
+  }
+
+  @Test
+  public void testDouble() {
+    assertEquals(NumberType.DOUBLE, JsonNumbers.classify("1.1"));
+    assertEquals(NumberType.DOUBLE, JsonNumbers.classify("-0.0001"));
+    assertEquals(NumberType.DOUBLE, JsonNumbers.classify("1e10"));
+    assertEquals(NumberType.DOUBLE, JsonNumbers.classify("1.5E-7"));
+    assertEquals(NumberType.DOUBLE, JsonNumbers.classify("123456789.012345"));
+    assertEquals(NumberType.DOUBLE, JsonNumbers.classify("NaN"));
+    assertEquals(NumberType.DOUBLE, JsonNumbers.classify(2.5));
+    assertEquals(NumberType.DOUBLE, JsonNumbers.classify(2.5f));
+  }
+
+  @Test
+  public void testBigDecimal() {
+    assertEquals(NumberType.BIG_DECIMAL, JsonNumbers.classify("3.14159265358979323846"));
+    assertEquals(NumberType.BIG_DECIMAL, JsonNumbers.classify("1e400"));
+    assertEquals(NumberType.BIG_DECIMAL, JsonNumbers.classify("1e-400"));
+    assertEquals(NumberType.BIG_DECIMAL, JsonNumbers.classify(BigDecimal.ONE));
+  }
+
+  @Test
+  public void testInvalidNumbers() {
+    String[] invalidNumbers = {"", "-", "1.", ".1", "1e", "1e+", "abc", "1a", "--1"};
+    for (String invalidNumber : invalidNumbers) {
+      try {
+        JsonNumbers.classify(invalidNumber);
+        throw new AssertionError("Expected exception for: " + invalidNumber);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testTypedTupleValues() {
+    JsonTuple longTuple = JsonTuple.create("k", ValueType.JSON_NUMBER, "-42");
+    assertEquals(NumberType.LONG, longTuple.getNumberType());
+    assertEquals(-42L, longTuple.getLongValue());
+    assertEquals(-42L, longTuple.getNumberValue());
+
+    JsonTuple doubleTuple = JsonTuple.create("k", ValueType.JSON_NUMBER, "2.5");
+    assertEquals(NumberType.DOUBLE, doubleTuple.getNumberType());
+    assertEquals(2.5, doubleTuple.getDoubleValue(), 0.0);
+    assertEquals(new BigDecimal("2.5"), doubleTuple.getBigDecimalValue());
+
+    JsonTuple bigTuple = JsonTuple.create("k", ValueType.JSON_NUMBER, "3.14159265358979323846");
+    assertEquals(new BigDecimal("3.14159265358979323846"), bigTuple.getNumberValue());
+
+    assertEquals(true, JsonTuple.create("k", ValueType.JSON_BOOLEAN, "true").getBooleanValue());
+    assertEquals(false, JsonTuple.create("k", ValueType.JSON_BOOLEAN, "false").getBooleanValue());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testWrongTypedAccessor() {
+    JsonTuple.create("k", ValueType.JSON_STRING, "1").getLongValue();
+  }
+
+}
@@ -0,0 +1,100 @@
+package com.github.tuliren.json_tuple;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TestJsonTupleReader extends BaseTestCase {
+
+  private static final String[] JSON_STRINGS = {
+      "{key: \"string\"}",
+      "{k1: 1, k2: 2.2, k3: true, k4: null, k5: \"\", \"\": value}",
+      "{key: {}}",
+      "{key: []}",
+      "{key: [{}, 1, 2, 3]}",
+      "{key: [[1, 2, 3], [4, 5, 6], 1, 2.2, string, true, false]}",
+      "{key: [1, [2, [3, [4, [5, [6]]]]]]}",
+      "{key: {key: {key: {key: {key: value}}}}}",
+      "{key: [[[[{l1: v1}, {l2: v2}]], {l3: v3}]]}",
+      "{k1: {nest1: 10, nest2: 20}, k2: {nest1: 55, nest2: 56, nest3: {double-nest1: 100, double-nest2: 200}}}",
+      "{key1: val1, key2: {array1: [1, 2, 3], deepObject: {deepKey: 0.54, emptyObject: {}}, deepArray: [21, 22]}, nullKey: null}"
+  };
+
+  private final JsonParser parser = new JsonParser();
+
+  @Test
+  public void testSameTuplesAsTupleList() {
+    for (String jsonString : JSON_STRINGS) {
+      JsonObject json = parser.parse(jsonString).getAsJsonObject();
+      List<JsonTuple> actual = new ArrayList<>();
+      JsonTuples.toTuples(new StringReader(jsonString), actual::add);
+      assertTuplesEqual(JsonTuples.toTupleList(json), actual);
+      assertEquals(json, JsonTuples.fromTupleList(actual));
+    }
+  }
+
+  @Test
+  public void testInputStream() {
+    String jsonString = JSON_STRINGS[JSON_STRINGS.length - 1];
+    List<JsonTuple> actual = new ArrayList<>();
+    JsonTuples.toTuples(new ByteArrayInputStream(jsonString.getBytes(StandardCharsets.UTF_8)), actual::add);
+    assertTuplesEqual(JsonTuples.toTupleList(parser.parse(jsonString).getAsJsonObject()), actual);
+  }
+
+  @Test
+  public void testDeepArray() {
+    // {key: [[[...[1]...]]]}
+    int depth = 20000;
+    JsonArray array = new JsonArray();
+    array.add(1);
+    StringBuilder builder = new StringBuilder("[1]");
+    for (int i = 1; i < depth; i++) {
+      JsonArray parent = new JsonArray();
+      parent.add(array);
+      array = parent;
+      builder.insert(0, '[').append(']');
+    }
+    JsonObject json = new JsonObject();
+    json.add("key", array);
+
+    List<JsonTuple> actual = new ArrayList<>();
+    JsonTuples.toTuples(new StringReader("{key: " + builder + "}"), actual::add);
+    assertEquals(JsonTuples.toTupleList(json), actual);
+  }
+
+  @Test
+  public void testIterator() {
+    JsonReader jsonReader = new JsonReader(new StringReader("{\"k1\": {\"k2\": 1}, \"k3\": [true]}"));
+    JsonTupleReader tupleReader = new JsonTupleReader(jsonReader);
+    assertEquals("k1.k2", tupleReader.next().getFullPaths());
+    assertEquals("k3|0|1", tupleReader.next().getFullPaths());
+    assertFalse(tupleReader.hasNext());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyRootObject() {
+    JsonTuples.toTuples(new StringReader("{}"), tuple -> {
+    });
+  }
+
+  private static void assertTuplesEqual(List<JsonTuple> expected, List<JsonTuple> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getPaths(), actual.get(i).getPaths());
+      assertEquals(expected.get(i).getType(), actual.get(i).getType());
+      assertEquals(expected.get(i).getValue(), actual.get(i).getValue());
+    }
+  }
+
+}
@@ -0,0 +1,87 @@
+package com.github.tuliren.json_tuple;
+
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TestJsonTupleWriter extends BaseTestCase {
+
+  private static final String[] JSON_STRINGS = {
+      "{key: \"string\"}",
+      "{k1: 1, k2: 2.2, k3: true, k4: null, k5: \"\", \"\": value}",
+      "{key: {}}",
+      "{key: []}",
+      "{key: [[]], k2: [[], []]}",
+      "{key: [{}, 1, 2, 3]}",
+      "{key: [[{}], [{}, {}]]}",
+      "{key: [[1, 2, 3], [4, 5, 6], 1, 2.2, string, true, false]}",
+      "{key: [1, [2, [3, [4, [5, [6]]]]]]}",
+      "{key: [1, 2, [3], 4, [[5]], 6]}",
+      "{key: {key: {key: {key: {key: value}}}}}",
+      "{key: [{l1: v1}, {l2: v2}]}",
+      "{key: [[[[{l1: v1}, {l2: v2}]], {l3: v3}]]}",
+      "{k1: {nest1: 10, nest2: 20}, k2: {nest1: 55, nest2: 56, nest3: {double-nest1: 100, double-nest2: 200}}}",
+      "{objectsInArray: [{k1: [true, false], k2: 11}, {k1: [true], k2: 12, emptyArray: []}], array3: [6, 7], nullKey: null}"
+  };
+
+  private final JsonParser parser = new JsonParser();
+
+  @Test
+  public void testRoundTrip() {
+    for (String jsonString : JSON_STRINGS) {
+      JsonObject expected = parser.parse(jsonString).getAsJsonObject();
+      List<JsonTuple> tuples = JsonTuples.toTupleList(expected);
+
+      StringBuilder builder = new StringBuilder();
+      JsonTuples.fromTuples(tuples.iterator(), builder);
+      assertEquals(jsonString, expected, parser.parse(builder.toString()));
+    }
+  }
+
+  @Test
+  public void testJsonWriter() {
+    JsonObject expected = parser.parse("{a: null, b: [null, {c: null}]}").getAsJsonObject();
+    StringWriter stringWriter = new StringWriter();
+    JsonTuples.fromTuples(JsonTuples.toTupleList(expected).iterator(), new JsonWriter(stringWriter));
+    assertEquals("{\"a\":null,\"b\":[null,{\"c\":null}]}", stringWriter.toString());
+  }
+
+  @Test
+  public void testNonFiniteNumbers() {
+    for (double value : new double[]{Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}) {
+      JsonObject json = new JsonObject();
+      json.add("key", new JsonPrimitive(value));
+      List<JsonTuple> tuples = JsonTuples.toTupleList(json);
+
+      try {
+        JsonTuples.fromTuples(tuples.iterator(), new StringBuilder());
+        fail("Non-finite number should be rejected: " + value);
+      } catch (IllegalArgumentException e) {
+        assertEquals("Numeric values must be finite, but was " + value, e.getMessage());
+      }
+
+      StringWriter stringWriter = new StringWriter();
+      JsonWriter lenientWriter = new JsonWriter(stringWriter);
+      lenientWriter.setLenient(true);
+      JsonTuples.fromTuples(tuples.iterator(), lenientWriter);
+      assertEquals("{\"key\":" + value + "}", stringWriter.toString());
+    }
+  }
+
+  @Test
+  public void testNoTuple() {
+    StringBuilder builder = new StringBuilder();
+    JsonTuples.fromTuples(Collections.emptyIterator(), builder);
+    assertEquals("{}", builder.toString());
+  }
+
+}
@@ -1,7 +1,9 @@
 package com.github.tuliren.json_tuple;
 
+import java.io.IOException;
 import java.util.List;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import org.apache.commons.lang3.StringUtils;
@@ -44,6 +46,18 @@ public class TestJsonTuples extends BaseTestCase {
     testJson();
   }
 
+  @Test
+  public void testBigNumber() {
+    String bigNumberJsonString = "{k1: 12345678901234567890123, k2: 3.14159265358979323846264, k3: [1e400, -9223372036854775809]}";
+    jsonString = bigNumberJsonString;
+    testJson();
+
+    JsonObject json = parser.parse(bigNumberJsonString).getAsJsonObject();
+    JsonObject actual = JsonTuples.fromTupleList(JsonTuples.toTupleList(json));
+    Assert.assertEquals(json.get("k1").getAsBigInteger(), actual.get("k1").getAsBigInteger());
+    Assert.assertEquals(json.get("k2").getAsBigDecimal(), actual.get("k2").getAsBigDecimal());
+  }
+
   @Test
   public void testBoolean() {
     jsonString = "{k1: true, k2: false, k3: true}";
@@ -126,6 +140,9 @@ public class TestJsonTuples extends BaseTestCase {
 
     jsonString = "{key: [1, 2, {}, 3]}";
     testJson();
+
+    jsonString = "{key: [[{}], [{}, 1]]}";
+    testJson();
   }
 
   @Test
@@ -217,4 +234,80 @@ public class TestJsonTuples extends BaseTestCase {
     testJson();
   }
 
+  @Test
+  public void testDeepObject() {
+    int depth = 20000;
+    JsonObject expected = new JsonObject();
+    createDeepObject(expected, depth).addProperty("leaf", 1);
+
+    List<JsonTuple> tuples = JsonTuples.toTupleList(expected);
+    Assert.assertEquals(1, tuples.size());
+    Assert.assertEquals(depth + 1, tuples.get(0).getPaths().size());
+    // json equality is recursive, so compare the tuples of the rebuilt object instead
+    Assert.assertEquals(tuples, JsonTuples.toTupleList(JsonTuples.fromTupleList(tuples)));
+  }
+
+  @Test
+  public void testDeepObjectConverters() throws IOException {
+    // many tuples under the same deep parent, whose key paths are indexed by every converter
+    JsonObject before = new JsonObject();
+    JsonObject leaves = createDeepObject(before, 500);
+    for (int i = 0; i < 100; i++) {
+      leaves.addProperty("leaf" + i, i);
+    }
+    JsonObject after = before.deepCopy();
+    createDeepObject(after, 500).addProperty("leaf0", "changed");
+    List<JsonTuple> tuples = JsonTuples.toTupleList(before);
+    List<JsonTuple> afterTuples = JsonTuples.toTupleList(after);
+
+    Assert.assertEquals(tuples, JsonTuples.toTupleList(JsonTuples.fromTupleList(tuples)));
+    Assert.assertEquals(tuples, TupleDecoder.decode(TupleEncoder.encode(tuples)));
+
+    StringBuilder builder = new StringBuilder();
+    JsonTuples.fromTuples(tuples.iterator(), builder);
+    Assert.assertEquals(before.toString(), builder.toString());
+
+    TupleChangeset changeset = TupleDiff.diff(tuples, afterTuples);
+    Assert.assertEquals(1, changeset.size());
+    Assert.assertEquals(afterTuples, JsonTuples.toTupleList(changeset.applyTo(before.deepCopy())));
+  }
+
+  @Test
+  public void testMaxDepth() {
+    JsonObject json = parser.parse("{k1: 1, k2: {a: [1, [2]]}}").getAsJsonObject();
+    List<JsonTuple> tuples = JsonTuples.toTupleList(json, 3);
+    Assert.assertEquals(json, JsonTuples.fromTupleList(tuples, 3));
+
+    try {
+      JsonTuples.toTupleList(json, 2);
+      Assert.fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      JsonTuples.fromTupleList(tuples, 2);
+      Assert.fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Adds {@code depth} levels of single element arrays of objects to {@code json}.
+   *
+   * @return the innermost object.
+   */
+  private static JsonObject createDeepObject(JsonObject json, int depth) {
+    JsonObject object = json;
+    for (int i = 0; i < depth; i++) {
+      JsonArray array = object.has("k" + i) ? object.getAsJsonArray("k" + i) : new JsonArray();
+      if (array.size() == 0) {
+        array.add(new JsonObject());
+        object.add("k" + i, array);
+      }
+      object = array.get(0).getAsJsonObject();
+    }
+    return object;
+  }
+
 }
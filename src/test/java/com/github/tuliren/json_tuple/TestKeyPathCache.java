@@ -0,0 +1,120 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class TestKeyPathCache extends BaseTestCase {
+
+  @Test
+  public void testHitAndMiss() {
+    KeyPathCache cache = new KeyPathCache(10);
+    List<KeyPath> paths1 = cache.get("k2.nest3.double-nest1");
+    List<KeyPath> paths2 = cache.get("k2.nest3.double-nest1");
+
+    assertSame(paths1, paths2);
+    assertEquals(KeyPaths.parse("k2.nest3.double-nest1"), paths1);
+    assertEquals(1L, cache.getHitCount());
+    assertEquals(1L, cache.getMissCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testInternedKeyPaths() {
+    KeyPathCache cache = new KeyPathCache(10);
+    List<KeyPath> paths1 = cache.get("items|3|10.price");
+    List<KeyPath> paths2 = cache.get("items|3|10.name");
+
+    assertNotSame(paths1, paths2);
+    assertSame(paths1.get(0), paths2.get(0));
+  }
+
+  @Test
+  public void testEviction() {
+    KeyPathCache cache = new KeyPathCache(2);
+    List<KeyPath> paths = cache.get("k1");
+    cache.get("k2");
+    // k1 becomes the most recently used
+    cache.get("k1");
+    cache.get("k3");
+
+    assertEquals(2, cache.size());
+    // k2 is evicted from the full paths, and the key path of k1 from the interned key paths
+    assertEquals(2L, cache.getEvictionCount());
+    assertEquals(1L, cache.getKeyPathEvictionCount());
+    assertSame(paths, cache.get("k1"));
+    assertEquals(2L, cache.getHitCount());
+  }
+
+  @Test
+  public void testSegments() {
+    assertEquals(1, new KeyPathCache(2 * KeyPathCache.MIN_SEGMENT_SIZE - 1).getSegmentCount());
+    assertEquals(2, new KeyPathCache(2 * KeyPathCache.MIN_SEGMENT_SIZE).getSegmentCount());
+    assertEquals(KeyPathCache.MAX_SEGMENT_COUNT, new KeyPathCache(10000).getSegmentCount());
+
+    KeyPathCache cache = new KeyPathCache(1000);
+    for (int i = 0; i < 5000; i++) {
+      cache.get("k" + i);
+    }
+    assertEquals(1000, cache.size());
+    assertEquals(4000L, cache.getEvictionCount() - cache.getKeyPathEvictionCount());
+  }
+
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    KeyPathCache cache = new KeyPathCache(10000);
+    int threadCount = 4;
+    int pathCount = 500;
+    int roundCount = 10;
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threadCount; t++) {
+        futures.add(executor.submit(() -> {
+          for (int round = 0; round < roundCount; round++) {
+            for (int i = 0; i < pathCount; i++) {
+              String fullPath = "items|" + i + "|" + pathCount + ".price";
+              assertEquals(KeyPaths.parse(fullPath), cache.get(fullPath));
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    assertEquals(pathCount, cache.size());
+    assertEquals((long)threadCount * roundCount * pathCount, cache.getHitCount() + cache.getMissCount());
+    // all full paths share the interned key path of the last segment
+    assertSame(cache.get("items|0|500.price").get(1), cache.get("items|1|500.price").get(1));
+  }
+
+  @Test
+  public void testCreateTuple() {
+    KeyPathCache cache = new KeyPathCache(10);
+    JsonTuple tuple1 = JsonTuple.create("key|4|5.|1|2", ValueType.JSON_NUMBER, "200", cache);
+    JsonTuple tuple2 = JsonTuple.create("key|4|5.|1|2", ValueType.JSON_NUMBER, "100", cache);
+
+    assertSame(tuple1.getPaths(), tuple2.getPaths());
+    assertEquals(JsonTuple.create("key|4|5.|1|2", ValueType.JSON_NUMBER, "200"), tuple1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMaximumSize() {
+    new KeyPathCache(0);
+  }
+
+}
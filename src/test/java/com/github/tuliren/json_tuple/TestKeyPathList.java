@@ -0,0 +1,60 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestKeyPathList extends BaseTestCase {
+
+  private static final KeyPath ELEMENT_PATH = new ElementKeyPath("element");
+  private static final KeyPath ARRAY_PATH = new ArrayKeyPath(Optional.of("array"), 1, 3);
+  private static final KeyPath KEYLESS_ARRAY_PATH = new ArrayKeyPath(Optional.empty(), 0, 2);
+
+  @Test
+  public void testAppend() {
+    KeyPathList parent = KeyPathList.EMPTY.append(ELEMENT_PATH).append(ARRAY_PATH);
+    KeyPathList child = parent.append(KEYLESS_ARRAY_PATH);
+
+    assertEquals(Arrays.asList(ELEMENT_PATH, ARRAY_PATH), parent);
+    assertEquals(Arrays.asList(ELEMENT_PATH, ARRAY_PATH, KEYLESS_ARRAY_PATH), child);
+    assertEquals(Arrays.asList(ARRAY_PATH, KEYLESS_ARRAY_PATH), child.subList(1, 3));
+    assertEquals(Arrays.asList(ELEMENT_PATH, ARRAY_PATH, KEYLESS_ARRAY_PATH).hashCode(), child.hashCode());
+    assertSame(parent, child.getParent());
+    assertSame(KEYLESS_ARRAY_PATH, child.getLast());
+    assertTrue(KeyPathList.EMPTY.isEmpty());
+  }
+
+  @Test
+  public void testOf() {
+    List<KeyPath> paths = Arrays.asList(ELEMENT_PATH, ARRAY_PATH);
+    KeyPathList list = KeyPathList.of(paths);
+    assertEquals(paths, list);
+    assertSame(list, KeyPathList.of(list));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testInvalidIndex() {
+    KeyPathList.EMPTY.append(ELEMENT_PATH).get(1);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testImmutable() {
+    KeyPathList.EMPTY.append(ELEMENT_PATH).add(ARRAY_PATH);
+  }
+
+  @Test
+  public void testSharedParentPaths() {
+    List<JsonTuple> tuples = JsonTuples.toTupleList(new JsonParser().parse("{k1: {k2: 1, k3: 2}}").getAsJsonObject());
+    KeyPathList paths1 = (KeyPathList)tuples.get(0).getPaths();
+    KeyPathList paths2 = (KeyPathList)tuples.get(1).getPaths();
+    assertSame(paths1.getParent(), paths2.getParent());
+  }
+
+}
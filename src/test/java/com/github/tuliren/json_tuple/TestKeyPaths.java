@@ -1,5 +1,7 @@
 package com.github.tuliren.json_tuple;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.Test;
@@ -48,4 +50,37 @@ public class TestKeyPaths extends BaseTestCase {
     assertTrue(KeyPaths.create("|10|15") instanceof ArrayKeyPath);
   }
 
+  @Test
+  public void testPathCreationFromSubSequence() {
+    String fullPath = "k1.array|10|15.|0|2";
+    assertEquals(new ElementKeyPath("k1"), KeyPaths.create(fullPath, 0, 2));
+    assertEquals(new ArrayKeyPath(Optional.of("array"), 10, 15), KeyPaths.create(fullPath, 3, 14));
+    assertEquals(new ArrayKeyPath(Optional.empty(), 0, 2), KeyPaths.create(fullPath, 15, 19));
+
+    // names cannot contain the list path separator
+    assertTrue(KeyPaths.create("a|b|1|2") instanceof ElementKeyPath);
+    assertTrue(KeyPaths.create("a|1|2|") instanceof ElementKeyPath);
+    assertTrue(KeyPaths.create("a|1|x") instanceof ElementKeyPath);
+    assertTrue(KeyPaths.create("a|-1|2") instanceof ElementKeyPath);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testArrayIndexOverflow() {
+    KeyPaths.create("array|2147483648|1");
+  }
+
+  @Test
+  public void testParseAndJoin() {
+    String[] fullPaths = {"", "k1", "k1.k2", "key|4|5.|1|2", "k2.nest3.double-nest1", ".k1", "k1.", "k1..k2"};
+    for (String fullPath : fullPaths) {
+      List<KeyPath> paths = KeyPaths.parse(fullPath);
+      assertEquals(fullPath.split("\\.", -1).length, paths.size());
+      assertEquals(fullPath, KeyPaths.join(paths));
+    }
+    assertEquals(
+        Arrays.asList(new ArrayKeyPath(Optional.of("key"), 4, 5), new ArrayKeyPath(Optional.empty(), 1, 2)),
+        KeyPaths.parse("key|4|5.|1|2")
+    );
+  }
+
 }
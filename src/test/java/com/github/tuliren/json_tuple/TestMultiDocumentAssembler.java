@@ -0,0 +1,159 @@
+package com.github.tuliren.json_tuple;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestMultiDocumentAssembler extends BaseTestCase {
+
+  private final JsonParser parser = new JsonParser();
+
+  @Test
+  public void testGrouped() {
+    Map<Integer, JsonObject> results = new LinkedHashMap<>();
+    MultiDocumentAssembler<Integer> assembler = MultiDocumentAssembler.grouped(results::put);
+
+    for (int i = 0; i < SAMPLE_JSON_STRINGS.length; i++) {
+      for (JsonTuple tuple : getTuples(i)) {
+        assembler.add(i, tuple);
+      }
+      // the previous document is emitted as soon as the first tuple of this document arrives
+      assertEquals(i, results.size());
+    }
+    assembler.finish();
+
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6), new ArrayList<>(results.keySet()));
+    for (int i = 0; i < SAMPLE_JSON_STRINGS.length; i++) {
+      assertEquals(getJson(i), results.get(i));
+    }
+    assertEquals(SAMPLE_JSON_STRINGS.length, assembler.getDocumentCount());
+  }
+
+  @Test
+  public void testInterleaved() {
+    Map<Integer, JsonObject> results = new LinkedHashMap<>();
+    MultiDocumentAssembler<Integer> assembler = MultiDocumentAssembler.interleaved(SAMPLE_JSON_STRINGS.length, MultiDocumentAssembler.OverflowPolicy.FAIL, results::put);
+    addRoundRobin(assembler);
+
+    assertEquals(SAMPLE_JSON_STRINGS.length, assembler.getOpenDocumentCount());
+    assembler.complete(3);
+    assertEquals(getJson(3), results.get(3));
+    assembler.finish();
+
+    assertEquals(Arrays.asList(3, 0, 1, 2, 4, 5, 6), new ArrayList<>(results.keySet()));
+    for (int i = 0; i < SAMPLE_JSON_STRINGS.length; i++) {
+      assertEquals(getJson(i), results.get(i));
+    }
+    assertEquals(0, assembler.getOpenDocumentCount());
+  }
+
+  @Test
+  public void testFailOnOverflow() {
+    MultiDocumentAssembler<Integer> assembler = MultiDocumentAssembler.interleaved(2, MultiDocumentAssembler.OverflowPolicy.FAIL, (id, json) -> {
+    });
+    assembler.add(0, getTuples(0).get(0));
+    assembler.add(1, getTuples(1).get(0));
+    try {
+      assembler.add(2, getTuples(2).get(0));
+      fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    // completing a document makes room for another one
+    assembler.complete(0);
+    assembler.add(2, getTuples(2).get(0));
+    assertEquals(2, assembler.getOpenDocumentCount());
+  }
+
+  @Test
+  public void testSpill() throws IOException {
+    Path spillDirectory = Files.createTempDirectory("spill");
+    try {
+      Map<Integer, JsonObject> results = new LinkedHashMap<>();
+      try (MultiDocumentAssembler<Integer> assembler = MultiDocumentAssembler.interleaved(2, MultiDocumentAssembler.OverflowPolicy.SPILL, spillDirectory, results::put)) {
+        addRoundRobin(assembler);
+        assertTrue(assembler.getSpillCount() > 0);
+        assertTrue(countFiles(spillDirectory) > 0);
+        assembler.finish();
+        assertEquals(0L, countFiles(spillDirectory));
+      }
+
+      for (int i = 0; i < SAMPLE_JSON_STRINGS.length; i++) {
+        assertEquals(getJson(i), results.get(i));
+      }
+    } finally {
+      Files.delete(spillDirectory);
+    }
+  }
+
+  @Test
+  public void testCloseDeletesSpillFiles() throws IOException {
+    Path spillDirectory = Files.createTempDirectory("spill");
+    try {
+      MultiDocumentAssembler<Integer> assembler = MultiDocumentAssembler.interleaved(1, MultiDocumentAssembler.OverflowPolicy.SPILL, spillDirectory, (id, json) -> {
+      });
+      addRoundRobin(assembler);
+      assertTrue(countFiles(spillDirectory) > 0);
+      assembler.close();
+      assertEquals(0L, countFiles(spillDirectory));
+
+      try {
+        assembler.add(0, getTuples(0).get(0));
+        fail();
+      } catch (IllegalStateException e) {
+        // expected
+      }
+    } finally {
+      Files.delete(spillDirectory);
+    }
+  }
+
+  /**
+   * Adds one tuple of each document at a time.
+   */
+  private void addRoundRobin(MultiDocumentAssembler<Integer> assembler) {
+    List<List<JsonTuple>> tuples = new ArrayList<>();
+    int maxSize = 0;
+    for (int i = 0; i < SAMPLE_JSON_STRINGS.length; i++) {
+      tuples.add(getTuples(i));
+      maxSize = Math.max(maxSize, tuples.get(i).size());
+    }
+    for (int t = 0; t < maxSize; t++) {
+      for (int i = 0; i < SAMPLE_JSON_STRINGS.length; i++) {
+        if (t < tuples.get(i).size()) {
+          assembler.add(i, tuples.get(i).get(t));
+        }
+      }
+    }
+  }
+
+  private JsonObject getJson(int index) {
+    return parser.parse(SAMPLE_JSON_STRINGS[index]).getAsJsonObject();
+  }
+
+  private List<JsonTuple> getTuples(int index) {
+    return JsonTuples.toTupleList(getJson(index));
+  }
+
+  private static long countFiles(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.count();
+    }
+  }
+
+}
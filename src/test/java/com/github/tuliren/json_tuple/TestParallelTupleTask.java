@@ -0,0 +1,144 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestParallelTupleTask extends BaseTestCase {
+
+  @Test
+  public void testSameOrderAsSequential() {
+    JsonObject json = new JsonObject();
+    for (int i = 0; i < 100; i++) {
+      json.add("object" + i, new JsonParser().parse("{k1: 1, k2: [true, {k3: null}], k4: {}}"));
+      json.addProperty("value" + i, i);
+    }
+    JsonArray largeArray = new JsonArray();
+    for (int i = 0; i < 250; i++) {
+      JsonArray element = new JsonArray();
+      element.add(i);
+      element.add("value" + i);
+      largeArray.add(i % 2 == 0 ? element : new JsonParser().parse("{k: " + i + "}"));
+    }
+    json.add("largeArray", largeArray);
+    json.add("emptyArray", new JsonArray());
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int threshold : new int[] {1, 7, 64, 1000}) {
+        assertEquals(JsonTuples.toTupleList(json), JsonTuples.toTupleListParallel(json, pool, threshold));
+      }
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(json, JsonTuples.fromTupleList(JsonTuples.toTupleListParallel(json)));
+  }
+
+  @Test
+  public void testNestedLargeContainers() {
+    // {data: {rows: [...], matrix: [[...], ...], wide: {...}}, items: [{values: [...]}]}
+    JsonObject data = new JsonObject();
+    JsonArray rows = new JsonArray();
+    JsonArray matrix = new JsonArray();
+    JsonObject wide = new JsonObject();
+    for (int i = 0; i < 300; i++) {
+      rows.add(new JsonParser().parse("{id: " + i + ", tags: [a, b], empty: {}}"));
+      JsonArray row = new JsonArray();
+      for (int j = 0; j < i % 5; j++) {
+        row.add(j);
+      }
+      matrix.add(row);
+      wide.addProperty("key" + i, i % 3 == 0 ? null : "value" + i);
+    }
+    data.add("rows", rows);
+    data.add("matrix", matrix);
+    data.add("wide", wide);
+    JsonObject item = new JsonObject();
+    item.add("values", rows.deepCopy());
+    JsonArray items = new JsonArray();
+    items.add(item);
+
+    JsonObject json = new JsonObject();
+    json.add("data", data);
+    json.add("items", items);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int threshold : new int[] {1, 7, 64, 299, 300}) {
+        ParallelTupleTask task = ParallelTupleTask.forObject(json, threshold, Constants.UNLIMITED_DEPTH);
+        pool.invoke(task);
+        assertEquals(JsonTuples.toTupleList(json), task.getTuples());
+        if (threshold < 300) {
+          // the two top-level entries are small, so only the nested containers are split
+          assertTrue(task.countTasks() > 1);
+        } else {
+          assertEquals(1, task.countTasks());
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testDeepObject() {
+    // a deep chain of small objects, with a large array at the bottom
+    JsonObject json = new JsonObject();
+    JsonObject object = json;
+    for (int i = 0; i < 20000; i++) {
+      JsonObject child = new JsonObject();
+      object.add("k" + i, child);
+      object = child;
+    }
+    JsonArray array = new JsonArray();
+    for (int i = 0; i < 100; i++) {
+      array.add(i);
+    }
+    object.add("array", array);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      List<JsonTuple> tuples = JsonTuples.toTupleList(json);
+      assertEquals(tuples, JsonTuples.toTupleListParallel(json, pool, 7));
+      ParallelTupleTask task = ParallelTupleTask.forObject(json, 7, Constants.UNLIMITED_DEPTH);
+      pool.invoke(task);
+      assertEquals(tuples, task.getTuples());
+      assertTrue(task.countTasks() > 1);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testMaxDepth() {
+    JsonObject json = new JsonParser().parse("{k1: 1, k2: {a: [1, [2, 3, 4]], b: {c: 5, d: 6}}}").getAsJsonObject();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      assertEquals(JsonTuples.toTupleList(json, 3), JsonTuples.toTupleListParallel(json, pool, 1, 3));
+      for (int maxDepth : new int[] {1, 2}) {
+        try {
+          JsonTuples.toTupleListParallel(json, pool, 1, maxDepth);
+          fail();
+        } catch (IllegalArgumentException e) {
+          // expected
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyObject() {
+    JsonTuples.toTupleListParallel(new JsonObject());
+  }
+
+}
@@ -0,0 +1,155 @@
+package com.github.tuliren.json_tuple;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestPathDictionary extends BaseTestCase {
+
+  private final JsonParser parser = new JsonParser();
+
+  @Test
+  public void testDenseIds() {
+    PathDictionary dictionary = new PathDictionary();
+    assertEquals(0, dictionary.getOrAddId("k1.nest1"));
+    assertEquals(1, dictionary.getOrAddId("items|0|2.price"));
+    assertEquals(0, dictionary.getOrAddId(KeyPaths.parse("k1.nest1")));
+    assertEquals(1, dictionary.getOrAddId(KeyPathList.of(KeyPaths.parse("items|0|2.price"))));
+
+    assertEquals(2, dictionary.size());
+    assertEquals(1, dictionary.getId("items|0|2.price"));
+    assertEquals(PathDictionary.NO_ID, dictionary.getId("items|1|2.price"));
+    assertEquals("items|0|2.price", dictionary.getFullPath(1));
+    assertSame(dictionary.getPaths(0), dictionary.getPaths(dictionary.getId(KeyPaths.parse("k1.nest1"))));
+  }
+
+  @Test
+  public void testUnknownId() {
+    PathDictionary dictionary = new PathDictionary();
+    dictionary.getOrAddId("k1");
+    try {
+      dictionary.getPaths(1);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testCreateTuples() {
+    JsonObject json = parser.parse("{k1: {nest1: 10, nest2: [true, null, {}]}, k2: \"value\"}").getAsJsonObject();
+    PathDictionary dictionary = new PathDictionary();
+
+    List<JsonTuple> tuples = new ArrayList<>();
+    for (JsonTuple tuple : JsonTuples.toTupleList(json)) {
+      int id = dictionary.getOrAddId(tuple.getPaths());
+      tuples.add(dictionary.createTuple(id, tuple.getType(), tuple.getValue()));
+    }
+    assertEquals(json, JsonTuples.fromTupleList(tuples));
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    PathDictionary dictionary = new PathDictionary();
+    String[] fullPaths = {"k1", "k1.nest1", "items|0|2.|1|3", "items|1|2.name", "\u4f60\u597d"};
+    for (String fullPath : fullPaths) {
+      dictionary.getOrAddId(fullPath);
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    dictionary.writeTo(new DataOutputStream(bytes));
+    PathDictionary readDictionary = PathDictionary.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+    assertEquals(fullPaths.length, readDictionary.size());
+    for (int id = 0; id < fullPaths.length; id++) {
+      assertEquals(dictionary.getPaths(id), readDictionary.getPaths(id));
+    }
+    // ids keep being assigned after the persisted ones
+    assertEquals(fullPaths.length, readDictionary.getOrAddId("k2"));
+  }
+
+  @Test
+  public void testEncoder() throws IOException {
+    PathDictionary dictionary = new PathDictionary();
+    List<byte[]> encodedDocuments = new ArrayList<>();
+    List<JsonObject> documents = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      JsonObject json = parser.parse("{id: " + i + ", user: {name: user" + i + "}, tags: [a, b]}").getAsJsonObject();
+      documents.add(json);
+      encodedDocuments.add(TupleEncoder.encode(JsonTuples.toTupleList(json), dictionary));
+    }
+    assertEquals(4, dictionary.size());
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    dictionary.writeTo(new DataOutputStream(bytes));
+    PathDictionary readDictionary = PathDictionary.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+    for (int i = 0; i < documents.size(); i++) {
+      byte[] encodedTuples = encodedDocuments.get(i);
+      assertTrue(encodedTuples.length < TupleEncoder.encode(JsonTuples.toTupleList(documents.get(i))).length);
+      assertEquals(documents.get(i), JsonTuples.fromTupleList(TupleDecoder.decode(encodedTuples, readDictionary)));
+    }
+
+    try {
+      TupleDecoder.decode(encodedDocuments.get(0));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testConcurrentIds() throws Exception {
+    PathDictionary dictionary = new PathDictionary();
+    int pathCount = 1000;
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<int[]>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(executor.submit(() -> {
+          int[] ids = new int[pathCount];
+          for (int i = 0; i < pathCount; i++) {
+            ids[i] = dictionary.getOrAddId("k" + i + ".v");
+          }
+          return ids;
+        }));
+      }
+      int[] expectedIds = futures.get(0).get();
+      for (Future<int[]> future : futures) {
+        int[] ids = future.get();
+        for (int i = 0; i < pathCount; i++) {
+          assertEquals(expectedIds[i], ids[i]);
+          assertEquals("k" + i + ".v", dictionary.getFullPath(ids[i]));
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(pathCount, dictionary.size());
+    Set<List<KeyPath>> paths = new HashSet<>();
+    for (int id = 0; id < pathCount; id++) {
+      paths.add(dictionary.getPaths(id));
+    }
+    assertEquals(pathCount, paths.size());
+  }
+
+}
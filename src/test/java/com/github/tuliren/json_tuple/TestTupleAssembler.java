@@ -0,0 +1,108 @@
+package com.github.tuliren.json_tuple;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TestTupleAssembler extends BaseTestCase {
+
+  private static final String[] JSON_STRINGS = {
+      "{key: \"string\"}",
+      "{k1: 1, k2: 2.2, k3: true, k4: null, k5: \"\", \"\": value}",
+      "{key: {}, array: [], objects: [{}, {}]}",
+      "{key: [[1, 2, 3], [4, 5, 6], 1, 2.2, string, true, false]}",
+      "{key: [1, [2, [3, [4, [5, [6]]]]]]}",
+      "{key: [[[[{l1: v1}, {l2: v2}]], {l3: v3}]]}",
+      "{k1: {nest1: 10, nest2: 20}, k2: {nest1: 55, nest2: 56, nest3: {double-nest1: 100, double-nest2: 200}}}",
+      "{objectsInArray: [{k1: [true, false], k2: 11}, {k1: [true], k2: 12, emptyArray: []}], array3: [6, 7], nullKey: null}"
+  };
+
+  private final JsonParser parser = new JsonParser();
+
+  @Test
+  public void testTopLevelValues() {
+    for (String jsonString : JSON_STRINGS) {
+      JsonObject expected = parser.parse(jsonString).getAsJsonObject();
+      JsonObject actual = new JsonObject();
+      TupleAssembler assembler = new TupleAssembler(actual::add);
+      for (JsonTuple tuple : JsonTuples.toTupleList(expected)) {
+        assembler.add(tuple);
+      }
+      assembler.finish();
+
+      assertEquals(jsonString, expected, actual);
+      assertEquals(expected.size(), assembler.getCompletedCount());
+    }
+  }
+
+  @Test
+  public void testEarlyCompletion() {
+    JsonObject json = parser.parse("{k1: {a: 1, b: [1, 2]}, k2: [{c: 3}, {d: 4}], k3: 5}").getAsJsonObject();
+    List<String> keys = new ArrayList<>();
+    TupleAssembler assembler = new TupleAssembler((key, value) -> keys.add(key));
+
+    List<JsonTuple> tuples = JsonTuples.toTupleList(json);
+    // k1 has 3 tuples, and is complete when the first tuple of k2 arrives
+    for (int i = 0; i < 3; i++) {
+      assembler.add(tuples.get(i));
+    }
+    assertEquals(0, keys.size());
+    assembler.add(tuples.get(3));
+    assertEquals(1, keys.size());
+    // k2 is complete when k3 arrives
+    assembler.add(tuples.get(4));
+    assembler.add(tuples.get(5));
+    assertEquals(2, keys.size());
+    assembler.finish();
+    assertEquals(3, keys.size());
+    assertEquals(new ArrayList<>(json.keySet()), keys);
+  }
+
+  @Test
+  public void testReader() {
+    String jsonString = JSON_STRINGS[7];
+    JsonObject actual = new JsonObject();
+    TupleAssembler assembler = new TupleAssembler(actual::add);
+    JsonTuples.toTuples(new StringReader(jsonString), assembler::add);
+    assembler.finish();
+    assertEquals(parser.parse(jsonString), actual);
+  }
+
+  @Test
+  public void testFinished() {
+    TupleAssembler assembler = new TupleAssembler((key, value) -> {
+    });
+    List<JsonTuple> tuples = JsonTuples.toTupleList(parser.parse(JSON_STRINGS[0]).getAsJsonObject());
+    assembler.add(tuples.get(0));
+    assembler.finish();
+    assembler.finish();
+    assertEquals(1L, assembler.getCompletedCount());
+    try {
+      assembler.add(tuples.get(0));
+      fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testMaxDepth() {
+    TupleAssembler assembler = new TupleAssembler((key, value) -> {
+    }, 2);
+    List<JsonTuple> tuples = JsonTuples.toTupleList(parser.parse("{k1: {k2: {k3: 1}}}").getAsJsonObject());
+    try {
+      assembler.add(tuples.get(0));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+}
@@ -0,0 +1,124 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestTupleBatch extends BaseTestCase {
+
+  private final JsonParser parser = new JsonParser();
+
+  @Test
+  public void testRoundTrip() {
+    PathDictionary dictionary = new PathDictionary();
+    for (String jsonString : SAMPLE_JSON_STRINGS) {
+      JsonObject json = parser.parse(jsonString).getAsJsonObject();
+      TupleBatch batch = TupleBatch.of(json, dictionary);
+
+      List<JsonTuple> tuples = JsonTuples.toTupleList(json);
+      assertEquals(tuples.size(), batch.size());
+      for (int row = 0; row < batch.size(); row++) {
+        assertEquals(tuples.get(row), batch.getTuple(row));
+        assertEquals(tuples.get(row).getValue(), batch.getValue(row));
+      }
+      assertEquals(jsonString, json, batch.toJsonObject());
+    }
+  }
+
+  @Test
+  public void testRowView() {
+    JsonObject json = parser.parse("{a: 1, b: 2.5, c: true, d: text}").getAsJsonObject();
+    TupleBatch batch = TupleBatch.of(json, new PathDictionary());
+
+    List<JsonTuple> tuples = new ArrayList<>();
+    TupleBatch.Row previousRow = null;
+    for (TupleBatch.Row row : batch) {
+      if (previousRow != null) {
+        assertSame(previousRow, row);
+      }
+      previousRow = row;
+      tuples.add(row.toTuple());
+    }
+    assertEquals(JsonTuples.toTupleList(json), tuples);
+
+    TupleBatch.Row row = batch.getRow(0);
+    assertEquals(ValueType.JSON_NUMBER, row.getType());
+    assertEquals(NumberType.LONG, row.getNumberType());
+    assertEquals(1L, row.getLongValue());
+    assertEquals(2.5, row.moveTo(1).getDoubleValue(), 0.0);
+    assertTrue(row.moveTo(2).getBooleanValue());
+    assertEquals("text", row.moveTo(3).getValue());
+    assertEquals(KeyPaths.parse("d"), row.getPaths());
+
+    try {
+      row.moveTo(4);
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testMultipleDocuments() {
+    PathDictionary dictionary = new PathDictionary();
+    TupleBatch batch = new TupleBatch(dictionary, 1);
+    JsonObject json1 = parser.parse("{id: 1, tags: [a, b]}").getAsJsonObject();
+    JsonObject json2 = parser.parse("{id: 2, tags: [c, d]}").getAsJsonObject();
+    batch.add(json1);
+    batch.add(json2);
+
+    assertEquals(6, batch.size());
+    assertEquals(3, dictionary.size());
+    assertEquals(batch.getPathId(0), batch.getPathId(3));
+    assertEquals(json1, batch.toJsonObject(0, 3));
+    assertEquals(json2, batch.toJsonObject(3, 6));
+
+    batch.clear();
+    assertEquals(0, batch.size());
+    assertFalse(batch.iterator().hasNext());
+  }
+
+  @Test
+  public void testSelect() {
+    JsonObject json = parser.parse(
+        "{items: [{price: 5, name: a}, {price: 12.5, name: b}, {price: 20, name: c}], total: 37.5, count: 3}"
+    ).getAsJsonObject();
+    TupleBatch batch = TupleBatch.of(json, new PathDictionary());
+    int[] selection = new int[batch.size()];
+
+    int count = batch.selectPaths(PathPattern.compile("items|*.price"), selection);
+    assertArrayEquals(new int[]{0, 2, 4}, Arrays.copyOf(selection, count));
+
+    // array elements at different indices have different paths
+    count = batch.selectPathId(batch.getPathId(1), selection);
+    assertArrayEquals(new int[]{1}, Arrays.copyOf(selection, count));
+
+    count = batch.selectType(ValueType.JSON_STRING, selection);
+    assertArrayEquals(new int[]{1, 3, 5}, Arrays.copyOf(selection, count));
+
+    count = batch.selectLongRange(3, 20, selection);
+    assertArrayEquals(new int[]{0, 4, 7}, Arrays.copyOf(selection, count));
+
+    count = batch.selectDoubleRange(10.0, 40.0, selection);
+    assertArrayEquals(new int[]{2, 4, 6}, Arrays.copyOf(selection, count));
+
+    try {
+      batch.selectType(ValueType.JSON_STRING, new int[1]);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+}
@@ -0,0 +1,153 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class TestTupleChangeset extends BaseTestCase {
+
+  private static final String[][] JSON_PAIRS = {
+      {"{k1: 1}", "{k1: 1}"},
+      {"{k1: 1}", "{k1: 1, k2: 2}"},
+      {"{k1: 1, k2: 2}", "{k2: 2}"},
+      {"{k1: 1, k2: 2}", "{k1: 1, k2: 3}"},
+      {"{k1: {a: 1}}", "{k1: {}}"},
+      {"{k1: {}}", "{k1: {a: 1}}"},
+      {"{k1: {a: {b: 1}}, k2: 2}", "{k2: 2}"},
+      {"{k1: [1, 2]}", "{k1: [1, 2, 3]}"},
+      {"{k1: [1, 2, 3]}", "{k1: [2, 3]}"},
+      {"{k1: [1, 2, 3]}", "{k1: [1]}"},
+      {"{k1: [1, 2, 3]}", "{k1: []}"},
+      {"{k1: []}", "{k1: [1, 2]}"},
+      {"{k1: [1], k2: 2}", "{k2: 2}"},
+      {"{k1: [{a: 1}, {b: 2}]}", "{k1: [5, {b: 2}]}"},
+      {"{k1: [{a: 1}]}", "{k1: [{b: 2}]}"},
+      {"{k1: [{a: 1}, {b: 2}]}", "{k1: [{a: 1, c: 3}, {b: 2}], k2: null}"},
+      {"{k1: [[1], [2, 3]], k2: x}", "{k1: [[1, 4], [2]], k2: y}"},
+      {"{k1: [[1], [2, 3]]}", "{k1: [[], [2, 3], []]}"},
+      {"{k1: [[], [2, 3]]}", "{k1: [[7], [2, 3, {}]]}"},
+      {"{k1: [{}, {}]}", "{k1: [{}]}"},
+      {"{k1: [[{}]]}", "{k1: [[{}, 1]]}"},
+      {"{k1: string, k2: true}", "{k1: 10, k2: false}"},
+      {"{k1: {a: [1, {b: [2, 3]}]}}", "{k1: {a: [1, {b: [3]}, 4]}}"},
+      {"{objectsInArray: [{k1: [true, false], k2: 11}, {k1: [true], k2: 12, emptyArray: []}], array3: [6, 7]}",
+          "{objectsInArray: [{k1: [false], k2: 11}, {k2: 13, emptyArray: [1]}], nullKey: null}"}
+  };
+
+  private final JsonParser parser = new JsonParser();
+
+  @Test
+  public void testApplyDiff() {
+    for (String[] pair : JSON_PAIRS) {
+      assertApplyDiff(pair[0], pair[1]);
+      assertApplyDiff(pair[1], pair[0]);
+    }
+  }
+
+  @Test
+  public void testApplyInPlace() {
+    JsonObject json = parse("{k1: {a: 1}, k2: [1, 2]}");
+    JsonObject k1 = json.getAsJsonObject("k1");
+    TupleChangeset changeset = TupleDiff.diff(json, parse("{k1: {a: 2}, k2: [1, 2]}"));
+
+    assertSame(json, changeset.applyTo(json));
+    assertSame(k1, json.getAsJsonObject("k1"));
+    assertEquals(parse("{k1: {a: 2}, k2: [1, 2]}"), json);
+  }
+
+  @Test
+  public void testDeleteArrayElement() {
+    JsonObject json = parse("{k1: [1, 2, 3], k2: [4]}");
+    TupleChangeset.of(
+        Collections.emptyList(),
+        Collections.emptyList(),
+        Collections.singletonList(JsonTuple.create("k1|1|3", ValueType.JSON_NUMBER, "2"))
+    ).applyTo(json);
+    assertEquals(parse("{k1: [1, 3], k2: [4]}"), json);
+
+    TupleChangeset.of(
+        Collections.emptyList(),
+        Collections.emptyList(),
+        Collections.singletonList(JsonTuple.create("k2|0|1", ValueType.JSON_NUMBER, "4"))
+    ).applyTo(json);
+    assertEquals(parse("{k1: [1, 3]}"), json);
+  }
+
+  @Test
+  public void testDeleteMissingTuple() {
+    JsonObject json = parse("{k1: {a: 1}}");
+    TupleChangeset.of(
+        Collections.emptyList(),
+        Collections.emptyList(),
+        Collections.singletonList(JsonTuple.create("k2.b", ValueType.JSON_NUMBER, "1"))
+    ).applyTo(json);
+    assertEquals(parse("{k1: {a: 1}}"), json);
+  }
+
+  @Test
+  public void testUpdateKeyPath() {
+    JsonObject json = parse("{k1: {a: 1}}");
+    TupleChangeset.of(
+        Collections.emptyList(),
+        Collections.singletonList(TupleChangeset.Update.of(
+            JsonTuple.create("k1.a", ValueType.JSON_NUMBER, "1"),
+            JsonTuple.create("k2|0|1.b", ValueType.JSON_NUMBER, "1")
+        )),
+        Collections.emptyList()
+    ).applyTo(json);
+    assertEquals(parse("{k2: [{b: 1}]}"), json);
+  }
+
+  @Test
+  public void testDeleteManyArrayElements() {
+    // {k1: [0, {a: 1}, 2, 3, {a: 4}, 5, ...], k2: x}
+    JsonObject before = new JsonObject();
+    JsonObject after = new JsonObject();
+    JsonArray beforeArray = new JsonArray();
+    JsonArray afterArray = new JsonArray();
+    List<JsonTuple> deleted = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      JsonElement element = i % 3 == 1 ? parse("{a: " + i + "}") : new JsonPrimitive(i);
+      beforeArray.add(element);
+      if (i % 5 == 0 || i % 7 == 0) {
+        String fullPath = "k1|" + i + "|10000" + (element.isJsonObject() ? ".a" : "");
+        deleted.add(JsonTuple.create(fullPath, ValueType.JSON_NUMBER, String.valueOf(i)));
+      } else {
+        afterArray.add(element.deepCopy());
+      }
+    }
+    before.add("k1", beforeArray);
+    before.addProperty("k2", "x");
+    after.add("k1", afterArray);
+    after.addProperty("k2", "x");
+    JsonObject expected = JsonTuples.fromTupleList(JsonTuples.toTupleList(after));
+
+    JsonObject json = before.deepCopy();
+    TupleChangeset.of(Collections.emptyList(), Collections.emptyList(), deleted).applyTo(json);
+    assertEquals(expected, json);
+
+    json = before.deepCopy();
+    assertEquals(expected, TupleDiff.diff(json, after).applyTo(json));
+  }
+
+  private void assertApplyDiff(String before, String after) {
+    JsonObject json = parse(before);
+    TupleChangeset changeset = TupleDiff.diff(json, parse(after));
+    assertEquals(before + " -> " + after, parse(after), changeset.applyTo(json));
+  }
+
+  private JsonObject parse(String jsonString) {
+    return parser.parse(jsonString).getAsJsonObject();
+  }
+
+}
@@ -0,0 +1,93 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class TestTupleConverter extends BaseTestCase {
+
+  private static final String[] JSON_STRINGS = {
+      "{k1: 1, k2: 2.2, k3: true, k4: null, k5: \"\", \"\": value}",
+      "{key: {}, array: [], objects: [{}, {}], arrays: [[], []]}",
+      "{key: [[{}], [{}, {}]]}",
+      "{key: [[1, 2, 3], [4, 5, 6], 1, 2.2, string, true, false]}",
+      "{key: [1, [2, [3, [4, [5, [6]]]]]]}",
+      "{k1: {nest1: 10, nest2: 20}, k2: {nest1: 55, nest2: 56, nest3: {double-nest1: 100, double-nest2: 200}}}",
+      "{objectsInArray: [{k1: [true, false], k2: 11}, {k1: [true], k2: 12, emptyArray: []}], array3: [6, 7], nullKey: null}"
+  };
+
+  private final JsonParser parser = new JsonParser();
+
+  @Test
+  public void testReuse() {
+    TupleConverter converter = new TupleConverter();
+    List<JsonTuple> output = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      for (String jsonString : JSON_STRINGS) {
+        JsonObject json = parser.parse(jsonString).getAsJsonObject();
+        List<JsonTuple> expected = JsonTuples.toTupleList(json);
+        assertEquals(jsonString, expected, converter.toTupleList(json));
+
+        output.clear();
+        converter.toTupleList(json, output);
+        assertEquals(jsonString, expected, output);
+        assertEquals(jsonString, json, converter.fromTupleList(output));
+      }
+    }
+  }
+
+  @Test
+  public void testSeparators() {
+    TupleConverterConfig config = TupleConverterConfig.DEFAULT.withPathSeparator('/').withListPathSeparator('#');
+    TupleConverter converter = new TupleConverter(config);
+    JsonObject json = parser.parse("{\"a.b\": [{\"c|d\": 1}, [x]]}").getAsJsonObject();
+
+    List<String> fullPaths = new ArrayList<>();
+    List<JsonTuple> tuples = new ArrayList<>();
+    for (JsonTuple tuple : converter.toTupleList(json)) {
+      String fullPath = converter.toFullPath(tuple);
+      fullPaths.add(fullPath);
+      tuples.add(converter.createTuple(fullPath, tuple.getType(), tuple.getValue()));
+    }
+    assertEquals("a.b#0#2/c|d", fullPaths.get(0));
+    assertEquals("a.b#1#2/#0#1", fullPaths.get(1));
+    assertEquals(json, converter.fromTupleList(tuples));
+  }
+
+  @Test
+  public void testDoubleNumbers() {
+    TupleConverter converter = new TupleConverter(TupleConverterConfig.DEFAULT.withNumberPolicy(NumberPolicy.DOUBLE));
+    List<JsonTuple> tuples = converter.toTupleList(parser.parse("{k1: 1, k2: [12345678901234567890]}").getAsJsonObject());
+    assertEquals(NumberType.DOUBLE, tuples.get(0).getNumberType());
+    assertEquals(1.0, tuples.get(0).getDoubleValue(), 0.0);
+    assertEquals(NumberType.DOUBLE, tuples.get(1).getNumberType());
+    assertEquals(1.2345678901234567e19, tuples.get(1).getDoubleValue(), 0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxDepth() {
+    TupleConverter converter = new TupleConverter(TupleConverterConfig.DEFAULT.withMaxDepth(2));
+    converter.toTupleList(parser.parse("{k1: {k2: {k3: 1}}}").getAsJsonObject());
+  }
+
+  @Test
+  public void testConfig() {
+    TupleConverterConfig config = TupleConverterConfig.DEFAULT.withMaxDepth(10);
+    assertEquals(10, config.getMaxDepth());
+    assertEquals('.', config.getPathSeparator());
+    assertEquals(config, TupleConverterConfig.DEFAULT.withMaxDepth(10));
+    assertNotEquals(config, TupleConverterConfig.DEFAULT);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSameSeparators() {
+    TupleConverterConfig.DEFAULT.withListPathSeparator('.');
+  }
+
+}
@@ -0,0 +1,112 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestTupleDiff extends BaseTestCase {
+
+  private static final String[][] JSON_PAIRS = {
+      {"{k1: 1}", "{k1: 1}"},
+      {"{k1: 1}", "{k1: 1, k2: 2}"},
+      {"{k1: 1, k2: 2}", "{k2: 2}"},
+      {"{k1: 1, k2: 2}", "{k1: 1, k2: 3}"},
+      {"{k1: 1, k2: 2}", "{k2: 2, k3: 3}"},
+      {"{k1: {a: 1}}", "{k1: {}}"},
+      {"{k1: [1, 2]}", "{k1: [1, 2, 3]}"},
+      {"{k1: [1, 2, 3]}", "{k1: [2, 3]}"},
+      {"{k1: [[1], [2, 3]], k2: x}", "{k1: [[1, 4], [2]], k2: y}"},
+      {"{k1: [{a: 1}, {b: 2}]}", "{k1: [{a: 1, c: 3}, {b: 2}], k2: null}"},
+      {"{k1: string, k2: true}", "{k1: 10, k2: false}"}
+  };
+
+  private final JsonParser parser = new JsonParser();
+
+  @Test
+  public void testUpdatedValue() {
+    TupleChangeset changeset = diff("{k1: 1, k2: {a: x, b: y}}", "{k1: 1, k2: {a: x, b: z}}");
+    assertTrue(changeset.getInserted().isEmpty());
+    assertTrue(changeset.getDeleted().isEmpty());
+    assertEquals(1, changeset.getUpdated().size());
+
+    TupleChangeset.Update update = changeset.getUpdated().get(0);
+    assertEquals(JsonTuple.create("k2.b", ValueType.JSON_STRING, "y"), update.getBefore());
+    assertEquals(JsonTuple.create("k2.b", ValueType.JSON_STRING, "z"), update.getAfter());
+  }
+
+  @Test
+  public void testArrayResize() {
+    TupleChangeset changeset = diff("{k1: [1, 2], k2: 3}", "{k1: [1, 2, 4], k2: 3}");
+    assertEquals(Collections.singletonList(JsonTuple.create("k1|2|3", ValueType.JSON_NUMBER, "4")), changeset.getInserted());
+    assertTrue(changeset.getDeleted().isEmpty());
+    assertEquals(2, changeset.getUpdated().size());
+    for (TupleChangeset.Update update : changeset.getUpdated()) {
+      assertTrue(update.isPathOnly());
+    }
+  }
+
+  @Test
+  public void testNoChange() {
+    assertTrue(diff("{k1: [1, {a: [true]}], k2: null}", "{k1: [1, {a: [true]}], k2: null}").isEmpty());
+  }
+
+  @Test
+  public void testChangesetConsistency() {
+    for (String[] pair : JSON_PAIRS) {
+      List<JsonTuple> before = toTupleList(pair[0]);
+      List<JsonTuple> after = toTupleList(pair[1]);
+      assertConsistent(before, after, TupleDiff.diff(before, after));
+    }
+  }
+
+  @Test
+  public void testUnorderedInput() {
+    Random random = new Random(1L);
+    for (String[] pair : JSON_PAIRS) {
+      List<JsonTuple> before = new ArrayList<>(toTupleList(pair[0]));
+      List<JsonTuple> after = new ArrayList<>(toTupleList(pair[1]));
+      TupleChangeset expected = TupleDiff.diff(before, after);
+
+      Collections.shuffle(before, random);
+      Collections.shuffle(after, random);
+      TupleChangeset changeset = TupleDiff.diff(before, after);
+      assertConsistent(before, after, changeset);
+      assertEquals(expected.getUpdated().size(), changeset.getUpdated().size());
+      assertEquals(expected.size(), changeset.size());
+    }
+  }
+
+  private void assertConsistent(List<JsonTuple> before, List<JsonTuple> after, TupleChangeset changeset) {
+    Set<JsonTuple> tuples = new HashSet<>(before);
+    assertTrue(tuples.removeAll(changeset.getDeleted()) || changeset.getDeleted().isEmpty());
+    for (TupleChangeset.Update update : changeset.getUpdated()) {
+      assertTrue(tuples.remove(update.getBefore()));
+      tuples.add(update.getAfter());
+    }
+    tuples.addAll(changeset.getInserted());
+    assertEquals(new HashSet<>(after), tuples);
+  }
+
+  private TupleChangeset diff(String before, String after) {
+    return TupleDiff.diff(parse(before), parse(after));
+  }
+
+  private List<JsonTuple> toTupleList(String jsonString) {
+    return JsonTuples.toTupleList(parse(jsonString));
+  }
+
+  private JsonObject parse(String jsonString) {
+    return parser.parse(jsonString).getAsJsonObject();
+  }
+
+}
@@ -0,0 +1,98 @@
+package com.github.tuliren.json_tuple;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestTupleEncoder extends BaseTestCase {
+
+  private final JsonParser parser = new JsonParser();
+
+  @Test
+  public void testRoundTrip() {
+    for (String jsonString : SAMPLE_JSON_STRINGS) {
+      JsonObject json = parser.parse(jsonString).getAsJsonObject();
+      List<JsonTuple> tuples = JsonTuples.toTupleList(json);
+      List<JsonTuple> decodedTuples = TupleDecoder.decode(TupleEncoder.encode(tuples));
+      assertEquals(tuples, decodedTuples);
+      assertEquals(json, JsonTuples.fromTupleList(decodedTuples));
+    }
+  }
+
+  @Test
+  public void testByteBuffer() throws IOException {
+    List<JsonTuple> tuples = JsonTuples.toTupleList(parser.parse(SAMPLE_JSON_STRINGS[4]).getAsJsonObject());
+    ByteBuffer buffer = ByteBuffer.allocate(1024);
+    TupleEncoder encoder = new TupleEncoder(buffer);
+    for (JsonTuple tuple : tuples) {
+      encoder.write(tuple);
+    }
+    encoder.finish();
+    buffer.flip();
+
+    TupleDecoder decoder = new TupleDecoder(buffer);
+    List<JsonTuple> decodedTuples = new ArrayList<>();
+    JsonTuple tuple = decoder.read();
+    while (tuple != null) {
+      decodedTuples.add(tuple);
+      tuple = decoder.read();
+    }
+    assertEquals(tuples, decodedTuples);
+    assertNull(decoder.read());
+    assertEquals(0, buffer.remaining());
+  }
+
+  @Test
+  public void testSharedPaths() {
+    List<JsonTuple> tuples = JsonTuples.toTupleList(parser.parse("{k1: {k2: 1, k3: 2}}").getAsJsonObject());
+    List<JsonTuple> decodedTuples = TupleDecoder.decode(TupleEncoder.encode(tuples));
+    assertSame(
+        ((KeyPathList)decodedTuples.get(0).getPaths()).getParent(),
+        ((KeyPathList)decodedTuples.get(1).getPaths()).getParent()
+    );
+  }
+
+  @Test
+  public void testCompactSize() {
+    JsonObject json = new JsonObject();
+    JsonArray rows = new JsonArray();
+    for (int i = 0; i < 100; i++) {
+      JsonArray row = new JsonArray();
+      for (int j = 0; j < 10; j++) {
+        row.add(i * 10 + j);
+      }
+      rows.add(row);
+    }
+    json.add("rows", rows);
+
+    List<JsonTuple> tuples = JsonTuples.toTupleList(json);
+    int textSize = 0;
+    for (JsonTuple tuple : tuples) {
+      textSize += tuple.getFullPaths().length() + tuple.getValue().length() + 3;
+    }
+    int binarySize = TupleEncoder.encode(tuples).length;
+    assertTrue("binary size " + binarySize + " vs text size " + textSize, binarySize * 3 < textSize);
+  }
+
+  @Test
+  public void testEmptyTuples() {
+    assertEquals(0, TupleDecoder.decode(TupleEncoder.encode(new ArrayList<>())).size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedVersion() {
+    TupleDecoder.decode(new byte[] {TupleFormat.MAGIC_0, TupleFormat.MAGIC_1, 99, (byte)TupleFormat.END});
+  }
+
+}
@@ -0,0 +1,81 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestTupleFootprint extends BaseTestCase {
+
+  private static final int OBJECT_COUNT = 100;
+  private static final int ARRAY_SIZE = 10;
+
+  @Test
+  public void testKeyPathLayout() {
+    assertTrue(ClassLayout.parseClass(ArrayKeyPath.class).instanceSize() <= 24);
+    assertTrue(ClassLayout.parseClass(ElementKeyPath.class).instanceSize() <= 16);
+    assertTrue(ClassLayout.parseClass(KeyPathList.class).instanceSize() <= 32);
+  }
+
+  @Test
+  public void testConvertedTuples() {
+    List<JsonTuple> tuples = JsonTuples.toTupleList(createJson());
+    GraphLayout layout = GraphLayout.parseInstance(tuples);
+
+    assertEquals(0, layout.getClassCounts().count(Optional.class));
+    assertTrue(layout.totalSize() / tuples.size() <= 160);
+  }
+
+  @Test
+  public void testRandomAccess() {
+    List<JsonTuple> tuples = JsonTuples.toTupleList(createJson());
+    long size = GraphLayout.parseInstance(tuples).totalSize();
+
+    // random access walks the shared parents, and does not keep any array of paths in the nodes
+    for (JsonTuple tuple : tuples) {
+      List<KeyPath> paths = tuple.getPaths();
+      for (int i = 0; i < paths.size(); i++) {
+        assertEquals(paths.toArray()[i], paths.get(i));
+      }
+    }
+    assertEquals(size, GraphLayout.parseInstance(tuples).totalSize());
+  }
+
+  @Test
+  public void testParsedTuples() {
+    List<JsonTuple> tuples = new ArrayList<>();
+    for (JsonTuple tuple : JsonTuples.toTupleList(createJson())) {
+      tuples.add(JsonTuple.create(tuple.getFullPaths(), tuple.getType(), tuple.getValue()));
+    }
+    GraphLayout layout = GraphLayout.parseInstance(tuples);
+
+    assertEquals(0, layout.getClassCounts().count(Optional.class));
+    assertTrue(layout.totalSize() / tuples.size() <= 280);
+  }
+
+  // {"object0": {"id": 0, "name": "name0", "values": [0, 1, ...]}, ...}
+  private static JsonObject createJson() {
+    JsonObject json = new JsonObject();
+    for (int i = 0; i < OBJECT_COUNT; i++) {
+      JsonObject object = new JsonObject();
+      object.addProperty("id", i);
+      object.addProperty("name", "name" + i);
+      JsonArray array = new JsonArray();
+      for (int j = 0; j < ARRAY_SIZE; j++) {
+        array.add(j);
+      }
+      object.add("values", array);
+      json.add("object" + i, object);
+    }
+    return json;
+  }
+
+}
@@ -0,0 +1,218 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TestTupleIndex extends BaseTestCase {
+
+  private static final String[] DOCUMENTS = {
+      "{k1: v1, k2: {nest3: {double-nest1: 100}}, items: [{price: 100}, {price: 250.5}], tags: [a, b], flag: true}",
+      "{k1: 100, k2: {nest3: {double-nest1: 100.0}}, items: [{price: -0.0}], tags: [], flag: false, note: null}",
+      "{k1: v2, k2: {nest3: {double-nest1: '100'}}, items: [{price: 100}, {price: 100}], tags: [b], other: {}}"
+  };
+
+  private static final String[][] JSON_PAIRS = {
+      {"{k1: 1, k2: 2}", "{k1: 1, k2: 3}"},
+      {"{k1: {a: 1}}", "{k1: {}}"},
+      {"{k1: [1, 2, 3]}", "{k1: [2, 3]}"},
+      {"{k1: [1, 2, 3]}", "{k1: []}"},
+      {"{k1: [{a: 1}, {b: 2}]}", "{k1: [{a: 1, c: 3}, {b: 2}], k2: null}"},
+      {"{k1: [[1], [2, 3]], k2: x}", "{k1: [[1, 4], [2]], k2: y}"},
+      {"{k1: string, k2: true}", "{k1: 10, k2: false}"},
+      {"{k1: {a: [1, {b: [2, 3]}]}}", "{k1: {a: [1, {b: [3]}, 4]}}"},
+      {"{objectsInArray: [{k1: [true, false], k2: 11}, {k1: [true], k2: 12, emptyArray: []}], array3: [6, 7]}",
+          "{objectsInArray: [{k1: [false], k2: 11}, {k2: 13, emptyArray: [1]}], nullKey: null}"}
+  };
+
+  private final JsonParser parser = new JsonParser();
+
+  @Test
+  public void testEqualityLookup() {
+    TupleIndex index = createIndex();
+    assertArrayEquals(new int[]{0, 1}, index.lookup("k2.nest3.double-nest1", 100));
+    assertArrayEquals(new int[]{0, 1}, index.lookup("k2.nest3.double-nest1", 100.0));
+    assertArrayEquals(new int[]{2}, index.lookup("k2.nest3.double-nest1", "100"));
+    assertArrayEquals(new int[]{1}, index.lookup("k1", 100));
+    assertArrayEquals(new int[]{0}, index.lookup("k1", "v1"));
+    assertArrayEquals(new int[]{}, index.lookup("k1", "v3"));
+    assertArrayEquals(new int[]{1}, index.lookup("flag", false));
+    assertArrayEquals(new int[]{1}, index.lookupNull("note"));
+    assertArrayEquals(new int[]{}, index.lookupNull("k1"));
+    assertArrayEquals(new int[]{}, index.lookup("missing", "v1"));
+
+    // array indices are normalized
+    assertArrayEquals(new int[]{0, 2}, index.lookup("items|*.price", 100));
+    assertArrayEquals(new int[]{0, 2}, index.lookup("items|1.price", 100));
+    assertArrayEquals(new int[]{0}, index.lookup("items|*.price", 250.5));
+    assertArrayEquals(new int[]{1}, index.lookup("items|*.price", 0));
+    assertArrayEquals(new int[]{0, 2}, index.lookup("tags|*", "b"));
+  }
+
+  @Test
+  public void testExistsLookup() {
+    TupleIndex index = createIndex();
+    assertArrayEquals(new int[]{0, 1, 2}, index.lookupExists("k1"));
+    // an empty array is under the array path, and an empty object is under the object path
+    assertArrayEquals(new int[]{0, 1, 2}, index.lookupExists("tags|*"));
+    assertArrayEquals(new int[]{}, index.lookupExists("tags"));
+    assertArrayEquals(new int[]{2}, index.lookupExists("other"));
+    assertArrayEquals(new int[]{}, index.lookupExists("k2"));
+  }
+
+  @Test
+  public void testRangeLookup() {
+    TupleIndex index = createIndex();
+    assertArrayEquals(new int[]{0}, index.lookupRange("items|*.price", 100, false, Double.POSITIVE_INFINITY, true));
+    assertArrayEquals(new int[]{0, 2}, index.lookupRange("items|*.price", 100, true, 250.5, true));
+    assertArrayEquals(new int[]{0, 2}, index.lookupRange("items|*.price", 100, true, 250.5, false));
+    assertArrayEquals(new int[]{0, 1, 2}, index.lookupRange("items|*.price", 0, true, 1000, true));
+    assertArrayEquals(new int[]{1}, index.lookupRange("items|*.price", 0, true, 0, true));
+    assertArrayEquals(new int[]{}, index.lookupRange("items|*.price", 0, false, 100, false));
+    assertArrayEquals(new int[]{}, index.lookupRange("items|*.price", 300, true, 100, true));
+    assertArrayEquals(new int[]{0, 1}, index.lookupRange("k2.nest3.double-nest1", 0, true, 1000, true));
+    assertArrayEquals(new int[]{1}, index.lookupRange("k1", 0, true, 1000, true));
+  }
+
+  @Test
+  public void testRemove() {
+    TupleIndex index = createIndex();
+    List<JsonTuple> tuples = JsonTuples.toTupleList(parse(DOCUMENTS[2]));
+
+    // document 2 has two items with price 100
+    JsonTuple firstPrice = tuples.stream().filter(tuple -> tuple.getFullPaths().startsWith("items|0")).findFirst().get();
+    index.remove(2, Collections.singletonList(firstPrice));
+    assertArrayEquals(new int[]{0, 2}, index.lookup("items|*.price", 100));
+    assertArrayEquals(new int[]{0, 2}, index.lookupRange("items|*.price", 100, true, 100, true));
+
+    index.remove(2, tuples);
+    assertArrayEquals(new int[]{0}, index.lookup("items|*.price", 100));
+    assertArrayEquals(new int[]{0}, index.lookupRange("items|*.price", 100, true, 100, true));
+    assertArrayEquals(new int[]{0, 1}, index.lookupExists("k1"));
+    assertArrayEquals(new int[]{}, index.lookupExists("other"));
+
+    // removing tuples that are not indexed has no effect
+    index.remove(2, tuples);
+    index.remove(5, JsonTuples.toTupleList(parse(DOCUMENTS[0])));
+    assertArrayEquals(new int[]{0, 1}, index.lookupExists("k1"));
+
+    index.remove(0, JsonTuples.toTupleList(parse(DOCUMENTS[0])));
+    index.remove(1, JsonTuples.toTupleList(parse(DOCUMENTS[1])));
+    assertEquals(0, index.getPathCount());
+  }
+
+  @Test
+  public void testApplyChangeset() {
+    JsonObject other = parse("{k1: 1, k2: x}");
+    for (String[] pair : JSON_PAIRS) {
+      assertApplyChangeset(parse(pair[0]), parse(pair[1]), other);
+      assertApplyChangeset(parse(pair[1]), parse(pair[0]), other);
+    }
+  }
+
+  @Test
+  public void testConcurrentUpdates() throws Exception {
+    TupleIndex index = new TupleIndex();
+    int documentCount = 2000;
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        int offset = t;
+        futures.add(executor.submit(() -> {
+          for (int id = offset; id < documentCount; id += 4) {
+            index.add(id, parse(String.format("{group: g%d, value: %d}", id % 10, id)));
+            index.lookupRange("value", 0, true, id, true);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    assertEquals(documentCount, index.lookupExists("value").length);
+    assertEquals(documentCount / 10, index.lookup("group", "g3").length);
+    assertArrayEquals(new int[]{1000, 1001, 1002}, index.lookupRange("value", 1000, true, 1002, true));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeDocumentId() {
+    new TupleIndex().add(-1, parse("{k1: 1}"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNaNRange() {
+    new TupleIndex().lookupRange("k1", Double.NaN, true, 1, true);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPath() {
+    new TupleIndex().lookup("k1|x", "v1");
+  }
+
+  private void assertApplyChangeset(JsonObject before, JsonObject after, JsonObject other) {
+    TupleIndex index = new TupleIndex();
+    index.add(0, other);
+    index.add(1, before);
+    index.add(2, other);
+    index.apply(1, TupleDiff.diff(before, after));
+
+    TupleIndex expected = new TupleIndex();
+    expected.add(0, other);
+    expected.add(1, after);
+    expected.add(2, other);
+
+    String message = before + " -> " + after;
+    assertEquals(message, expected.getPathCount(), index.getPathCount());
+    List<JsonTuple> tuples = new ArrayList<>(JsonTuples.toTupleList(before));
+    tuples.addAll(JsonTuples.toTupleList(after));
+    for (JsonTuple tuple : tuples) {
+      String path = PathPattern.toCanonicalPath(tuple.getPaths());
+      assertArrayEquals(message, expected.lookupExists(path), index.lookupExists(path));
+      assertArrayEquals(message, lookup(expected, path, tuple), lookup(index, path, tuple));
+    }
+  }
+
+  private static int[] lookup(TupleIndex index, String path, JsonTuple tuple) {
+    switch (tuple.getType()) {
+      case JSON_STRING:
+        return index.lookup(path, tuple.getValue());
+      case JSON_BOOLEAN:
+        return index.lookup(path, tuple.getBooleanValue());
+      case JSON_NUMBER:
+        return index.lookup(path, tuple.getDoubleValue());
+      case JSON_NULL:
+        return index.lookupNull(path);
+      default:
+        return index.lookupExists(path);
+    }
+  }
+
+  private TupleIndex createIndex() {
+    TupleIndex index = new TupleIndex();
+    for (int i = 0; i < DOCUMENTS.length; i++) {
+      index.add(i, parse(DOCUMENTS[i]));
+    }
+    return index;
+  }
+
+  private JsonObject parse(String json) {
+    return parser.parse(json).getAsJsonObject();
+  }
+
+}
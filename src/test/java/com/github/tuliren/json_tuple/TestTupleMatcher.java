@@ -0,0 +1,196 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static com.github.tuliren.json_tuple.TuplePredicate.and;
+import static com.github.tuliren.json_tuple.TuplePredicate.between;
+import static com.github.tuliren.json_tuple.TuplePredicate.eq;
+import static com.github.tuliren.json_tuple.TuplePredicate.exists;
+import static com.github.tuliren.json_tuple.TuplePredicate.ge;
+import static com.github.tuliren.json_tuple.TuplePredicate.gt;
+import static com.github.tuliren.json_tuple.TuplePredicate.isNull;
+import static com.github.tuliren.json_tuple.TuplePredicate.le;
+import static com.github.tuliren.json_tuple.TuplePredicate.lt;
+import static com.github.tuliren.json_tuple.TuplePredicate.not;
+import static com.github.tuliren.json_tuple.TuplePredicate.or;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestTupleMatcher extends BaseTestCase {
+
+  private static final String JSON_STRING = "{" +
+      "status: active, " +
+      "user: {name: tom, verified: true, nickname: null, address: {city: sf, zip: 94107}}, " +
+      "items: [{price: 50, count: 2}, {price: 120.5, count: 1}], " +
+      "tags: [a, b], " +
+      "score: 12345678901234567890" +
+      "}";
+
+  private final JsonParser parser = new JsonParser();
+  private final JsonObject json = parser.parse(JSON_STRING).getAsJsonObject();
+  private final List<JsonTuple> tuples = JsonTuples.toTupleList(json);
+
+  @Test
+  public void testEquality() {
+    assertMatch(true, eq("status", "active"));
+    assertMatch(false, eq("status", "inactive"));
+    assertMatch(true, eq("user.verified", true));
+    assertMatch(false, eq("user.verified", false));
+    assertMatch(true, eq("user.address.zip", 94107));
+    assertMatch(true, eq("user.address.zip", 94107.0));
+    assertMatch(true, eq("items|*.price", 120.5));
+    assertMatch(false, eq("items|*.price", 120));
+    assertMatch(true, eq("tags|1", "b"));
+    assertMatch(false, eq("tags|0", "b"));
+    // values of other types never match
+    assertMatch(false, eq("user.address.zip", "94107"));
+    assertMatch(false, eq("status", true));
+  }
+
+  @Test
+  public void testRange() {
+    assertMatch(true, gt("items|*.price", 100));
+    assertMatch(false, gt("items|*.price", 120.5));
+    assertMatch(true, ge("items|*.price", 120.5));
+    assertMatch(true, lt("items|*.price", 60));
+    assertMatch(false, lt("items|*.price", 50));
+    assertMatch(true, le("items|*.price", 50));
+    assertMatch(true, between("items|*.count", 2, 3));
+    assertMatch(false, between("items|*.count", 3, 4));
+    assertMatch(true, gt("score", 1e19));
+    assertMatch(false, gt("status", 0));
+  }
+
+  @Test
+  public void testExistsAndNull() {
+    assertMatch(true, exists("user.address"));
+    assertMatch(true, exists("user.address.city"));
+    assertMatch(true, exists("items|*.count"));
+    assertMatch(true, exists("tags"));
+    assertMatch(false, exists("user.email"));
+    assertMatch(false, exists("missing"));
+    assertMatch(true, isNull("user.nickname"));
+    assertMatch(false, isNull("user.name"));
+    assertMatch(false, isNull("user.email"));
+  }
+
+  @Test
+  public void testLogic() {
+    assertMatch(true, and(eq("status", "active"), gt("items|*.price", 100)));
+    assertMatch(false, and(eq("status", "active"), gt("items|*.price", 200)));
+    assertMatch(true, or(eq("status", "inactive"), gt("items|*.price", 100)));
+    assertMatch(false, or(eq("status", "inactive"), exists("missing")));
+    assertMatch(true, not(exists("missing")));
+    assertMatch(false, not(eq("status", "active")));
+    assertMatch(true, and(not(isNull("user.name")), or(eq("tags|*", "c"), eq("user.address.city", "sf"))));
+
+    TuplePredicate shared = eq("status", "active");
+    assertMatch(false, and(shared, not(shared)));
+    assertMatch(true, or(shared, not(shared)));
+  }
+
+  @Test
+  public void testShortCircuit() {
+    // decided by the first tuple
+    assertEquals(1, countConsumedTuples(eq("status", "active")));
+    // decided when the tuples move past status
+    assertEquals(2, countConsumedTuples(and(eq("status", "inactive"), gt("items|*.price", 100))));
+    assertEquals(2, countConsumedTuples(not(eq("status", "inactive"))));
+    // decided by the price of the second item
+    int itemIndex = indexOf("items|*.price", "120.5");
+    assertEquals(itemIndex + 1, countConsumedTuples(and(eq("status", "active"), gt("items|*.price", 100))));
+    // exists is decided by the first tuple under the pattern
+    assertEquals(indexOf("user.address.city", "sf") + 1, countConsumedTuples(exists("user.address")));
+    // a missing key is only decided at the end of the tuples
+    assertEquals(tuples.size(), countConsumedTuples(exists("missing")));
+  }
+
+  @Test
+  public void testLazyStream() {
+    TupleMatcher matcher = eq("status", "active").compile();
+    assertTrue(matcher.matches(json));
+    assertTrue(matcher.matches(JsonTuples.stream(json)));
+    assertFalse(eq("status", "inactive").compile().matches(new JsonObject()));
+    assertTrue(not(exists("status")).compile().matches(new JsonObject()));
+  }
+
+  @Test
+  public void testMatchAll() {
+    List<List<JsonTuple>> documents = new ArrayList<>();
+    boolean[] expected = new boolean[1000];
+    for (int i = 0; i < expected.length; i++) {
+      JsonObject document = parser.parse(String.format("{status: %s, items: [{price: %d}]}", i % 3 == 0 ? "active" : "closed", i)).getAsJsonObject();
+      documents.add(JsonTuples.toTupleList(document));
+      expected[i] = i % 3 == 0 && i > 100;
+    }
+
+    TupleMatcher matcher = and(eq("status", "active"), gt("items|*.price", 100)).compile();
+    assertArrayEquals(expected, matcher.matchAll(documents));
+
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      assertArrayEquals(expected, matcher.matchAll(documents, pool));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyAnd() {
+    and();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNaNRange() {
+    gt("items|*.price", Double.NaN);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPattern() {
+    exists("items|x");
+  }
+
+  private void assertMatch(boolean expected, TuplePredicate predicate) {
+    TupleMatcher matcher = predicate.compile();
+    assertEquals(predicate.toString(), expected, matcher.matches(tuples));
+    assertEquals(predicate.toString(), expected, matcher.matches(json));
+  }
+
+  private int countConsumedTuples(TuplePredicate predicate) {
+    int[] count = new int[1];
+    Iterator<JsonTuple> iterator = tuples.iterator();
+    predicate.compile().matches(new Iterator<JsonTuple>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public JsonTuple next() {
+        count[0]++;
+        return iterator.next();
+      }
+    });
+    return count[0];
+  }
+
+  private int indexOf(String pattern, String value) {
+    PathPattern pathPattern = PathPattern.compile(pattern);
+    for (int i = 0; i < tuples.size(); i++) {
+      if (pathPattern.matches(tuples.get(i).getPaths()) && value.equals(tuples.get(i).getValue())) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException(pattern + " = " + value);
+  }
+
+}
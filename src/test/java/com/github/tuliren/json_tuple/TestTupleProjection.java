@@ -0,0 +1,94 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestTupleProjection extends BaseTestCase {
+
+  private static final String JSON_STRING = "{" +
+      "user: {name: tom, address: {city: sf, zip: 94107}, tags: [a, b]}, " +
+      "items: [{price: 1, count: 2}, {price: 3, count: 4}, {count: 5}], " +
+      "matrix: [[1, 2], [3, 4, 5]], " +
+      "other: value" +
+      "}";
+
+  private final JsonParser parser = new JsonParser();
+  private final List<JsonTuple> tuples = JsonTuples.toTupleList(parser.parse(JSON_STRING).getAsJsonObject());
+
+  @Test
+  public void testObjectPattern() {
+    assertProjection("{user: {address: {city: sf, zip: 94107}}}", "user.address");
+    assertProjection("{user: {name: tom}, other: value}", "user.name", "other");
+    assertProjection("{}", "user.missing");
+    assertProjection("{}", "missing");
+  }
+
+  @Test
+  public void testWholeArray() {
+    assertProjection("{user: {tags: [a, b]}}", "user.tags");
+    assertProjection("{matrix: [[1, 2], [3, 4, 5]]}", "matrix");
+  }
+
+  @Test
+  public void testArrayPattern() {
+    assertProjection("{items: [{price: 1}, {price: 3}]}", "items|*.price");
+    assertProjection("{items: [{price: 3, count: 4}]}", "items|1");
+    assertProjection("{items: [{count: 5}]}", "items|2.count");
+    assertProjection("{matrix: [[2], [4]]}", "matrix|*.|1");
+    assertProjection("{matrix: [[5]]}", "matrix|1.|2");
+  }
+
+  @Test
+  public void testOverlappingPatterns() {
+    assertProjection("{user: {address: {city: sf, zip: 94107}}}", "user.address", "user.address.city");
+    assertProjection("{items: [{price: 1, count: 2}, {price: 3}]}", "items|*.price", "items|0");
+  }
+
+  @Test
+  public void testUnorderedTuples() {
+    List<JsonTuple> shuffled = new ArrayList<>(tuples);
+    Collections.shuffle(shuffled, new Random(1L));
+    JsonObject expected = parser.parse("{user: {tags: [a, b]}, items: [{price: 1}, {price: 3}]}").getAsJsonObject();
+    assertEquals(expected, JsonTuples.fromTupleList(shuffled, TupleProjection.of("user.tags", "items|*.price")));
+  }
+
+  @Test
+  public void testPathPattern() {
+    PathPattern pattern = PathPattern.compile("items|*.price");
+    assertTrue(pattern.matches(KeyPaths.parse("items|0|3.price")));
+    assertTrue(pattern.matchesPrefixOf(KeyPaths.parse("items|0|3.price.amount")));
+    assertFalse(pattern.matches(KeyPaths.parse("items|0|3.price.amount")));
+    assertFalse(pattern.matchesPrefixOf(KeyPaths.parse("items.price")));
+    assertFalse(pattern.matchesPrefixOf(KeyPaths.parse("items|0|3")));
+
+    // an element segment matches a named array only as the last segment
+    assertTrue(PathPattern.compile("items").matchesPrefixOf(KeyPaths.parse("items|0|3.price")));
+    assertFalse(PathPattern.compile("items.price").matchesPrefixOf(KeyPaths.parse("items|0|3.price")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidIndex() {
+    PathPattern.compile("items|x.price");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testKeylessFirstSegment() {
+    PathPattern.compile("|*.price");
+  }
+
+  private void assertProjection(String expected, String... patterns) {
+    JsonObject json = JsonTuples.fromTupleList(tuples, TupleProjection.of(patterns));
+    assertEquals(expected, parser.parse(expected).getAsJsonObject(), json);
+  }
+
+}
@@ -0,0 +1,94 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestTupleSpliterator extends BaseTestCase {
+
+  private static final String[] JSON_STRINGS = {
+      "{key: \"string\"}",
+      "{k1: 1, k2: 2.2, k3: true, k4: null, k5: \"\", \"\": value}",
+      "{key: {}}",
+      "{key: []}",
+      "{key: [[]], k2: [[], []]}",
+      "{key: [{}, 1, 2, 3]}",
+      "{key: [[{}], [{}, {}]]}",
+      "{key: [[1, 2, 3], [4, 5, 6], 1, 2.2, string, true, false]}",
+      "{key: [1, [2, [3, [4, [5, [6]]]]]]}",
+      "{key: {key: {key: {key: {key: value}}}}}",
+      "{key: [[[[{l1: v1}, {l2: v2}]], {l3: v3}]]}",
+      "{objectsInArray: [{k1: [true, false], k2: 11}, {k1: [true], k2: 12, emptyArray: []}], array3: [6, 7], nullKey: null}"
+  };
+
+  private final JsonParser parser = new JsonParser();
+
+  @Test
+  public void testSameAsTupleList() {
+    for (String jsonString : JSON_STRINGS) {
+      JsonObject json = parser.parse(jsonString).getAsJsonObject();
+      List<JsonTuple> expected = JsonTuples.toTupleList(json);
+      assertEquals(jsonString, expected, JsonTuples.stream(json).collect(Collectors.toList()));
+      assertEquals(jsonString, expected, JsonTuples.stream(json).parallel().collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void testParallel() {
+    JsonObject json = new JsonObject();
+    for (int i = 0; i < 500; i++) {
+      json.add("object" + i, parser.parse("{k1: " + i + ", k2: [true, {k3: null}, [1, 2]], k4: {}}"));
+    }
+    assertEquals(JsonTuples.toTupleList(json), JsonTuples.stream(json).parallel().collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testShortCircuit() {
+    JsonObject json = parser.parse("{k1: {a: [1, 2, 3]}, k2: x, k3: [{b: y}]}").getAsJsonObject();
+    List<JsonTuple> expected = JsonTuples.toTupleList(json);
+
+    Optional<JsonTuple> first = JsonTuples.stream(json).findFirst();
+    assertEquals(expected.get(0), first.get());
+    assertEquals(expected.subList(0, 4), JsonTuples.stream(json).limit(4).collect(Collectors.toList()));
+    assertEquals(
+        JsonTuple.create("k3|0|1.b", ValueType.JSON_STRING, "y"),
+        JsonTuples.stream(json).filter(tuple -> tuple.getPaths().size() == 2 && tuple.getPaths().get(0).isArray()).findFirst().get()
+    );
+  }
+
+  @Test
+  public void testSplitKeepsCurrentEntryInPrefix() {
+    JsonObject json = parser.parse("{k1: [1, 2], k2: 3, k3: 4, k4: 5}").getAsJsonObject();
+    Spliterator<JsonTuple> suffix = TupleSpliterator.forObject(json);
+    assertTrue(suffix.tryAdvance(tuple -> assertEquals(JsonTuple.create("k1|0|2", ValueType.JSON_NUMBER, "1"), tuple)));
+
+    Spliterator<JsonTuple> prefix = suffix.trySplit();
+    assertTrue(prefix.tryAdvance(tuple -> assertEquals(JsonTuple.create("k1|1|2", ValueType.JSON_NUMBER, "2"), tuple)));
+    assertTrue(prefix.tryAdvance(tuple -> assertEquals(JsonTuple.create("k2", ValueType.JSON_NUMBER, "3"), tuple)));
+    assertTrue(suffix.tryAdvance(tuple -> assertEquals(JsonTuple.create("k3", ValueType.JSON_NUMBER, "4"), tuple)));
+    assertNull(suffix.trySplit());
+  }
+
+  @Test
+  public void testCursorReuse() {
+    TupleCursor cursor = new TupleCursor();
+    for (String jsonString : JSON_STRINGS) {
+      JsonObject json = parser.parse(jsonString).getAsJsonObject();
+      cursor.reset(KeyPathList.EMPTY, json);
+      for (JsonTuple expected : JsonTuples.toTupleList(json)) {
+        assertEquals(jsonString, expected, cursor.next());
+      }
+      assertNull(cursor.next());
+    }
+  }
+
+}
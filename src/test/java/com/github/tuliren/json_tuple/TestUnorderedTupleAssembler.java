@@ -0,0 +1,73 @@
+package com.github.tuliren.json_tuple;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestUnorderedTupleAssembler extends BaseTestCase {
+
+  private static final String[] JSON_STRINGS = {
+      "{k1: 1, k2: 2.2, k3: true, k4: null, k5: \"\", \"\": value}",
+      "{key: {}, array: [], objects: [{}, {}], arrays: [[], []]}",
+      "{key: [{}, 1, 2, 3]}",
+      "{key: [[{}], [{}, {}]]}",
+      "{key: [[1, 2, 3], [4, 5, 6], 1, 2.2, string, true, false]}",
+      "{key: [1, [2, [3, [4, [5, [6]]]]]]}",
+      "{key: [[[[{l1: v1}, {l2: v2}]], {l3: v3}]]}",
+      "{k1: {nest1: 10, nest2: 20}, k2: {nest1: 55, nest2: 56, nest3: {double-nest1: 100, double-nest2: 200}}}",
+      "{objectsInArray: [{k1: [true, false], k2: 11}, {k1: [true], k2: 12, emptyArray: []}], array3: [6, 7], nullKey: null}"
+  };
+
+  private final JsonParser parser = new JsonParser();
+
+  @Test
+  public void testShuffledTuples() {
+    Random random = new Random(1L);
+    for (String jsonString : JSON_STRINGS) {
+      JsonObject expected = parser.parse(jsonString).getAsJsonObject();
+      List<JsonTuple> tuples = new ArrayList<>(JsonTuples.toTupleList(expected));
+      for (int i = 0; i < 10; i++) {
+        Collections.shuffle(tuples, random);
+        assertEquals(jsonString, expected, JsonTuples.fromUnorderedTupleList(tuples));
+      }
+    }
+  }
+
+  @Test
+  public void testReversedTuples() {
+    JsonObject expected = parser.parse(JSON_STRINGS[JSON_STRINGS.length - 1]).getAsJsonObject();
+    List<JsonTuple> tuples = new ArrayList<>(JsonTuples.toTupleList(expected));
+    Collections.reverse(tuples);
+    assertEquals(expected, JsonTuples.fromUnorderedTupleList(tuples));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMissingArrayElement() {
+    JsonTuples.fromUnorderedTupleList(Collections.singletonList(JsonTuple.create("array|1|2", ValueType.JSON_NUMBER, "1")));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testInconsistentArraySize() {
+    JsonTuples.fromUnorderedTupleList(Arrays.asList(
+        JsonTuple.create("array|0|2", ValueType.JSON_NUMBER, "1"),
+        JsonTuple.create("array|1|3", ValueType.JSON_NUMBER, "2")
+    ));
+  }
+
+  @Test
+  public void testSkipMissingElements() {
+    UnorderedTupleAssembler assembler = new UnorderedTupleAssembler(true);
+    assembler.add(JsonTuple.create("array|2|3", ValueType.JSON_NUMBER, "3"));
+    assembler.add(JsonTuple.create("array|0|3", ValueType.JSON_NUMBER, "1"));
+    assertEquals(parser.parse("{array: [1, 3]}"), assembler.build());
+  }
+
+}